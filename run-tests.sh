@@ -41,6 +41,7 @@ show_usage() {
     echo "  e2e                 Run end-to-end tests only"
     echo "  integration         Run all integration tests"
     echo "  coverage            Run all tests with coverage report"
+    echo "  bench               Run persistence benchmarks (not part of 'all')"
     echo "  clean               Clean and run all tests"
     echo "  help                Show this help message"
     echo ""
@@ -101,6 +102,13 @@ run_coverage_tests() {
     print_status "Coverage report available at: target/site/jacoco/index.html"
 }
 
+# Function to run benchmarks
+run_benchmarks() {
+    print_status "Running benchmarks..."
+    mvn test -Dtest="*Benchmark"
+    print_success "Benchmarks completed"
+}
+
 # Function to clean and run tests
 run_clean_tests() {
     print_status "Cleaning and running all tests..."
@@ -134,6 +142,9 @@ case "${1:-help}" in
     "clean")
         run_clean_tests
         ;;
+    "bench")
+        run_benchmarks
+        ;;
     "help"|*)
         show_usage
         ;;
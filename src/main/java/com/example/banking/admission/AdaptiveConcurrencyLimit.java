@@ -0,0 +1,105 @@
+package com.example.banking.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit that follows what the database can take, in the manner of TCP Vegas. The lowest
+ * latency seen stands for the service with nothing queued; the ratio of a request's latency to it
+ * estimates how many requests are queued behind the limit. A short queue grows the limit by one, a long
+ * one shrinks it by one, and a request that failed with a server error cuts it multiplicatively (AIMD).
+ * <p>
+ * The lowest latency is forgotten every {@code probeInterval} samples, so the baseline can rise when the
+ * database gets slower for good instead of shrinking the limit forever.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int alpha;
+    private final int beta;
+    private final double backoffRatio;
+    private final int probeInterval;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by this
+    private long minRttNanos = Long.MAX_VALUE;
+    private int samplesSinceProbe;
+
+    /**
+     * @param alpha        queue estimate below which the limit grows
+     * @param beta         queue estimate above which the limit shrinks
+     * @param backoffRatio factor the limit is cut by after a server error
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, int alpha, int beta,
+                                    double backoffRatio, int probeInterval) {
+        if (minLimit < 1 || minLimit > maxLimit || alpha >= beta) {
+            throw new IllegalArgumentException("Need 1 <= min-limit <= max-limit and alpha < beta");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.backoffRatio = backoffRatio;
+        this.probeInterval = probeInterval;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Takes a slot if fewer than the limit are in use. Every successful call must be followed by one
+     * {@code release}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives the slot back without a sample, for requests whose latency says nothing about the database.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public void release(long latencyNanos, boolean overloaded) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        update(Math.max(latencyNanos, 1), overloaded, inFlightBefore);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long latencyNanos, boolean overloaded, int inFlightBefore) {
+        if (overloaded) {
+            limit = Math.max(minLimit, (int) (limit * backoffRatio));
+            return;
+        }
+        if (++samplesSinceProbe >= probeInterval) {
+            minRttNanos = latencyNanos;
+            samplesSinceProbe = 0;
+        } else {
+            minRttNanos = Math.min(minRttNanos, latencyNanos);
+        }
+
+        double queued = limit * (1 - (double) minRttNanos / latencyNanos);
+        if (queued > beta) {
+            limit = Math.max(minLimit, limit - 1);
+        } else if (queued < alpha && inFlightBefore * 2 >= limit) {
+            // Only grow while the limit is actually being used, or an idle service would drift to the maximum
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.banking.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admits API requests up to an {@link AdaptiveConcurrencyLimit} and answers the rest straight away with
+ * 503 and a Retry-After header. Without it a spike parks every Tomcat thread on the small connection pool,
+ * where they all time out together; with it the excess is turned away while the admitted requests still
+ * finish in time.
+ * <p>
+ * Asynchronous responses, such as streamed customer lists, give their slot back when the request thread
+ * hands them off and are not sampled.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    static final String LIMIT_METRIC = "banking.concurrency.limit";
+    static final String IN_FLIGHT_METRIC = "banking.concurrency.in-flight";
+    static final String REJECTED_METRIC = "banking.concurrency.rejected";
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final Duration retryAfter;
+    private final ObjectMapper objectMapper;
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit limit, Duration retryAfter, ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.limit = limit;
+        this.retryAfter = retryAfter;
+        this.objectMapper = objectMapper;
+        Gauge.builder(LIMIT_METRIC, limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Concurrent API requests currently admitted")
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_METRIC, limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("API requests being served")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(REJECTED_METRIC)
+                .description("API requests turned away by the concurrency limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!limit.tryAcquire()) {
+            rejected.increment();
+            reject(response);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (request.isAsyncStarted()) {
+                limit.release();
+            } else {
+                limit.release(System.nanoTime() - start, failed || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", false);
+        body.put("error", "OVERLOADED");
+        body.put("message", "The service is at its concurrency limit, retry later");
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
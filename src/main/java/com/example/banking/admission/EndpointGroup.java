@@ -0,0 +1,52 @@
+package com.example.banking.admission;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Classes of API endpoint that are rate limited separately, so a client that exhausts its quota for one
+ * (typically transaction history) can still move money. The defaults are per client and per replica.
+ */
+public enum EndpointGroup {
+
+    TRANSFERS(50, 20),
+    HISTORY(20, 5),
+    READS(100, 50),
+    WRITES(20, 10);
+
+    private static final Pattern HISTORY_PATH = Pattern.compile(".*/accounts/[^/]+/transactions/?");
+
+    private final int defaultCapacity;
+    private final double defaultRefillPerSecond;
+
+    EndpointGroup(int defaultCapacity, double defaultRefillPerSecond) {
+        this.defaultCapacity = defaultCapacity;
+        this.defaultRefillPerSecond = defaultRefillPerSecond;
+    }
+
+    public static EndpointGroup of(String method, String path) {
+        if (path.endsWith("/accounts/process")) {
+            return TRANSFERS;
+        }
+        boolean read = "GET".equals(method) || "HEAD".equals(method);
+        if (read && HISTORY_PATH.matcher(path).matches()) {
+            return HISTORY;
+        }
+        return read ? READS : WRITES;
+    }
+
+    /**
+     * Name used in configuration keys and metric tags.
+     */
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public int getDefaultCapacity() {
+        return defaultCapacity;
+    }
+
+    public double getDefaultRefillPerSecond() {
+        return defaultRefillPerSecond;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.banking.admission;
+
+import com.example.banking.cluster.ForwardingCredentials;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gives every client its own {@link TokenBucket} per {@link EndpointGroup} and answers requests beyond it
+ * with 429, so one partner polling transaction history cannot use up the capacity everyone else's
+ * transfers need. A client sending one of the configured API keys is charged to that key; everyone else,
+ * including callers with an unknown key, is charged to their address, so making up keys buys nothing.
+ * <p>
+ * Every response carries X-RateLimit-Limit and X-RateLimit-Remaining for its group; a refused one also
+ * carries Retry-After. Buckets that have refilled completely are indistinguishable from new ones and are
+ * dropped by a periodic sweep, so the map only holds clients that were active recently.
+ * <p>
+ * Requests forwarded by another replica are charged to the client address that replica saw, but only when
+ * the {@link ForwardingCredentials} confirm a replica sent them.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String REJECTED_METRIC = "banking.rate-limit.rejected";
+    static final String BUCKETS_METRIC = "banking.rate-limit.buckets";
+    static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Map<EndpointGroup, Quota> quotas;
+    private final String clientHeader;
+    private final Set<String> apiKeys;
+    private final ForwardingCredentials credentials;
+    private final ObjectMapper objectMapper;
+    private final Map<EndpointGroup, Counter> rejected = new EnumMap<>(EndpointGroup.class);
+    private final ConcurrentHashMap<BucketKey, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime() + SWEEP_INTERVAL_NANOS);
+
+    public RateLimitFilter(Map<EndpointGroup, Quota> quotas, String clientHeader, Set<String> apiKeys,
+                           ForwardingCredentials credentials, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.quotas = new EnumMap<>(quotas);
+        this.clientHeader = clientHeader;
+        this.apiKeys = Set.copyOf(apiKeys);
+        this.credentials = credentials;
+        this.objectMapper = objectMapper;
+        for (EndpointGroup group : EndpointGroup.values()) {
+            rejected.put(group, Counter.builder(REJECTED_METRIC)
+                    .description("API requests refused because the client used up its quota")
+                    .tag("group", group.key())
+                    .register(meterRegistry));
+        }
+        Gauge.builder(BUCKETS_METRIC, buckets, Map::size)
+                .description("Client rate limit buckets held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointGroup group = EndpointGroup.of(request.getMethod(), request.getRequestURI());
+        Quota quota = quotas.get(group);
+        if (quota == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        sweepIfDue(now);
+        TokenBucket bucket = buckets.computeIfAbsent(new BucketKey(group, clientOf(request)),
+                key -> new TokenBucket(quota.capacity(), quota.refillPerSecond(), now));
+        TokenBucket.Decision decision = bucket.tryTake(now);
+        response.setHeader(LIMIT_HEADER, String.valueOf(bucket.getCapacity()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(decision.remaining()));
+        if (!decision.allowed()) {
+            rejected.get(group).increment();
+            reject(response, decision.retryAfterNanos());
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(clientHeader);
+        if (apiKey != null && apiKeys.contains(apiKey.trim())) {
+            return "key:" + apiKey.trim();
+        }
+        String forwardedClient = credentials.forwardedClientAddress(request);
+        return "ip:" + (forwardedClient != null ? forwardedClient : request.getRemoteAddr());
+    }
+
+    // Only the thread that moves the deadline sweeps, so requests never wait on each other here
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due >= 0 && nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+            sweep(now);
+        }
+    }
+
+    void sweep(long now) {
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", false);
+        body.put("error", "RATE_LIMITED");
+        body.put("message", "Too many requests for this client, retry in " + retryAfterSeconds + "s");
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    /**
+     * @param capacity        requests a client can make in a burst
+     * @param refillPerSecond sustained requests per second once the burst is used
+     */
+    public record Quota(int capacity, double refillPerSecond) {
+    }
+
+    private record BucketKey(EndpointGroup group, String client) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.banking.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket kept in a single {@link AtomicLong}, so taking a token is one compare-and-set and never
+ * blocks. Instead of a token count it stores the time at which the bucket will be full again (the
+ * generic cell rate algorithm): every token taken pushes that time one refill interval further out, and a
+ * request is refused when doing so would need more than {@code capacity} tokens' worth of future.
+ * <p>
+ * A bucket whose full-again time has passed behaves exactly like a new one, which is what lets idle
+ * buckets be dropped without losing anything.
+ */
+public class TokenBucket {
+
+    private final int capacity;
+    private final long refillIntervalNanos;
+    private final long burstNanos;
+
+    // Time at which the bucket holds capacity tokens again, on the System.nanoTime() scale
+    private final AtomicLong fullAt;
+
+    public TokenBucket(int capacity, double refillPerSecond, long nowNanos) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Need capacity >= 1 and refill-per-second > 0");
+        }
+        this.capacity = capacity;
+        this.refillIntervalNanos = Math.max(1, Math.round(1_000_000_000d / refillPerSecond));
+        this.burstNanos = refillIntervalNanos * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    public Decision tryTake(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + refillIntervalNanos;
+            long debt = next - nowNanos;
+            if (debt > burstNanos) {
+                // The token that would have made room for this request refills after retryAfter
+                return new Decision(false, 0, debt - burstNanos);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return new Decision(true, (int) ((burstNanos - debt) / refillIntervalNanos), 0);
+            }
+        }
+    }
+
+    public boolean isFull(long nowNanos) {
+        return fullAt.get() - nowNanos <= 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @param remaining       tokens left after this request
+     * @param retryAfterNanos how long a refused caller has to wait for a token
+     */
+    public record Decision(boolean allowed, int remaining, long retryAfterNanos) {
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.banking.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the {@link LocalCache}s of all replicas coherent without an external broker. Invalidated ids are
+ * evicted locally right away and published to the other replicas with Postgres NOTIFY. Callers invalidate
+ * once their change has committed, so a replica that reloads after the notification sees the new state.
+ * <p>
+ * Ids are collected for a short window and sent in batches, one notification per cache and batch, to keep
+ * the NOTIFY traffic independent of the write rate. Every replica LISTENs on a dedicated connection outside
+ * the pool. Notifications sent while that connection is down are lost, so after every (re)connect all local
+ * caches are cleared.
+ * <p>
+ * On any database other than Postgres, such as H2 in tests, invalidation is local only.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    static final String CHANNEL = "banking_cache_invalidation";
+    static final String PUBLISHED_METRIC = "banking.cache.invalidations.published";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    @Value("${spring.datasource.url:}")
+    private String url = "";
+
+    @Value("${spring.datasource.username:}")
+    private String username = "";
+
+    @Value("${spring.datasource.password:}")
+    private String password = "";
+
+    @Value("${banking.cache.invalidation.batch-window:20ms}")
+    private Duration batchWindow = Duration.ofMillis(20);
+
+    // NOTIFY payloads are limited to 8000 bytes; 200 ids stay well below that
+    @Value("${banking.cache.invalidation.max-batch:200}")
+    private int maxBatch = 200;
+
+    @Value("${banking.cache.invalidation.reconnect-delay:1s}")
+    private Duration reconnectDelay = Duration.ofSeconds(1);
+
+    private final String origin = UUID.randomUUID().toString();
+    private final Map<String, LocalCache<?>> caches = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> pending = new LinkedHashMap<>();
+
+    private ScheduledExecutorService publisher;
+    private Thread listener;
+    private volatile boolean running;
+
+    public <V> LocalCache<V> register(LocalCache<V> cache) {
+        caches.put(cache.getName(), cache);
+        return cache;
+    }
+
+    /**
+     * Evicts the ids here and, on Postgres, queues them for the other replicas.
+     */
+    public void invalidate(LocalCache<?> cache, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        cache.evict(ids);
+        if (publisher == null) {
+            return;
+        }
+        synchronized (pending) {
+            pending.computeIfAbsent(cache.getName(), name -> new LinkedHashSet<>()).addAll(ids);
+        }
+    }
+
+    public boolean isDistributed() {
+        return url.startsWith("jdbc:postgresql:");
+    }
+
+    @PostConstruct
+    void start() {
+        if (!isDistributed()) {
+            log.info("Cache invalidation is local only, the database does not support LISTEN/NOTIFY");
+            return;
+        }
+        running = true;
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "cache-invalidation-publisher"));
+        publisher.scheduleWithFixedDelay(this::flush, batchWindow.toMillis(), batchWindow.toMillis(), TimeUnit.MILLISECONDS);
+        listener = daemon(this::listen, "cache-invalidation-listener");
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (publisher != null) {
+            publisher.shutdown();
+            flush();
+        }
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    void flush() {
+        Map<String, Set<Long>> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+        for (Map.Entry<String, Set<Long>> entry : batch.entrySet()) {
+            List<Long> ids = new ArrayList<>(entry.getValue());
+            for (int from = 0; from < ids.size(); from += maxBatch) {
+                List<Long> chunk = ids.subList(from, Math.min(from + maxBatch, ids.size()));
+                try {
+                    String payload = objectMapper.writeValueAsString(new Invalidation(origin, entry.getKey(), chunk));
+                    jdbcTemplate.query("SELECT pg_notify(?, ?)", resultSet -> null, CHANNEL, payload);
+                    Counter.builder(PUBLISHED_METRIC).tag("cache", entry.getKey()).register(meterRegistry).increment(chunk.size());
+                } catch (JsonProcessingException | RuntimeException e) {
+                    // Other replicas keep serving these until the TTL runs out
+                    log.warn("Could not publish {} invalidations for cache {}", chunk.size(), entry.getKey(), e);
+                }
+            }
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Anything published while we were not listening is lost, so nothing cached can be trusted
+                caches.values().forEach(LocalCache::clear);
+                log.info("Listening for cache invalidations on {}", CHANNEL);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) reconnectDelay.toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection, reconnecting in {}", reconnectDelay, e);
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    void apply(String payload) {
+        try {
+            Invalidation invalidation = objectMapper.readValue(payload, Invalidation.class);
+            if (origin.equals(invalidation.origin())) {
+                // Already evicted here when it was queued
+                return;
+            }
+            LocalCache<?> cache = caches.get(invalidation.cache());
+            if (cache != null) {
+                cache.evict(invalidation.ids());
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed cache invalidation {}", payload, e);
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    record Invalidation(String origin, String cache, List<Long> ids) {
+    }
+}
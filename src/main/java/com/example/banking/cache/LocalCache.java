@@ -0,0 +1,108 @@
+package com.example.banking.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * A bounded in-process cache of entities by id. Entries expire after the TTL, which is only a backstop:
+ * changes are evicted through the {@link CacheInvalidationBus} on every replica as soon as they commit.
+ * <p>
+ * Values must not be changed once cached; callers hand out copies.
+ */
+public class LocalCache<V> {
+
+    static final String GETS_METRIC = "banking.cache.gets";
+
+    private final String name;
+    private final int maxSize;
+    private final Duration ttl;
+    private final Counter hits;
+    private final Counter misses;
+
+    // Access-ordered so the least recently used entry is evicted once the map is full
+    private final Map<Long, Entry<V>> entries;
+
+    // Bumped by every eviction, so a value loaded while one happened is not cached; it may already be stale
+    private long generation;
+
+    public LocalCache(String name, int maxSize, Duration ttl) {
+        this(name, maxSize, ttl, Metrics.globalRegistry);
+    }
+
+    public LocalCache(String name, int maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry<V>> eldest) {
+                return size() > LocalCache.this.maxSize;
+            }
+        };
+        this.hits = Counter.builder(GETS_METRIC).tag("cache", name).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder(GETS_METRIC).tag("cache", name).tag("result", "miss").register(meterRegistry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the cached value, or loads and caches it. A null from the loader is returned but not cached.
+     */
+    public V get(long id, LongFunction<V> loader) {
+        long stamp;
+        synchronized (entries) {
+            Entry<V> entry = entries.get(id);
+            if (entry != null && System.nanoTime() - entry.storedAt() <= ttl.toNanos()) {
+                hits.increment();
+                return entry.value();
+            }
+            if (entry != null) {
+                entries.remove(id);
+            }
+            stamp = generation;
+        }
+        misses.increment();
+
+        V value = loader.apply(id);
+        if (value != null) {
+            synchronized (entries) {
+                if (generation == stamp) {
+                    entries.put(id, new Entry<>(value, System.nanoTime()));
+                }
+            }
+        }
+        return value;
+    }
+
+    public void evict(Collection<Long> ids) {
+        synchronized (entries) {
+            generation++;
+            ids.forEach(entries::remove);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record Entry<V>(V value, long storedAt) {
+    }
+}
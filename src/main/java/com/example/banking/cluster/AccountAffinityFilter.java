@@ -0,0 +1,202 @@
+package com.example.banking.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ConnectException;
+import java.net.http.HttpConnectTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends each account request to the replica that owns the account on the {@link ClusterMembership} ring,
+ * so one replica does all the writing for an account and its caches see every change. Requests under
+ * /accounts/{id} are keyed by the path; /accounts/process is keyed by the account it debits, or the one it
+ * credits for a deposit.
+ * <p>
+ * A forwarded request is always served where it lands, so replicas whose member lists briefly disagree
+ * during a change cannot bounce it around. Only requests signed by another replica count as forwarded; a
+ * client sending the forwarding headers itself is routed like any other request. If the owner cannot be reached the request is served locally:
+ * affinity is an optimization, and the account locks keep concurrent writers on different replicas correct.
+ * A write that failed after it was sent is answered with 502 instead, as the owner may have applied it.
+ * Asynchronous submissions are not forwarded, because their status handles live in the memory of the replica
+ * that accepted them.
+ */
+public class AccountAffinityFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountAffinityFilter.class);
+
+    static final String FORWARDED_METRIC = "banking.cluster.forwarded";
+
+    private static final Pattern ACCOUNT_PATH = Pattern.compile("^/api/v1/accounts/(\\d+)(/.*)?$");
+    private static final String PROCESS_PATH = "/api/v1/accounts/process";
+
+    private final ClusterMembership membership;
+    private final ReplicaForwarder forwarder;
+    private final ForwardingCredentials credentials;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public AccountAffinityFilter(ClusterMembership membership, ReplicaForwarder forwarder,
+                                 ForwardingCredentials credentials, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.membership = membership;
+        this.forwarder = forwarder;
+        this.credentials = credentials;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !membership.isRoutingEnabled() || credentials.isForwarded(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        byte[] body = new byte[0];
+        Long accountId = null;
+
+        Matcher matcher = ACCOUNT_PATH.matcher(path);
+        if (matcher.matches()) {
+            accountId = Long.valueOf(matcher.group(1));
+        } else if (PROCESS_PATH.equals(path) && "POST".equals(request.getMethod()) && !isAsync(request)) {
+            body = request.getInputStream().readAllBytes();
+            accountId = processedAccount(body);
+            request = new CachedBodyRequest(request, body);
+        }
+
+        String owner = accountId == null ? null : membership.remoteOwnerOf(accountId);
+        if (owner == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ReplicaForwarder.Response forwarded;
+        try {
+            forwarded = forwarder.forward(owner, membership.getSelf(), request, body);
+        } catch (IOException e) {
+            count("failed");
+            boolean neverSent = e instanceof ConnectException || e instanceof HttpConnectTimeoutException;
+            if (!neverSent && !"GET".equals(request.getMethod())) {
+                // The owner may have applied it already, so serving it here as well could apply it twice
+                log.warn("Forwarding {} {} to {} failed after it was sent", request.getMethod(), path, owner, e);
+                response.sendError(HttpServletResponse.SC_BAD_GATEWAY);
+                return;
+            }
+            log.warn("Could not forward {} {} to {}, serving it here", request.getMethod(), path, owner, e);
+            chain.doFilter(request, response);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            count("failed");
+            chain.doFilter(request, response);
+            return;
+        }
+        count("forwarded");
+
+        response.setStatus(forwarded.status());
+        for (Map.Entry<String, List<String>> header : forwarded.headers().entrySet()) {
+            if (ReplicaForwarder.SKIPPED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            header.getValue().forEach(value -> response.addHeader(header.getKey(), value));
+        }
+        response.setContentLength(forwarded.body().length);
+        response.getOutputStream().write(forwarded.body());
+    }
+
+    private boolean isAsync(HttpServletRequest request) {
+        String prefer = request.getHeader("Prefer");
+        return prefer != null && prefer.contains("respond-async");
+    }
+
+    // The debited account decides, so every debit of an account is applied by one replica
+    private Long processedAccount(byte[] body) {
+        try {
+            JsonNode request = objectMapper.readTree(body);
+            if (request == null) {
+                return null;
+            }
+            JsonNode account = request.hasNonNull("from") ? request.get("from") : request.get("to");
+            return account != null && account.canConvertToLong() ? account.asLong() : null;
+        } catch (IOException e) {
+            // Malformed bodies are rejected by the controller of whichever replica serves them
+            return null;
+        }
+    }
+
+    private void count(String outcome) {
+        Counter.builder(FORWARDED_METRIC)
+                .description("Account requests sent to the owning replica")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
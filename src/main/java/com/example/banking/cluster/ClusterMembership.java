@@ -0,0 +1,101 @@
+package com.example.banking.cluster;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The replicas sharing the account space and the hash ring over them. Members are base URLs taken from
+ * {@code banking.cluster.members}, or from {@code banking.cluster.members-file} (one URL per line) when
+ * set, which is re-read periodically so pods can be added or drained without a restart.
+ * <p>
+ * A replica missing from the list owns nothing and forwards every account request, which is how a pod is
+ * drained before it is stopped. With fewer than two members, or without {@code banking.cluster.self},
+ * routing is off and every replica serves everything.
+ */
+@Component
+public class ClusterMembership {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterMembership.class);
+
+    @Value("${banking.cluster.self:}")
+    private String self = "";
+
+    @Value("${banking.cluster.members:}")
+    private List<String> staticMembers = List.of();
+
+    @Value("${banking.cluster.members-file:}")
+    private String membersFile = "";
+
+    @Value("${banking.cluster.virtual-nodes:128}")
+    private int virtualNodes = 128;
+
+    private volatile ConsistentHashRing ring = new ConsistentHashRing(List.of(), 0);
+
+    @PostConstruct
+    void init() {
+        self = normalize(self.trim());
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${banking.cluster.refresh-interval-ms:10000}")
+    public void refresh() {
+        List<String> members;
+        try {
+            members = readMembers();
+        } catch (IOException e) {
+            // Keep routing with the last known list rather than collapsing onto one node
+            log.warn("Could not read cluster members from {}, keeping {}", membersFile, ring.getMembers(), e);
+            return;
+        }
+        if (!members.equals(ring.getMembers())) {
+            ring = new ConsistentHashRing(members, virtualNodes);
+            log.info("Cluster members are now {} (self {})", members, self);
+        }
+    }
+
+    public boolean isRoutingEnabled() {
+        return !self.isBlank() && ring.getMembers().size() > 1;
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    /**
+     * @return the member owning the account, or null when this replica should serve it
+     */
+    public String remoteOwnerOf(long accountId) {
+        if (!isRoutingEnabled()) {
+            return null;
+        }
+        String owner = ring.ownerOf(accountId);
+        return self.equals(owner) ? null : owner;
+    }
+
+    private List<String> readMembers() throws IOException {
+        List<String> members = staticMembers;
+        if (!membersFile.isBlank()) {
+            members = Files.readAllLines(Path.of(membersFile));
+        }
+        return members.stream()
+                .map(String::trim)
+                .filter(member -> !member.isEmpty() && !member.startsWith("#"))
+                .map(ClusterMembership::normalize)
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    private static String normalize(String member) {
+        return member.endsWith("/") ? member.substring(0, member.length() - 1) : member;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.banking.cluster;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Maps account ids onto cluster members. Each member is placed on the ring at many points, so accounts
+ * spread evenly and adding or removing a member only moves the accounts next to its points, about 1/N of
+ * them, while every other account keeps its owner. Immutable; a membership change builds a new ring.
+ */
+public final class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+    private final List<String> members;
+
+    public ConsistentHashRing(List<String> members, int virtualNodes) {
+        this.members = List.copyOf(members);
+        for (String member : this.members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                points.put(hash(member + "#" + i), member);
+            }
+        }
+    }
+
+    public List<String> getMembers() {
+        return members;
+    }
+
+    /**
+     * @return the member owning the account, or null for an empty ring
+     */
+    public String ownerOf(long accountId) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = points.ceilingEntry(hash("account:" + accountId));
+        return entry != null ? entry.getValue() : points.firstEntry().getValue();
+    }
+
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+}
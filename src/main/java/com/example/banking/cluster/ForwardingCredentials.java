@@ -0,0 +1,103 @@
+package com.example.banking.cluster;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Signs requests one replica forwards to another with an HMAC over the forwarding replica, the client
+ * address it saw, the method, the path and a timestamp, keyed by {@code banking.cluster.shared-secret}.
+ * The forwarding headers are otherwise ordinary request headers any client can send, so a replica only
+ * treats a request as forwarded when its signature checks out; without a secret none does.
+ */
+@Component
+public class ForwardingCredentials {
+
+    public static final String SIGNATURE_HEADER = "X-Banking-Forward-Signature";
+
+    private static final String VERIFIED_ATTRIBUTE = ForwardingCredentials.class.getName() + ".verified";
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Value("${banking.cluster.shared-secret:}")
+    private String sharedSecret = "";
+
+    @Value("${banking.cluster.forward-max-age:30s}")
+    private Duration maxAge = Duration.ofSeconds(30);
+
+    public boolean isConfigured() {
+        return !sharedSecret.isBlank();
+    }
+
+    /**
+     * @return the value of the {@link #SIGNATURE_HEADER} for a request about to be forwarded
+     */
+    public String sign(String forwardedBy, String clientAddress, String method, String path) {
+        long timestamp = System.currentTimeMillis();
+        return timestamp + "." + mac(timestamp, forwardedBy, clientAddress, method, path);
+    }
+
+    /**
+     * Whether the request was forwarded by a replica holding the shared secret. The result is kept on the
+     * request, so the filters asking after each other check the signature once.
+     */
+    public boolean isForwarded(HttpServletRequest request) {
+        Object verified = request.getAttribute(VERIFIED_ATTRIBUTE);
+        if (verified == null) {
+            verified = verify(request);
+            request.setAttribute(VERIFIED_ATTRIBUTE, verified);
+        }
+        return (Boolean) verified;
+    }
+
+    /**
+     * @return the client address the forwarding replica saw, or null when the request was not forwarded
+     */
+    public String forwardedClientAddress(HttpServletRequest request) {
+        return isForwarded(request) ? request.getHeader(ReplicaForwarder.CLIENT_ADDRESS_HEADER) : null;
+    }
+
+    private boolean verify(HttpServletRequest request) {
+        String forwardedBy = request.getHeader(ReplicaForwarder.FORWARDED_BY_HEADER);
+        String clientAddress = request.getHeader(ReplicaForwarder.CLIENT_ADDRESS_HEADER);
+        String signature = request.getHeader(SIGNATURE_HEADER);
+        if (!isConfigured() || forwardedBy == null || clientAddress == null || signature == null) {
+            return false;
+        }
+        int dot = signature.indexOf('.');
+        long timestamp;
+        try {
+            timestamp = Long.parseLong(signature.substring(0, Math.max(dot, 0)));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        // A captured request can only be replayed for a short while
+        if (Math.abs(System.currentTimeMillis() - timestamp) > maxAge.toMillis()) {
+            return false;
+        }
+        String expected = mac(timestamp, forwardedBy, clientAddress, request.getMethod(), request.getRequestURI());
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII),
+                signature.substring(dot + 1).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String mac(long timestamp, String forwardedBy, String clientAddress, String method, String path) {
+        if (!isConfigured()) {
+            throw new IllegalStateException("banking.cluster.shared-secret is not set");
+        }
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(sharedSecret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            String signed = String.join("\n", String.valueOf(timestamp), forwardedBy, clientAddress, method, path);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(signed.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign the forwarded request", e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.banking.cluster;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replays a request against another replica over the internal HTTP channel and hands back its response.
+ * The forwarding headers are signed with the {@link ForwardingCredentials}, so the owner can tell the
+ * request really came from a replica.
+ */
+public class ReplicaForwarder {
+
+    public static final String FORWARDED_BY_HEADER = "X-Banking-Forwarded-By";
+    // Address of the client that called the forwarding replica, so the owner can rate limit the right client
+    public static final String CLIENT_ADDRESS_HEADER = "X-Banking-Client-Address";
+
+    // Hop-by-hop headers, and the ones the JDK client sets itself and refuses to take from callers
+    static final Set<String> SKIPPED_HEADERS = Set.of("host", "connection", "content-length", "expect", "upgrade",
+            "keep-alive", "transfer-encoding", "te", "trailer", "proxy-authorization", "proxy-authenticate");
+
+    private final HttpClient client;
+    private final Duration timeout;
+    private final ForwardingCredentials credentials;
+
+    public ReplicaForwarder(Duration connectTimeout, Duration timeout, ForwardingCredentials credentials) {
+        this.client = HttpClient.newBuilder().connectTimeout(connectTimeout).build();
+        this.timeout = timeout;
+        this.credentials = credentials;
+    }
+
+    public Response forward(String member, String self, HttpServletRequest request, byte[] body)
+            throws IOException, InterruptedException {
+        String path = request.getRequestURI();
+        String target = member + path + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        HttpRequest.Builder forwarded = HttpRequest.newBuilder(URI.create(target))
+                .timeout(timeout)
+                .method(request.getMethod(), body.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (SKIPPED_HEADERS.contains(name.toLowerCase(Locale.ROOT)) || name.equalsIgnoreCase(FORWARDED_BY_HEADER)
+                    || name.equalsIgnoreCase(CLIENT_ADDRESS_HEADER)
+                    || name.equalsIgnoreCase(ForwardingCredentials.SIGNATURE_HEADER)) {
+                continue;
+            }
+            for (String value : Collections.list(request.getHeaders(name))) {
+                forwarded.header(name, value);
+            }
+        }
+        forwarded.header(FORWARDED_BY_HEADER, self);
+        forwarded.header(CLIENT_ADDRESS_HEADER, request.getRemoteAddr());
+        forwarded.header(ForwardingCredentials.SIGNATURE_HEADER,
+                credentials.sign(self, request.getRemoteAddr(), request.getMethod(), path));
+
+        HttpResponse<byte[]> response = client.send(forwarded.build(), HttpResponse.BodyHandlers.ofByteArray());
+        return new Response(response.statusCode(), response.headers().map(), response.body());
+    }
+
+    public record Response(int status, Map<String, List<String>> headers, byte[] body) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.banking.config;
+
+import com.example.banking.admission.AdaptiveConcurrencyLimit;
+import com.example.banking.admission.ConcurrencyLimitFilter;
+import com.example.banking.admission.EndpointGroup;
+import com.example.banking.admission.RateLimitFilter;
+import com.example.banking.cluster.ForwardingCredentials;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+@Configuration
+public class AdmissionConfig {
+
+    /**
+     * Runs after account affinity, so a forwarded request is charged once, on the replica that serves it,
+     * and before the concurrency limit, so requests over quota never take a slot. Quotas are read per group
+     * from {@code banking.rate-limit.<group>.capacity} and {@code refill-per-second}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "banking.rate-limit.enabled", havingValue = "true")
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            ObjectMapper objectMapper, MeterRegistry meterRegistry, Environment environment,
+            ForwardingCredentials credentials,
+            @Value("${banking.rate-limit.client-header:X-API-Key}") String clientHeader,
+            @Value("${banking.rate-limit.api-keys:}") Set<String> apiKeys) {
+        Map<EndpointGroup, RateLimitFilter.Quota> quotas = new EnumMap<>(EndpointGroup.class);
+        for (EndpointGroup group : EndpointGroup.values()) {
+            String prefix = "banking.rate-limit." + group.key() + ".";
+            quotas.put(group, new RateLimitFilter.Quota(
+                    environment.getProperty(prefix + "capacity", Integer.class, group.getDefaultCapacity()),
+                    environment.getProperty(prefix + "refill-per-second", Double.class,
+                            group.getDefaultRefillPerSecond())));
+        }
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+                new RateLimitFilter(quotas, clientHeader, apiKeys, credentials, objectMapper, meterRegistry));
+        registration.addUrlPatterns("/api/v1/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    /**
+     * Runs after account affinity, so a request forwarded to its owner counts against the owner's limit,
+     * where the database work happens.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "banking.concurrency-limit.enabled", havingValue = "true")
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${banking.concurrency-limit.initial-limit:20}") int initialLimit,
+            @Value("${banking.concurrency-limit.min-limit:4}") int minLimit,
+            @Value("${banking.concurrency-limit.max-limit:200}") int maxLimit,
+            @Value("${banking.concurrency-limit.alpha:3}") int alpha,
+            @Value("${banking.concurrency-limit.beta:6}") int beta,
+            @Value("${banking.concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${banking.concurrency-limit.probe-interval:1000}") int probeInterval,
+            @Value("${banking.concurrency-limit.retry-after:1s}") Duration retryAfter) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, alpha, beta,
+                backoffRatio, probeInterval);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(limit, retryAfter, objectMapper, meterRegistry));
+        registration.addUrlPatterns("/api/v1/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 3);
+        return registration;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.banking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+
+    /**
+     * Spring Boot only creates its default executor when no other Executor bean exists, so it is
+     * declared here explicitly. Spring MVC uses it for async requests such as streamed responses.
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @Primary
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Single worker so read-model refreshes for the same account never race each other.
+     * When the queue is full the publishing thread runs the refresh itself instead of dropping it.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor projectionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10_000);
+        executor.setThreadNamePrefix("projection-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    /**
+     * Runs the independent sub-queries of the live customer overview. Bounded so a slow database
+     * cannot pile up unbounded work; callers enforce their own deadline on top.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor overviewExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("overview-");
+        return executor;
+    }
+
+    /**
+     * Runs both attempts of hedged reads. No queue: when every thread is busy the read runs on the caller's
+     * thread without a hedge, instead of waiting behind other reads.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor hedgedReadPool() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(32);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("hedged-read-");
+        return executor;
+    }
+
+    /**
+     * Carrier threads for asynchronous transaction submissions. Work only reaches this executor once the
+     * transaction scheduler has granted it an execution slot, so the queue never holds more than the
+     * hand-over between a finishing task and the next one; queueing and ordering happen in the scheduler.
+     * The scheduler drains on shutdown before this executor is destroyed, which then waits for the last tasks.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor transactionSubmissionExecutor(
+            @Value("${banking.transactions.scheduler.concurrency:8}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setThreadNamePrefix("txn-submission-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
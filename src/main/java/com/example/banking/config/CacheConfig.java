@@ -0,0 +1,30 @@
+package com.example.banking.config;
+
+import com.example.banking.cache.CacheInvalidationBus;
+import com.example.banking.cache.LocalCache;
+import com.example.banking.model.Account;
+import com.example.banking.model.Customer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public LocalCache<Account> accountCache(CacheInvalidationBus invalidationBus, MeterRegistry meterRegistry,
+            @Value("${banking.cache.account.max-size:10000}") int maxSize,
+            @Value("${banking.cache.account.ttl:5m}") Duration ttl) {
+        return invalidationBus.register(new LocalCache<>("account", maxSize, ttl, meterRegistry));
+    }
+
+    @Bean
+    public LocalCache<Customer> customerCache(CacheInvalidationBus invalidationBus, MeterRegistry meterRegistry,
+            @Value("${banking.cache.customer.max-size:10000}") int maxSize,
+            @Value("${banking.cache.customer.ttl:5m}") Duration ttl) {
+        return invalidationBus.register(new LocalCache<>("customer", maxSize, ttl, meterRegistry));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.banking.config;
+
+import com.example.banking.cluster.AccountAffinityFilter;
+import com.example.banking.cluster.ClusterMembership;
+import com.example.banking.cluster.ForwardingCredentials;
+import com.example.banking.cluster.ReplicaForwarder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+@Configuration
+public class ClusterConfig {
+
+    /**
+     * Runs right after the Server-Timing filter, so forwarded requests are still timed and logged on the
+     * replica that received them. Does nothing until cluster members are configured. A replica that is part
+     * of a cluster needs the shared secret, or it could not tell forwarded requests from client ones. It also
+     * needs account locks: when an owner is unreachable its requests are served locally, so two replicas can
+     * change the same account at once.
+     */
+    @Bean
+    public FilterRegistrationBean<AccountAffinityFilter> accountAffinityFilter(
+            ClusterMembership membership, ForwardingCredentials credentials, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${banking.cluster.forward-connect-timeout:1s}") Duration connectTimeout,
+            @Value("${banking.cluster.forward-timeout:10s}") Duration timeout,
+            @Value("${banking.account-locks.strategy:none}") String lockStrategy) {
+        if (!membership.getSelf().isBlank() && !credentials.isConfigured()) {
+            throw new IllegalStateException("banking.cluster.shared-secret must be set when banking.cluster.self is");
+        }
+        if (!membership.getSelf().isBlank() && "none".equals(lockStrategy)) {
+            throw new IllegalStateException("banking.account-locks.strategy must be row or advisory when banking.cluster.self is set");
+        }
+        ReplicaForwarder forwarder = new ReplicaForwarder(connectTimeout, timeout, credentials);
+        FilterRegistrationBean<AccountAffinityFilter> registration = new FilterRegistrationBean<>(
+                new AccountAffinityFilter(membership, forwarder, credentials, objectMapper, meterRegistry));
+        registration.addUrlPatterns("/api/v1/accounts/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.banking.config;
+
+import com.example.banking.observability.JdbcTimingDataSource;
+import com.example.banking.observability.RepositoryMetricsInterceptor;
+import com.example.banking.observability.ServerTimingFilter;
+import com.example.banking.observability.ServiceOperationInterceptor;
+import com.example.banking.observability.SlowQueryEndpoint;
+import com.example.banking.observability.SlowQueryLog;
+import com.example.banking.observability.SqlCommentStatementInspector;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class ObservabilityConfig {
+
+    /**
+     * Wraps the pool so statement executions are timed per request and SQL can be captured for slow
+     * repository calls. Static so it does not pull this configuration into early bean creation.
+     */
+    @Bean
+    public static BeanPostProcessor jdbcTimingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? JdbcTimingDataSource.wrap(dataSource) : bean;
+            }
+        };
+    }
+
+    /**
+     * Adds {@link RepositoryMetricsInterceptor} to every Spring Data repository.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                   ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(new RepositoryMetricsInterceptor(
+                                    meterRegistry::getObject, slowQueryLog::getObject, repositoryInformation.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SlowQueryLog slowQueryLog(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                     @Value("${banking.slow-query.threshold-ms:200}") long thresholdMs,
+                                     @Value("${banking.slow-query.capacity:100}") int capacity,
+                                     @Value("${banking.slow-query.explain:true}") boolean explain) {
+        return new SlowQueryLog(jdbcTemplate, transactionManager, thresholdMs, capacity, explain);
+    }
+
+    @Bean
+    public SlowQueryEndpoint slowQueryEndpoint(SlowQueryLog slowQueryLog, MeterRegistry meterRegistry) {
+        return new SlowQueryEndpoint(slowQueryLog, meterRegistry);
+    }
+
+    /**
+     * Tags every statement with the endpoint and service operation. Wraps an inspector that is already
+     * configured through properties instead of replacing it.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "banking.sql-comments.enabled", havingValue = "true", matchIfMissing = true)
+    public HibernatePropertiesCustomizer sqlCommentStatementInspector() {
+        return properties -> {
+            Object configured = properties.get(AvailableSettings.STATEMENT_INSPECTOR);
+            StatementInspector delegate;
+            if (configured instanceof StatementInspector inspector) {
+                delegate = inspector;
+            } else if (configured instanceof String className && !className.isBlank()) {
+                delegate = (StatementInspector) BeanUtils.instantiateClass(ClassUtils.resolveClassName(className, null));
+            } else {
+                delegate = null;
+            }
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlCommentStatementInspector(delegate));
+        };
+    }
+
+    /**
+     * Tracks the service operation for the SQL comment. Infrastructure role so the transaction
+     * auto-proxy creator applies it alongside @Transactional.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnProperty(name = "banking.sql-comments.enabled", havingValue = "true", matchIfMissing = true)
+    public static Advisor serviceOperationAdvisor() {
+        return new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Service.class, true), new ServiceOperationInterceptor());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "banking.observability.server-timing.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter() {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(new ServerTimingFilter());
+        registration.addUrlPatterns("/api/v1/*");
+        // Outermost, so the timings cover security, serialization and everything else in the chain
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
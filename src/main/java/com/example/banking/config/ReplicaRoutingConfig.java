@@ -0,0 +1,84 @@
+package com.example.banking.config;
+
+import com.example.banking.replication.ReadConsistencyFilter;
+import com.example.banking.replication.ReplicaRoutingDataSource;
+import com.example.banking.replication.ReplicaSet;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read/write split, active once replica URLs are configured. Replicas share the primary's credentials
+ * and pool settings.
+ */
+@Configuration
+@ConditionalOnExpression("!'${banking.datasource.replica-urls:}'.isBlank()")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReplicaSet replicaSet(DataSourceProperties properties, Environment environment,
+                                 @Value("${banking.datasource.replica-urls}") List<String> replicaUrls) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource replica = pool(properties, environment, replicaUrls.get(i).trim());
+            replica.setPoolName(name);
+            replicas.put(name, replica);
+        }
+        return new ReplicaSet(replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, Environment environment, ReplicaSet replicaSet,
+                                 MeterRegistry meterRegistry) {
+        HikariDataSource primary = pool(properties, environment, properties.determineUrl());
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicaSet, meterRegistry));
+    }
+
+    /**
+     * Hibernate otherwise holds a connection for the whole open-in-view session, so a write following a
+     * read in the same request would reuse the replica connection the read was routed to.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadConsistencyFilter> readConsistencyFilter(
+            JdbcTemplate jdbcTemplate, @Value("${spring.datasource.url:}") String url) {
+        FilterRegistrationBean<ReadConsistencyFilter> registration = new FilterRegistrationBean<>(
+                new ReadConsistencyFilter(jdbcTemplate, url.startsWith("jdbc:postgresql:")));
+        registration.addUrlPatterns("/api/v1/*");
+        // After account affinity, so a forwarded request is routed by the replica that serves it
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 4);
+        return registration;
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment, String url) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        return pool;
+    }
+}
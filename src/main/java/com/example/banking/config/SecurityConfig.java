@@ -1,5 +1,6 @@
 package com.example.banking.config;
 
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -19,6 +20,12 @@ import static org.springframework.security.config.Customizer.withDefaults;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    /**
+     * Role needed for the actuator endpoints that start and dump JFR recordings or serve captured SQL and
+     * plans. The user holding it is configured through spring.security.user.*.
+     */
+    public static final String OPERATOR_ROLE = "OPERATOR";
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -27,11 +34,13 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers(new AntPathRequestMatcher("/api/**")).permitAll()
                 .requestMatchers(new AntPathRequestMatcher("/h2-console/**")).permitAll()
+                .requestMatchers(EndpointRequest.to("jfr", "slowqueries")).hasRole(OPERATOR_ROLE)
                 .requestMatchers(new AntPathRequestMatcher("/actuator/**")).permitAll()
                 .requestMatchers(new AntPathRequestMatcher("/swagger-ui/**")).permitAll()
                 .requestMatchers(new AntPathRequestMatcher("/v3/api-docs/**")).permitAll()
                 .anyRequest().permitAll()
-            );
+            )
+            .httpBasic(withDefaults());
         return http.build();
     }
 
@@ -1,36 +1,84 @@
 package com.example.banking.controller;
 
+import com.example.banking.exception.AccountLockTimeoutException;
+import com.example.banking.exception.BalanceShardsChangingException;
+import com.example.banking.exception.IdempotencyKeyConflictException;
+import com.example.banking.exception.IdempotencyKeyInProgressException;
+import com.example.banking.exception.IdempotencyKeyReuseException;
 import com.example.banking.model.Account;
 import com.example.banking.model.AccountCreationRequest;
 import com.example.banking.model.Customer;
 import com.example.banking.model.CustomerCreationRequest;
+import com.example.banking.model.CustomerOverview;
+import com.example.banking.model.IdempotentResponse;
 import com.example.banking.model.Transaction;
+import com.example.banking.model.TransactionSubmission;
 import com.example.banking.model.ProcessTransactionRequest;
 import com.example.banking.service.AccountService;
+import com.example.banking.service.AccountSummaryService;
+import com.example.banking.service.CustomerOverviewService;
 import com.example.banking.service.CustomerService;
 import com.example.banking.service.FeeCalculationService;
+import com.example.banking.service.GroupCommitExecutor;
+import com.example.banking.service.IdempotencyService;
+import com.example.banking.service.TransactionLane;
+import com.example.banking.service.TransactionScheduler;
+import com.example.banking.service.TransactionSubmissionService;
 import io.swagger.v3.oas.annotations.Operation;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Parameter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/v1") // Moving mapping to the class level and will define full paths below.
 public class AccountController {
 
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final String PREFER_HEADER = "Prefer";
+    private static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+    private static final String RESPOND_ASYNC = "respond-async";
+
     @Autowired
     private AccountService accountService;
     @Autowired
     private FeeCalculationService feeCalculationService;
     @Autowired
     private CustomerService customerService;
+    @Autowired
+    private AccountSummaryService accountSummaryService;
+    @Autowired
+    private CustomerOverviewService customerOverviewService;
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private TransactionSubmissionService transactionSubmissionService;
+    @Autowired
+    private TransactionScheduler transactionScheduler;
+    @Autowired
+    private GroupCommitExecutor groupCommitExecutor;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     // --- Customer Endpoints (should be in CustomerController) ---
 
@@ -47,9 +95,53 @@ public class AccountController {
     }
 
     @GetMapping("/customers")
-    @Operation(summary = "Get all customers")
-    public List<Customer> getAllCustomers() {
-        return customerService.getAllCustomers();
+    @Operation(summary = "List customers", description = "Keyset-paginated: pass the id of the last customer seen as afterId. "
+            + "A Link header with rel=\"next\" is returned while more pages may exist.")
+    public ResponseEntity<List<Customer>> getCustomers(
+            @Parameter(description = "Return customers with an id greater than this") @RequestParam(value = "afterId", required = false) Long afterId,
+            @Parameter(description = "Page size from 1 to 500; larger values are capped") @RequestParam(value = "limit", defaultValue = "" + CustomerService.DEFAULT_PAGE_SIZE) int limit,
+            @Parameter(description = "Only customers of this level") @RequestParam(value = "level", required = false) String level) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        // A page shorter than the size actually requested from the database is the last one
+        int pageSize = Math.min(limit, CustomerService.MAX_PAGE_SIZE);
+        List<Customer> customers = customerService.getCustomers(afterId, pageSize, level);
+        if (customers.isEmpty() || customers.size() < pageSize) {
+            return ResponseEntity.ok(customers);
+        }
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("afterId", customers.get(customers.size() - 1).getId())
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(customers);
+    }
+
+    @GetMapping(value = "/customers", produces = APPLICATION_NDJSON)
+    @Operation(summary = "Stream all customers", description = "Streams every customer as newline-delimited JSON from a database cursor.")
+    public ResponseEntity<StreamingResponseBody> streamCustomers(
+            @Parameter(description = "Only customers of this level") @RequestParam(value = "level", required = false) String level) {
+        StreamingResponseBody body = (OutputStream out) -> customerService.streamCustomers(level, customer -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(customer));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON)).body(body);
+    }
+
+    @GetMapping("/customers/{id}/overview")
+    @Operation(summary = "Get customer overview", description = "Customer, balances, recent transactions and month-to-date totals for every account, served from the account summary read model. "
+            + "With live=true the source tables are queried in parallel under a deadline instead; parts that miss it are listed in timedOut, parts that fail in failed.")
+    public CustomerOverview getCustomerOverview(@PathVariable long id,
+                                                @Parameter(description = "Bypass the read model") @RequestParam(value = "live", defaultValue = "false") boolean live) {
+        if (live) {
+            return customerOverviewService.getLiveOverview(id);
+        }
+        return accountSummaryService.getCustomerOverview(id);
     }
 
     // --- Account Endpoints ---
@@ -66,6 +158,20 @@ public class AccountController {
         return accountService.getAccount(id);
     }
 
+    @PutMapping("/accounts/{id}/balance-shards")
+    @Operation(summary = "Shard the balance of a hot account", description = "Spreads credits to the account over the given number of balance shards so that "
+            + "concurrent credits do not queue for the same row. Debits fold the shards back in when needed and a background job folds them periodically; "
+            + "the reported balance always includes them. A count of 0 turns sharding off.")
+    public ResponseEntity<Account> configureBalanceShards(@Parameter(description = "ID of the account") @PathVariable long id,
+                                                          @Parameter(description = "Number of shards, 0 to turn sharding off") @RequestParam("count") int count) {
+        try {
+            Account account = accountService.configureBalanceShards(id, count);
+            return account == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(account);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/accounts")
     @Operation(summary = "Get accounts by customer ID", description = "Fetches all accounts for a given customer.")
     public List<Account> getAccountsByCustomer(@RequestParam("customerId") long customerId) {
@@ -79,8 +185,108 @@ public class AccountController {
     }
 
     @PostMapping("/accounts/process")
-    @Operation(summary = "Process a transaction (DEPRECATED - Use more specific endpoints)", description = "Handles deposits, withdrawals, and transfers between accounts.")
-    public ResponseEntity<Map<String, Object>> processTransaction(@RequestBody ProcessTransactionRequest request) {
+    @Operation(summary = "Process a transaction (DEPRECATED - Use more specific endpoints)", description = "Handles deposits, withdrawals, and transfers between accounts. Priority transactions are scheduled ahead of standard and bulk ones. "
+            + "With an Idempotency-Key header a retried request returns the stored response instead of posting again. "
+            + "With 'Prefer: respond-async' the transaction is queued and answered with 202 and a status URL to poll.")
+    public ResponseEntity<Map<String, Object>> processTransaction(
+            @Parameter(description = "Client-generated key identifying this request across retries")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Parameter(description = "'respond-async' queues the transaction instead of waiting for it")
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer,
+            @RequestBody ProcessTransactionRequest request) {
+        boolean keyed = idempotencyKey != null && !idempotencyKey.isBlank();
+        if (keyed && idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return toResponseEntity(errorResponse(HttpStatus.BAD_REQUEST, "INVALID_IDEMPOTENCY_KEY",
+                    "Idempotency-Key must be at most " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters"));
+        }
+        if (prefer != null && prefer.contains(RESPOND_ASYNC)) {
+            return submitTransaction(keyed ? idempotencyKey : null, request);
+        }
+        IdempotentResponse response = keyed ? idempotently(() -> idempotencyService
+                .completedResponse(idempotencyKey, request).orElse(null)) : null;
+        try {
+            // A duplicate is answered, or waits for the first execution, before it takes a slot
+            if (response == null) {
+                response = transactionScheduler.execute(TransactionLane.of(request, false),
+                        () -> runTransaction(keyed ? idempotencyKey : null, request));
+            }
+        } catch (RejectedExecutionException e) {
+            // Not admitted, so nothing ran and the same request can be retried
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(errorResponse(HttpStatus.SERVICE_UNAVAILABLE, "TRANSACTION_QUEUE_FULL",
+                            "Too many transactions are waiting, please retry shortly").body());
+        }
+        if (!keyed) {
+            return toResponseEntity(response);
+        }
+        return ResponseEntity.status(response.status())
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(response.replayed()))
+                .body(response.body());
+    }
+
+    @GetMapping("/transactions/{handle}/status")
+    @Operation(summary = "Get the status of a submitted transaction", description = "Reports whether a transaction submitted with 'Prefer: respond-async' is queued, processing or finished, "
+            + "and once finished the status and body the synchronous call would have returned.")
+    public ResponseEntity<TransactionSubmission> getTransactionStatus(@Parameter(description = "Handle returned on submission") @PathVariable String handle) {
+        return transactionSubmissionService.getStatus(handle)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<Map<String, Object>> submitTransaction(String idempotencyKey, ProcessTransactionRequest request) {
+        TransactionSubmission submission;
+        try {
+            submission = transactionSubmissionService.submit(TransactionLane.of(request, true),
+                    () -> runTransaction(idempotencyKey, request));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(errorResponse(HttpStatus.SERVICE_UNAVAILABLE, "SUBMISSION_QUEUE_FULL",
+                            "Too many transactions are queued, please retry shortly").body());
+        }
+
+        URI statusUri = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/v1/transactions/{handle}/status")
+                .buildAndExpand(submission.handle())
+                .toUri();
+        Map<String, Object> response = new HashMap<>();
+        response.put("handle", submission.handle());
+        response.put("state", submission.state());
+        response.put("statusUrl", statusUri.toString());
+        return ResponseEntity.accepted()
+                .location(statusUri)
+                .header(PREFERENCE_APPLIED_HEADER, RESPOND_ASYNC)
+                .body(response);
+    }
+
+    // Shared by the synchronous and asynchronous paths; batches with concurrent transactions when group commit is on
+    private IdempotentResponse runTransaction(String idempotencyKey, ProcessTransactionRequest request) {
+        try {
+            return groupCommitExecutor.execute(() -> idempotencyKey == null
+                    ? executeTransaction(request)
+                    : executeIdempotently(idempotencyKey, request));
+        } catch (IdempotencyKeyConflictException e) {
+            // Lost the key to another node inside a group commit; on its own this finds and replays the winner's response
+            return executeIdempotently(idempotencyKey, request);
+        }
+    }
+
+    private IdempotentResponse executeIdempotently(String idempotencyKey, ProcessTransactionRequest request) {
+        return idempotently(() -> idempotencyService.execute(idempotencyKey, request, () -> executeTransaction(request)));
+    }
+
+    private IdempotentResponse idempotently(Supplier<IdempotentResponse> call) {
+        try {
+            return call.get();
+        } catch (IdempotencyKeyReuseException e) {
+            return errorResponse(HttpStatus.UNPROCESSABLE_ENTITY, "IDEMPOTENCY_KEY_REUSED", e.getMessage());
+        } catch (IdempotencyKeyInProgressException e) {
+            return errorResponse(HttpStatus.CONFLICT, "IDEMPOTENCY_KEY_IN_PROGRESS", e.getMessage());
+        }
+    }
+
+    private IdempotentResponse executeTransaction(ProcessTransactionRequest request) {
         try {
             boolean result = accountService.processTransaction(request);
             
@@ -88,23 +294,40 @@ public class AccountController {
             if (result) {
                 response.put("success", true);
                 response.put("message", "Transaction processed successfully");
-                return ResponseEntity.ok(response);
+                return new IdempotentResponse(HttpStatus.OK.value(), response);
             } else {
                 response.put("success", false);
                 response.put("error", "TRANSACTION_FAILED");
                 response.put("message", "Transaction failed. Please check the server logs for details.");
-                return ResponseEntity.badRequest().body(response);
+                return new IdempotentResponse(HttpStatus.BAD_REQUEST.value(), response);
             }
+        } catch (AccountLockTimeoutException e) {
+            // Nothing was applied, so the client can retry the same request
+            return errorResponse(HttpStatus.SERVICE_UNAVAILABLE, "ACCOUNT_LOCK_TIMEOUT", e.getMessage());
+        } catch (BalanceShardsChangingException e) {
+            return errorResponse(HttpStatus.SERVICE_UNAVAILABLE, "BALANCE_SHARDS_CHANGING", e.getMessage());
         } catch (IllegalArgumentException e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
             response.put("error", "BALANCE_LIMIT_EXCEEDED");
             response.put("message", e.getMessage());
             response.put("lspViolation", true);
-            return ResponseEntity.badRequest().body(response);
+            return new IdempotentResponse(HttpStatus.BAD_REQUEST.value(), response);
         }
     }
 
+    private IdempotentResponse errorResponse(HttpStatus status, String error, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("error", error);
+        response.put("message", message);
+        return new IdempotentResponse(status.value(), response);
+    }
+
+    private ResponseEntity<Map<String, Object>> toResponseEntity(IdempotentResponse response) {
+        return ResponseEntity.status(response.status()).body(response.body());
+    }
+
     @PostMapping("/accounts/{id}/fees")
     @Operation(summary = "Calculate and apply fees", description = "Triggers the fee calculation logic for a specific account.")
     public ResponseEntity<String> calculateFees(@Parameter(description = "ID of the account") @PathVariable long id) {
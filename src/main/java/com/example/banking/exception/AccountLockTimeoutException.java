@@ -0,0 +1,17 @@
+package com.example.banking.exception;
+
+import java.time.Duration;
+import java.util.List;
+
+public class AccountLockTimeoutException extends RuntimeException {
+    private final List<Long> accountIds;
+
+    public AccountLockTimeoutException(List<Long> accountIds, Duration timeout) {
+        super(String.format("Could not lock accounts %s within %d ms", accountIds, timeout.toMillis()));
+        this.accountIds = accountIds;
+    }
+
+    public List<Long> getAccountIds() {
+        return accountIds;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.banking.exception;
+
+public class AccountVersionConflictException extends RuntimeException {
+    private final long accountId;
+    private final long expectedVersion;
+
+    public AccountVersionConflictException(long accountId, long expectedVersion) {
+        super(String.format("Account %d was modified concurrently; expected stream version %d", accountId, expectedVersion));
+        this.accountId = accountId;
+        this.expectedVersion = expectedVersion;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+}
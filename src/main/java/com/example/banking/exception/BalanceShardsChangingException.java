@@ -0,0 +1,18 @@
+package com.example.banking.exception;
+
+/**
+ * A credit kept finding the account's balance shards reconfigured under it. Nothing was applied, so the
+ * request can be retried.
+ */
+public class BalanceShardsChangingException extends RuntimeException {
+    private final Long accountId;
+
+    public BalanceShardsChangingException(Long accountId) {
+        super(String.format("The balance shards of account %d are being reconfigured, please retry", accountId));
+        this.accountId = accountId;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+}
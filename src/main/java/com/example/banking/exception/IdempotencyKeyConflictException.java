@@ -0,0 +1,18 @@
+package com.example.banking.exception;
+
+/**
+ * Another node recorded the idempotency key while this one executed the request inside a shared
+ * transaction. The stored response can only be read once that transaction has ended.
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+    private final String idempotencyKey;
+
+    public IdempotencyKeyConflictException(String idempotencyKey, Throwable cause) {
+        super(String.format("Idempotency key %s was recorded concurrently by another request", idempotencyKey), cause);
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.banking.exception;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    private final String idempotencyKey;
+
+    public IdempotencyKeyInProgressException(String idempotencyKey) {
+        super(String.format("A request with idempotency key %s is still being processed", idempotencyKey));
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
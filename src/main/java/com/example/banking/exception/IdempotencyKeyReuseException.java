@@ -0,0 +1,14 @@
+package com.example.banking.exception;
+
+public class IdempotencyKeyReuseException extends RuntimeException {
+    private final String idempotencyKey;
+
+    public IdempotencyKeyReuseException(String idempotencyKey) {
+        super(String.format("Idempotency key %s was already used for a different request", idempotencyKey));
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
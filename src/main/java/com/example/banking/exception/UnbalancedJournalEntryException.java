@@ -0,0 +1,14 @@
+package com.example.banking.exception;
+
+public class UnbalancedJournalEntryException extends RuntimeException {
+    private final String entryType;
+
+    public UnbalancedJournalEntryException(String entryType) {
+        super(String.format("Journal entry of type %s does not balance to zero", entryType));
+        this.entryType = entryType;
+    }
+
+    public String getEntryType() {
+        return entryType;
+    }
+}
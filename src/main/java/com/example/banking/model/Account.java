@@ -4,13 +4,17 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "accounts")
+@Table(name = "accounts", indexes = {
+        @Index(name = "idx_accounts_cust_id", columnList = "cust_id"),
+        @Index(name = "idx_accounts_type_balance", columnList = "account_type, balance")
+})
 @Getter
 @Setter
 public class Account {
@@ -21,8 +25,14 @@ public class Account {
 
     private BigDecimal balance;
 
+    @jakarta.persistence.Column(name = "account_type")
     private String accountType;
 
     @jakarta.persistence.Column(name = "cust_id")
     private Long custId;
+
+    // Number of sub-balances credits are spread over; 0 for an ordinary account. See BalanceShardService.
+    @jakarta.persistence.Column(name = "balance_shards", nullable = false)
+    @org.hibernate.annotations.ColumnDefault("0")
+    private int balanceShards;
 } 
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.example.banking.model;
+
+import com.example.banking.exception.InsufficientBalanceException;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Event-sourced view of an {@link Account}. State is only ever changed by applying events; commands
+ * validate, then record a new event that is applied immediately and kept as uncommitted until saved.
+ */
+@Getter
+public class AccountAggregate {
+
+    private final long accountId;
+    private Long custId;
+    private String accountType;
+    private BigDecimal balance = BigDecimal.ZERO;
+    private long version;
+
+    private final List<AccountEvent> uncommittedEvents = new ArrayList<>();
+
+    public AccountAggregate(long accountId) {
+        this.accountId = accountId;
+    }
+
+    public static AccountAggregate fromSnapshot(AccountSnapshot snapshot) {
+        AccountAggregate aggregate = new AccountAggregate(snapshot.getAccountId());
+        aggregate.custId = snapshot.getCustId();
+        aggregate.accountType = snapshot.getAccountType();
+        aggregate.balance = snapshot.getBalance();
+        aggregate.version = snapshot.getVersion();
+        return aggregate;
+    }
+
+    public static AccountAggregate open(long accountId, long custId, String accountType) {
+        AccountAggregate aggregate = new AccountAggregate(accountId);
+        AccountEvent event = aggregate.newEvent(AccountEventType.OPENED, BigDecimal.ZERO, null);
+        event.setCustId(custId);
+        event.setAccountType(accountType);
+        aggregate.record(event);
+        return aggregate;
+    }
+
+    /**
+     * Starts the stream of an account that so far only exists as an {@code accounts} row: the OPENED event
+     * carries the row's balance as the opening balance.
+     */
+    public static AccountAggregate bootstrap(Account account) {
+        AccountAggregate aggregate = new AccountAggregate(account.getId());
+        AccountEvent event = aggregate.newEvent(AccountEventType.OPENED, account.getBalance(), null);
+        event.setCustId(account.getCustId());
+        event.setAccountType(account.getAccountType());
+        aggregate.record(event);
+        return aggregate;
+    }
+
+    public void deposit(BigDecimal amount) {
+        requirePositive(amount);
+        record(newEvent(AccountEventType.DEPOSITED, amount, null));
+    }
+
+    public void withdraw(BigDecimal amount) {
+        requirePositive(amount);
+        requireFunds(amount, BigDecimal.ZERO);
+        record(newEvent(AccountEventType.WITHDRAWN, amount, null));
+    }
+
+    public void transferOut(long toAccountId, BigDecimal amount) {
+        requirePositive(amount);
+        requireFunds(amount, BigDecimal.ZERO);
+        record(newEvent(AccountEventType.TRANSFERRED_OUT, amount, toAccountId));
+    }
+
+    public void transferIn(long fromAccountId, BigDecimal amount) {
+        requirePositive(amount);
+        record(newEvent(AccountEventType.TRANSFERRED_IN, amount, fromAccountId));
+    }
+
+    public void chargeFee(BigDecimal amount) {
+        requirePositive(amount);
+        record(newEvent(AccountEventType.FEE_CHARGED, amount, null));
+    }
+
+    public void applyInterest(BigDecimal rate) {
+        if (rate == null || rate.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Interest rate must be more than zero");
+        }
+        record(newEvent(AccountEventType.INTEREST_APPLIED, balance.multiply(rate), null));
+    }
+
+    /**
+     * Replays a persisted event. Events must arrive in stream order.
+     */
+    public void apply(AccountEvent event) {
+        switch (event.getEventType()) {
+            case OPENED:
+                custId = event.getCustId();
+                accountType = event.getAccountType();
+                balance = event.getAmount() != null ? event.getAmount() : BigDecimal.ZERO;
+                break;
+            case DEPOSITED:
+            case TRANSFERRED_IN:
+            case INTEREST_APPLIED:
+                balance = balance.add(event.getAmount());
+                break;
+            case WITHDRAWN:
+            case TRANSFERRED_OUT:
+            case FEE_CHARGED:
+                balance = balance.subtract(event.getAmount());
+                break;
+            default:
+                throw new IllegalStateException("Unknown account event type: " + event.getEventType());
+        }
+        version = event.getVersion();
+    }
+
+    /**
+     * The version the stream had when this aggregate was loaded; new events must be appended on top of it.
+     */
+    public long getExpectedVersion() {
+        return version - uncommittedEvents.size();
+    }
+
+    public List<AccountEvent> getUncommittedEvents() {
+        return Collections.unmodifiableList(uncommittedEvents);
+    }
+
+    public void markCommitted() {
+        uncommittedEvents.clear();
+    }
+
+    public Account toAccount() {
+        Account account = new Account();
+        account.setId(accountId);
+        account.setCustId(custId);
+        account.setAccountType(accountType);
+        account.setBalance(balance);
+        return account;
+    }
+
+    private void requirePositive(BigDecimal amount) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Amount must be more than zero");
+        }
+    }
+
+    private void requireFunds(BigDecimal amount, BigDecimal fee) {
+        if (balance.compareTo(amount.add(fee)) < 0) {
+            throw new InsufficientBalanceException(String.valueOf(accountId), amount.add(fee).toPlainString(),
+                    balance.toPlainString(), fee.toPlainString());
+        }
+    }
+
+    private AccountEvent newEvent(AccountEventType type, BigDecimal amount, Long counterpartyAccountId) {
+        AccountEvent event = new AccountEvent();
+        event.setAccountId(accountId);
+        event.setVersion(version + 1);
+        event.setEventType(type);
+        event.setAmount(amount);
+        event.setCounterpartyAccountId(counterpartyAccountId);
+        event.setCreatedAt(new Date());
+        return event;
+    }
+
+    private void record(AccountEvent event) {
+        apply(event);
+        uncommittedEvents.add(event);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.banking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * One of the sub-balances of a hot account. Credits to the account are added to a randomly chosen shard
+ * instead of the accounts row, so concurrent credits contend on different rows. The account's balance is
+ * {@code Account.balance} plus the sum of its shards.
+ */
+@Entity
+@Table(name = "account_balance_shards")
+@IdClass(AccountBalanceShard.Key.class)
+@Getter
+@Setter
+public class AccountBalanceShard {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Id
+    @Column(name = "shard_no")
+    private int shardNo;
+
+    @Column(nullable = false, precision = 38, scale = 2)
+    private BigDecimal balance;
+
+    public static AccountBalanceShard empty(long accountId, int shardNo) {
+        AccountBalanceShard shard = new AccountBalanceShard();
+        shard.setAccountId(accountId);
+        shard.setShardNo(shardNo);
+        shard.setBalance(BigDecimal.ZERO);
+        return shard;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long accountId;
+        private int shardNo;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.banking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * An immutable fact in an account's event stream. The unique (account_id, version) pair is the
+ * expected-version check: two writers appending on top of the same version cannot both succeed.
+ */
+@Entity
+@Table(name = "account_events",
+        uniqueConstraints = @UniqueConstraint(name = "uk_account_events_version", columnNames = {"account_id", "version"}))
+@Getter
+@Setter
+public class AccountEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_events_seq")
+    @SequenceGenerator(name = "account_events_seq", sequenceName = "account_events_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private AccountEventType eventType;
+
+    private BigDecimal amount;
+
+    @Column(name = "counterparty_account_id")
+    private Long counterpartyAccountId;
+
+    // Only set on OPENED events
+    @Column(name = "cust_id")
+    private Long custId;
+
+    @Column(name = "account_type")
+    private String accountType;
+
+    @Column(name = "created_at")
+    private Date createdAt;
+}
@@ -0,0 +1,11 @@
+package com.example.banking.model;
+
+public enum AccountEventType {
+    OPENED,
+    DEPOSITED,
+    WITHDRAWN,
+    TRANSFERRED_OUT,
+    TRANSFERRED_IN,
+    FEE_CHARGED,
+    INTEREST_APPLIED
+}
@@ -0,0 +1,44 @@
+package com.example.banking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Materialized state of an event-sourced account at a given stream version.
+ */
+@Entity
+@Table(name = "account_snapshots")
+@Getter
+@Setter
+public class AccountSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private Long version;
+
+    private BigDecimal balance;
+
+    @Column(name = "account_type")
+    private String accountType;
+
+    @Column(name = "cust_id")
+    private Long custId;
+
+    @Column(name = "created_at")
+    private Date createdAt;
+}
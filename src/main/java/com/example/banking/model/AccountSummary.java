@@ -0,0 +1,60 @@
+package com.example.banking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Denormalized read model of an account, maintained asynchronously from account change events.
+ * One row per account carries everything the customer overview needs.
+ */
+@Entity
+@Table(name = "account_summary")
+@Getter
+@Setter
+public class AccountSummary {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "customer_name")
+    private String customerName;
+
+    @Column(name = "customer_level")
+    private String customerLevel;
+
+    @Column(name = "account_type")
+    private String accountType;
+
+    private BigDecimal balance;
+
+    // Month the month-to-date totals belong to, formatted as yyyy-MM
+    @Column(name = "mtd_month")
+    private String monthToDateMonth;
+
+    @Column(name = "mtd_credits")
+    private BigDecimal monthToDateCredits;
+
+    @Column(name = "mtd_debits")
+    private BigDecimal monthToDateDebits;
+
+    @Convert(converter = RecentTransactionsConverter.class)
+    @Column(name = "recent_transactions", length = 8000)
+    private List<RecentTransaction> recentTransactions = new ArrayList<>();
+
+    @Column(name = "updated_at")
+    private Date updatedAt;
+}
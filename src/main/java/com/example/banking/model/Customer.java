@@ -1,16 +1,22 @@
 package com.example.banking.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Locale;
+
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = @Index(name = "idx_customers_level_id", columnList = "customer_level, id"))
 @Getter
 @Setter
 public class Customer {
@@ -43,4 +49,18 @@ public class Customer {
     @Column(name = "customer_level")
     private String customerLevel;
 
+    // Backs the unique index that makes customer names case- and whitespace-insensitive
+    @JsonIgnore
+    @Column(name = "name_normalized", unique = true)
+    private String nameNormalized;
+
+    @PrePersist
+    @PreUpdate
+    void normalizeName() {
+        this.nameNormalized = normalizeName(name);
+    }
+
+    public static String normalizeName(String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
 } 
\ No newline at end of file
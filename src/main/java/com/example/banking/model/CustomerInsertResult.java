@@ -0,0 +1,8 @@
+package com.example.banking.model;
+
+/**
+ * Outcome of an insert-if-absent: either the newly created customer, or the customer that already
+ * held the name (null if it was committed concurrently and is not yet visible).
+ */
+public record CustomerInsertResult(Customer customer, boolean created) {
+}
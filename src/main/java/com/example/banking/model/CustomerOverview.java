@@ -0,0 +1,21 @@
+package com.example.banking.model;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Response payload for the customer dashboard: the customer plus a summary of each account.
+@Data
+public class CustomerOverview {
+    private Long customerId;
+    private String customerName;
+    private String customerLevel;
+    private BigDecimal totalBalance = BigDecimal.ZERO;
+    private List<AccountSummary> accounts = new ArrayList<>();
+    // Set when a sub-query missed the request deadline or failed; timedOut and failed name the missing parts
+    private boolean partial;
+    private List<String> timedOut = new ArrayList<>();
+    private List<String> failed = new ArrayList<>();
+}
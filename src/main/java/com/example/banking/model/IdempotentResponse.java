@@ -0,0 +1,18 @@
+package com.example.banking.model;
+
+import java.util.Map;
+
+/**
+ * Status and body of a request executed under an idempotency key. {@code replayed} is set when the
+ * response was served from an earlier execution instead of running the request again.
+ */
+public record IdempotentResponse(int status, Map<String, Object> body, boolean replayed) {
+
+    public IdempotentResponse(int status, Map<String, Object> body) {
+        this(status, body, false);
+    }
+
+    public IdempotentResponse asReplay() {
+        return new IdempotentResponse(status, body, true);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.banking.model;
+
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A double-entry journal entry. Every movement of money is recorded as a set of postings that sum to zero.
+ * Debiting or crediting a customer {@link Account} also moves its cached balance, so {@code Account.balance}
+ * (plus its balance shards, for a sharded account) is always the projection of the postings written for it.
+ */
+@Entity
+@Table(name = "journal_entries")
+@Getter
+@Setter
+public class JournalEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "journal_entries_seq")
+    @SequenceGenerator(name = "journal_entries_seq", sequenceName = "journal_entries_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    private String type;
+
+    private String description;
+
+    @Column(name = "created_at")
+    private Date createdAt;
+
+    @OneToMany(mappedBy = "journalEntry", cascade = CascadeType.PERSIST)
+    private List<Posting> postings = new ArrayList<>();
+
+    public static JournalEntry of(String type, String description) {
+        JournalEntry entry = new JournalEntry();
+        entry.setType(type);
+        entry.setDescription(description);
+        return entry;
+    }
+
+    /**
+     * Takes money out of a customer account and moves its cached balance accordingly.
+     */
+    public JournalEntry debit(Account account, BigDecimal amount) {
+        return post(account, amount.negate());
+    }
+
+    /**
+     * Puts money into a customer account and moves its cached balance accordingly.
+     */
+    public JournalEntry credit(Account account, BigDecimal amount) {
+        return post(account, amount);
+    }
+
+    /**
+     * Puts money into a sharded customer account. The cached balance is left alone because the amount is
+     * added to one of the account's balance shards, so the posting carries no running balance.
+     */
+    public JournalEntry creditShard(Account account, BigDecimal amount) {
+        postings.add(new Posting(this, LedgerAccount.CUSTOMER, account.getId(), amount, null));
+        return this;
+    }
+
+    public JournalEntry debit(LedgerAccount ledgerAccount, BigDecimal amount) {
+        postings.add(new Posting(this, ledgerAccount, null, amount.negate(), null));
+        return this;
+    }
+
+    public JournalEntry credit(LedgerAccount ledgerAccount, BigDecimal amount) {
+        postings.add(new Posting(this, ledgerAccount, null, amount, null));
+        return this;
+    }
+
+    public List<Posting> getPostings() {
+        return Collections.unmodifiableList(postings);
+    }
+
+    public boolean isBalanced() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (Posting posting : postings) {
+            sum = sum.add(posting.getAmount());
+        }
+        return !postings.isEmpty() && sum.compareTo(BigDecimal.ZERO) == 0;
+    }
+
+    private JournalEntry post(Account account, BigDecimal signedAmount) {
+        account.setBalance(account.getBalance().add(signedAmount));
+        postings.add(new Posting(this, LedgerAccount.CUSTOMER, account.getId(), signedAmount, account.getBalance()));
+        return this;
+    }
+}
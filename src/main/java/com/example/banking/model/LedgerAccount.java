@@ -0,0 +1,12 @@
+package com.example.banking.model;
+
+/**
+ * The ledger side a posting is booked against. Customer postings always carry an account id;
+ * the bank-side accounts are single internal ledgers and replace the old "null to_account" convention.
+ */
+public enum LedgerAccount {
+    CUSTOMER,
+    BANK_CASH,
+    BANK_FEE_INCOME,
+    BANK_INTEREST_EXPENSE
+}
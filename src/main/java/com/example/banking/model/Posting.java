@@ -0,0 +1,61 @@
+package com.example.banking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * A single leg of a {@link JournalEntry}. Postings are append-only: they are created through
+ * {@link JournalEntry#debit} / {@link JournalEntry#credit} and never updated afterwards.
+ * A positive amount is a credit (money into the ledger account), a negative amount is a debit.
+ */
+@Entity
+@Table(name = "postings")
+@Getter
+public class Posting {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "postings_seq")
+    @SequenceGenerator(name = "postings_seq", sequenceName = "postings_id_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "journal_entry_id")
+    private JournalEntry journalEntry;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ledger_account")
+    private LedgerAccount ledgerAccount;
+
+    @Column(name = "account_id")
+    private Long accountId;
+
+    private BigDecimal amount;
+
+    // Running balance of the customer account after this posting; bank-side ledgers are not tracked per row.
+    @Column(name = "balance_after")
+    private BigDecimal balanceAfter;
+
+    protected Posting() {
+    }
+
+    Posting(JournalEntry journalEntry, LedgerAccount ledgerAccount, Long accountId, BigDecimal amount, BigDecimal balanceAfter) {
+        this.journalEntry = journalEntry;
+        this.ledgerAccount = ledgerAccount;
+        this.accountId = accountId;
+        this.amount = amount;
+        this.balanceAfter = balanceAfter;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.banking.model;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+// Compact copy of a Transaction kept inside the account summary read model.
+@Data
+public class RecentTransaction {
+    private Long id;
+    private String type;
+    private BigDecimal value;
+    private Date date;
+    private Long fromAccount;
+    private Long toAccount;
+    private String description;
+
+    public static RecentTransaction of(Transaction transaction) {
+        RecentTransaction recent = new RecentTransaction();
+        recent.setId(transaction.getId());
+        recent.setType(transaction.getType());
+        recent.setValue(transaction.getValue());
+        recent.setDate(transaction.getDate());
+        recent.setFromAccount(transaction.getFromAccount());
+        recent.setToAccount(transaction.getToAccount());
+        recent.setDescription(transaction.getDescription());
+        return recent;
+    }
+}
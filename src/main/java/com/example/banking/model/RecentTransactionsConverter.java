@@ -0,0 +1,42 @@
+package com.example.banking.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the last N transactions of an account summary as a JSON column so the overview is a single-row read.
+ */
+@Converter
+public class RecentTransactionsConverter implements AttributeConverter<List<RecentTransaction>, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<RecentTransaction>> TYPE = new TypeReference<>() {
+    };
+
+    @Override
+    public String convertToDatabaseColumn(List<RecentTransaction> transactions) {
+        try {
+            return MAPPER.writeValueAsString(transactions == null ? List.of() : transactions);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize recent transactions", e);
+        }
+    }
+
+    @Override
+    public List<RecentTransaction> convertToEntityAttribute(String json) {
+        if (json == null || json.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            return MAPPER.readValue(json, TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not deserialize recent transactions", e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.banking.model;
+
+public enum SubmissionState {
+    QUEUED,
+    PROCESSING,
+    // The transaction ran; the result says whether it was accepted or rejected
+    COMPLETED,
+    // The transaction could not be run to an answer, e.g. the database was unavailable
+    FAILED
+}
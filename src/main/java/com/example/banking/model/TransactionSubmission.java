@@ -0,0 +1,39 @@
+package com.example.banking.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Progress of a transaction submitted for asynchronous processing. {@code resultStatus} and {@code result}
+ * hold the HTTP status and body the synchronous endpoint would have answered with, once there is one.
+ */
+public record TransactionSubmission(String handle,
+                                    SubmissionState state,
+                                    Instant submittedAt,
+                                    Instant startedAt,
+                                    Instant completedAt,
+                                    Integer resultStatus,
+                                    Map<String, Object> result) {
+
+    public static TransactionSubmission queued(String handle) {
+        return new TransactionSubmission(handle, SubmissionState.QUEUED, Instant.now(), null, null, null, null);
+    }
+
+    public TransactionSubmission processing() {
+        return new TransactionSubmission(handle, SubmissionState.PROCESSING, submittedAt, Instant.now(), null, null, null);
+    }
+
+    public TransactionSubmission completed(IdempotentResponse response) {
+        return new TransactionSubmission(handle, SubmissionState.COMPLETED, submittedAt, startedAt, Instant.now(),
+                response.status(), response.body());
+    }
+
+    public TransactionSubmission failed(String message) {
+        return new TransactionSubmission(handle, SubmissionState.FAILED, submittedAt, startedAt, Instant.now(),
+                null, Map.of("success", false, "error", "PROCESSING_FAILED", "message", String.valueOf(message)));
+    }
+
+    public boolean isFinished() {
+        return state == SubmissionState.COMPLETED || state == SubmissionState.FAILED;
+    }
+}
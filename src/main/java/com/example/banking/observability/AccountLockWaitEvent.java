@@ -0,0 +1,35 @@
+package com.example.banking.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Time a transaction spent taking its account locks, so a recording shows which accounts transfers queue on
+ * next to the transactions that held them.
+ */
+@Name("com.example.banking.AccountLockWait")
+@Label("Account Lock Wait")
+@Category({"Banking", "Concurrency"})
+@Description("Acquisition of the account locks for one transaction, including the wait on other holders")
+@StackTrace(false)
+public class AccountLockWaitEvent extends Event {
+
+    public static final String ACQUIRED = "ACQUIRED";
+    public static final String TIMEOUT = "TIMEOUT";
+    public static final String FAILED = "FAILED";
+
+    @Label("Strategy")
+    public String strategy;
+
+    // In locking order, comma separated
+    @Label("Accounts")
+    public String accountIds;
+
+    @Label("Outcome")
+    @Description("ACQUIRED, TIMEOUT (lock_timeout expired) or FAILED (exception)")
+    public String outcome;
+}
@@ -0,0 +1,32 @@
+package com.example.banking.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The append is where concurrent writers to one account stream meet: the database makes the second
+ * insert of a version wait for the first writer's transaction before it fails with a conflict.
+ */
+@Name("com.example.banking.EventStoreAppend")
+@Label("Event Store Append")
+@Category({"Banking", "Concurrency"})
+@Description("Append of an account's uncommitted events, including any wait on a concurrent writer")
+@StackTrace(false)
+public class EventStoreAppendEvent extends Event {
+
+    @Label("Account")
+    public long accountId;
+
+    @Label("Expected Version")
+    public long expectedVersion;
+
+    @Label("Event Count")
+    public int eventCount;
+
+    @Label("Version Conflict")
+    public boolean conflict;
+}
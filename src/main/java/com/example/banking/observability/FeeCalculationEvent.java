@@ -0,0 +1,31 @@
+package com.example.banking.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.banking.FeeCalculation")
+@Label("Fee Calculation")
+@Category({"Banking", "Fees"})
+@Description("One monthly fee run for a single account")
+@StackTrace(false)
+public class FeeCalculationEvent extends Event {
+
+    @Label("Account")
+    public long accountId;
+
+    @Label("Customer Level")
+    public String customerLevel;
+
+    @Label("Fee Amount")
+    public double feeAmount;
+
+    @Label("Waived")
+    public boolean waived;
+
+    @Label("Result")
+    public String result;
+}
@@ -0,0 +1,102 @@
+package com.example.banking.observability;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * JDBC proxy that times every statement execution and adds it to the {@link RequestMetrics} of the
+ * calling thread. Only execute calls are timed; rows fetched lazily from a cursor afterwards are not.
+ * A JDBC batch counts as one statement since it is one round trip. While a repository call is being
+ * measured it also hands SQL and bind values to {@link SqlCapture}.
+ */
+public final class JdbcTimingDataSource {
+
+    private JdbcTimingDataSource() {
+    }
+
+    public static DataSource wrap(DataSource target) {
+        return (DataSource) Proxy.newProxyInstance(JdbcTimingDataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, new DataSourceHandler(target));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    // unwrap/isWrapperFor must see through the proxy, e.g. for pool metrics on the Hikari instance
+    private static Object unwrapOrInvoke(Object target, Method method, Object[] args) throws Throwable {
+        if (args != null && args.length == 1 && args[0] instanceof Class<?> iface) {
+            if ("unwrap".equals(method.getName()) && iface.isInstance(target)) {
+                return target;
+            }
+            if ("isWrapperFor".equals(method.getName()) && iface.isInstance(target)) {
+                return true;
+            }
+        }
+        return invoke(target, method, args);
+    }
+
+    private record DataSourceHandler(DataSource target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = unwrapOrInvoke(target, method, args);
+            if (result instanceof Connection connection && "getConnection".equals(method.getName())) {
+                return Proxy.newProxyInstance(JdbcTimingDataSource.class.getClassLoader(),
+                        new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+            }
+            return result;
+        }
+    }
+
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = unwrapOrInvoke(target, method, args);
+            Class<?> statementType = result instanceof CallableStatement ? CallableStatement.class
+                    : result instanceof PreparedStatement ? PreparedStatement.class
+                    : result instanceof Statement ? Statement.class
+                    : null;
+            if (statementType == null) {
+                return result;
+            }
+            SqlCapture.Statement captured = args != null && args.length > 0 && args[0] instanceof String sql
+                    ? SqlCapture.onStatement(sql) : null;
+            return Proxy.newProxyInstance(JdbcTimingDataSource.class.getClassLoader(),
+                    new Class<?>[]{statementType}, new StatementHandler((Statement) result, captured));
+        }
+    }
+
+    private record StatementHandler(Statement target, SqlCapture.Statement captured) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (captured != null && name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                captured.bind(index, args[1]);
+            } else if (captured == null && name.startsWith("execute") && args != null && args.length > 0 && args[0] instanceof String sql) {
+                // Plain statements carry their SQL on execute rather than on creation
+                SqlCapture.onStatement(sql);
+            }
+            RequestMetrics metrics = RequestMetrics.current();
+            if (metrics == null || !name.startsWith("execute")) {
+                return unwrapOrInvoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return JdbcTimingDataSource.invoke(target, method, args);
+            } finally {
+                metrics.recordStatement(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.banking.observability;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Controls one continuous flight recording: {@code POST /actuator/jfr/start}, {@code /dump} and
+ * {@code /stop}; {@code GET /actuator/jfr} reports its state. The recording uses the JDK's low-overhead
+ * "default" settings plus the banking events, keeps a bounded window on disk and is dumped to a file
+ * on the server, whose path is returned.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    private static final String RECORDING_NAME = "banking-continuous";
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    @Value("${banking.jfr.max-age:30m}")
+    private Duration maxAge = Duration.ofMinutes(30);
+
+    @Value("${banking.jfr.dump-dir:${java.io.tmpdir}}")
+    private String dumpDir = System.getProperty("java.io.tmpdir");
+
+    private Recording recording;
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        boolean running = recording != null && recording.getState() == RecordingState.RUNNING;
+        status.put("running", running);
+        if (recording != null) {
+            status.put("name", recording.getName());
+            status.put("state", recording.getState().name());
+            status.put("startTime", recording.getStartTime());
+            status.put("maxAge", recording.getMaxAge());
+        }
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> control(@Selector String action) {
+        switch (action) {
+            case "start" -> start();
+            case "stop" -> stop();
+            case "dump" -> {
+                Map<String, Object> result = status();
+                result.put("file", dump().toString());
+                return result;
+            }
+            default -> throw new InvalidEndpointRequestException("Unknown JFR action '" + action + "'. Use start, stop or dump.",
+                    "Unknown JFR action");
+        }
+        return status();
+    }
+
+    private void start() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return;
+        }
+        try {
+            Recording newRecording = new Recording(Configuration.getConfiguration("default"));
+            newRecording.setName(RECORDING_NAME);
+            newRecording.setToDisk(true);
+            newRecording.setMaxAge(maxAge);
+            newRecording.enable(TransactionProcessedEvent.class);
+            newRecording.enable(FeeCalculationEvent.class);
+            newRecording.enable(EventStoreAppendEvent.class);
+            newRecording.enable(AccountLockWaitEvent.class);
+            newRecording.start();
+            recording = newRecording;
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Could not load the JDK 'default' recording settings", e);
+        }
+    }
+
+    private void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private Path dump() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new InvalidEndpointRequestException("No JFR recording is running. Start one first.", "No JFR recording running");
+        }
+        Path file = Path.of(dumpDir, RECORDING_NAME + "-" + FILE_TIMESTAMP.format(Instant.now()) + ".jfr");
+        try {
+            Files.createDirectories(file.getParent());
+            recording.dump(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write JFR dump to " + file, e);
+        }
+        return file;
+    }
+}
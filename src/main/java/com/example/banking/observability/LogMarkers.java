@@ -0,0 +1,15 @@
+package com.example.banking.observability;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+public final class LogMarkers {
+
+    /**
+     * High-volume info events; {@link SamplingTurboFilter} lets only one in N through.
+     */
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private LogMarkers() {
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.banking.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Added to every Spring Data repository proxy. Records a latency timer with p50/p95/p99 per repository
+ * method and hands calls over the slow-query threshold, with the SQL they sent, to {@link SlowQueryLog}.
+ */
+public class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    static final String METRIC_NAME = "banking.repository.invocations";
+
+    // Resolved on first call: repositories are created before the meter registry and the slow-query log
+    private final Supplier<MeterRegistry> meterRegistry;
+    private final Supplier<SlowQueryLog> slowQueryLog;
+    private final Class<?> repositoryInterface;
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsInterceptor(Supplier<MeterRegistry> meterRegistry, Supplier<SlowQueryLog> slowQueryLog,
+                                        Class<?> repositoryInterface) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryLog = slowQueryLog;
+        this.repositoryInterface = repositoryInterface;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        SqlCapture.begin();
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            List<SqlCapture.Statement> statements = SqlCapture.end();
+            Method method = invocation.getMethod();
+            timerFor(method).record(elapsed, TimeUnit.NANOSECONDS);
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsed);
+            if (statements != null && !statements.isEmpty()) {
+                SlowQueryLog log = slowQueryLog.get();
+                if (log.isSlow(elapsedMs)) {
+                    log.record(methodName(method), elapsedMs, statements);
+                }
+            }
+        }
+    }
+
+    private Timer timerFor(Method method) {
+        return timers.computeIfAbsent(method, m -> Timer.builder(METRIC_NAME)
+                .description("Spring Data repository method latency")
+                .tag("repository", repositoryInterface.getSimpleName())
+                .tag("method", m.getName())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry.get()));
+    }
+
+    private String methodName(Method method) {
+        return repositoryInterface.getSimpleName() + "." + method.getName();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.banking.observability;
+
+/**
+ * Per-request counters filled in by the JDBC timing proxy on the request thread. Work done on other
+ * threads (async projections, the live overview fan-out) is not attributed to the request.
+ */
+public final class RequestMetrics {
+
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+
+    private long dbNanos;
+    private int statementCount;
+
+    private RequestMetrics() {
+    }
+
+    public static RequestMetrics begin() {
+        RequestMetrics metrics = new RequestMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Metrics bound to the current thread, or null outside a measured request.
+     */
+    public static RequestMetrics current() {
+        return CURRENT.get();
+    }
+
+    void recordStatement(long nanos) {
+        dbNanos += nanos;
+        statementCount++;
+    }
+
+    public long getDbNanos() {
+        return dbNanos;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.banking.observability;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one in {@code rate} events carrying the {@link LogMarkers#SAMPLED} marker at INFO or below and
+ * denies the rest before any message is formatted or queued. WARN and ERROR always pass. The counter
+ * is a single atomic increment, so the filter adds no locking to the logging path.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final AtomicLong counter = new AtomicLong();
+    private int rate = 100;
+
+    public void setRate(int rate) {
+        this.rate = Math.max(1, rate);
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker == null || level == null || level.isGreaterOrEqual(Level.WARN) || !marker.contains(LogMarkers.SAMPLED)) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
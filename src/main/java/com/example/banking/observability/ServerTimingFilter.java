@@ -0,0 +1,93 @@
+package com.example.banking.observability;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+/**
+ * Breaks each API request down into total time, database time and statement count (from
+ * {@link JdbcTimingDataSource}) and bytes allocated by the request thread. The breakdown is sent in a
+ * Server-Timing header and written as one key=value access log line per request.
+ * <p>
+ * The header is added when the response commits, so database work done while the body is still
+ * being written (open-in-view lazy loads) only shows up in the access log, which is written last.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger accessLog = LoggerFactory.getLogger("com.example.banking.access");
+
+    private final com.sun.management.ThreadMXBean threadMXBean;
+
+    public ServerTimingFilter() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sunBean
+                && sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+            this.threadMXBean = sunBean;
+        } else {
+            this.threadMXBean = null;
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        long allocatedAtStart = allocatedBytes();
+        RequestMetrics metrics = RequestMetrics.begin();
+
+        OnCommittedResponseWrapper wrapper = new OnCommittedResponseWrapper(response) {
+            @Override
+            protected void onResponseCommitted() {
+                response.setHeader("Server-Timing", serverTiming(start, allocatedAtStart, metrics));
+            }
+        };
+        try {
+            chain.doFilter(request, wrapper);
+        } finally {
+            if (!response.isCommitted()) {
+                response.setHeader("Server-Timing", serverTiming(start, allocatedAtStart, metrics));
+            }
+            if (accessLog.isInfoEnabled()) {
+                accessLog.info("method={} path={} status={} duration_ms={} db_ms={} db_statements={} alloc_bytes={}",
+                        request.getMethod(), request.getRequestURI(), response.getStatus(),
+                        millis(System.nanoTime() - start), millis(metrics.getDbNanos()),
+                        metrics.getStatementCount(), allocatedBytesSince(allocatedAtStart));
+            }
+            RequestMetrics.end();
+        }
+    }
+
+    private String serverTiming(long start, long allocatedAtStart, RequestMetrics metrics) {
+        StringBuilder header = new StringBuilder()
+                .append("total;dur=").append(millis(System.nanoTime() - start))
+                .append(", db;dur=").append(millis(metrics.getDbNanos()))
+                .append(";desc=\"").append(metrics.getStatementCount()).append(" statements\"");
+        long allocated = allocatedBytesSince(allocatedAtStart);
+        if (allocated >= 0) {
+            header.append(", alloc;desc=\"").append(allocated).append(" bytes\"");
+        }
+        return header.toString();
+    }
+
+    private long allocatedBytes() {
+        return threadMXBean == null ? -1 : threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private long allocatedBytesSince(long allocatedAtStart) {
+        return allocatedAtStart < 0 ? -1 : allocatedBytes() - allocatedAtStart;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
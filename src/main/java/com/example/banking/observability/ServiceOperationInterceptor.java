@@ -0,0 +1,24 @@
+package com.example.banking.observability;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Records which service method the current thread is in, for {@link SqlCommentStatementInspector}.
+ */
+public class ServiceOperationInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Class<?> target = invocation.getThis() == null
+                ? invocation.getMethod().getDeclaringClass()
+                : ClassUtils.getUserClass(invocation.getThis());
+        SqlCommentContext.enter(target.getSimpleName() + "." + invocation.getMethod().getName());
+        try {
+            return invocation.proceed();
+        } finally {
+            SqlCommentContext.exit();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.banking.observability;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One captured slow repository call. Statements keep their placeholders; literals are masked and
+ * bind values are reduced to their types, so nothing customer-specific is served.
+ */
+@Getter
+public class SlowQuery {
+
+    private final long id;
+    private final Instant capturedAt;
+    private final String repositoryMethod;
+    private final long durationMs;
+    private final List<CapturedStatement> statements;
+
+    SlowQuery(long id, Instant capturedAt, String repositoryMethod, long durationMs, List<CapturedStatement> statements) {
+        this.id = id;
+        this.capturedAt = capturedAt;
+        this.repositoryMethod = repositoryMethod;
+        this.durationMs = durationMs;
+        this.statements = statements;
+    }
+
+    @Getter
+    public static class CapturedStatement {
+        private final String sql;
+        private final List<String> bindTypes;
+        // Filled in once an operator asks for the EXPLAIN
+        private volatile String plan;
+        // Only kept for statements that can be explained, and dropped once they have been
+        @Getter(AccessLevel.NONE)
+        private final String originalSql;
+        @Getter(AccessLevel.NONE)
+        private volatile Map<Integer, Object> binds;
+
+        CapturedStatement(String sql, List<String> bindTypes, String originalSql, Map<Integer, Object> binds) {
+            this.sql = sql;
+            this.bindTypes = bindTypes;
+            this.originalSql = originalSql;
+            this.binds = binds;
+            this.plan = binds != null ? SlowQueryLog.NOT_REQUESTED : SlowQueryLog.NOT_EXPLAINED;
+        }
+
+        boolean isExplainable() {
+            return binds != null;
+        }
+
+        String originalSql() {
+            return originalSql;
+        }
+
+        Map<Integer, Object> binds() {
+            return binds;
+        }
+
+        void setPlan(String plan) {
+            this.plan = plan;
+        }
+
+        void explained(String plan) {
+            this.plan = plan;
+            this.binds = null;
+        }
+    }
+}
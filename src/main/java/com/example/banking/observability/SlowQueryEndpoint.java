@@ -0,0 +1,64 @@
+package com.example.banking.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GET /actuator/slowqueries}: latency percentiles per repository method and the most recent
+ * slow calls with their statements. {@code POST /actuator/slowqueries/{id}} explains one entry's
+ * statements and returns it with the plans. {@code DELETE} empties the buffer.
+ */
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+    private final MeterRegistry meterRegistry;
+
+    public SlowQueryEndpoint(SlowQueryLog slowQueryLog, MeterRegistry meterRegistry) {
+        this.slowQueryLog = slowQueryLog;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> slowQueries() {
+        Map<String, Object> latencies = new TreeMap<>();
+        for (Timer timer : meterRegistry.find(RepositoryMetricsInterceptor.METRIC_NAME).timers()) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", snapshot.count());
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                stats.put("p" + Math.round(percentile.percentile() * 100), percentile.value(TimeUnit.MILLISECONDS));
+            }
+            stats.put("max", snapshot.max(TimeUnit.MILLISECONDS));
+            latencies.put(timer.getId().getTag("repository") + "." + timer.getId().getTag("method"), stats);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("thresholdMs", slowQueryLog.getThresholdMs());
+        result.put("latenciesMs", latencies);
+        result.put("slowQueries", slowQueryLog.getEntries());
+        return result;
+    }
+
+    @WriteOperation
+    public SlowQuery explain(@Selector long id) {
+        return slowQueryLog.explain(id);
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryLog.clear();
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.banking.observability;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded ring buffer of slow repository calls. Plans are not captured automatically: an operator asks
+ * for one through {@code POST /actuator/slowqueries/{id}}, which re-runs that entry's SELECTs under
+ * EXPLAIN (ANALYZE, BUFFERS) with the original bind values. The binds stay in memory, never in the
+ * response, until the entry is explained or falls out of the buffer.
+ * <p>
+ * ANALYZE executes the statement again, so writes, data-modifying CTEs such as
+ * {@code WITH inserted AS (INSERT ...)} and locking reads ({@code FOR UPDATE}/{@code FOR SHARE}) are not
+ * explained. Every explain runs in a read-only transaction that is always rolled back, so it goes to a
+ * replica when read routing is configured. Only one explain runs at a time and each statement is
+ * explained at most once.
+ */
+public class SlowQueryLog {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("(?<![\\w.$])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    // Anything that changes data or takes row locks when ANALYZE runs it again
+    private static final Pattern SIDE_EFFECT = Pattern.compile(
+            "\\b(insert|update|delete|merge|for\\s+(key\\s+)?share)\\b");
+
+    static final String NOT_REQUESTED = "not requested";
+    static final String NOT_EXPLAINED = "not explained";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnly;
+    private final long thresholdMs;
+    private final int capacity;
+    private final boolean explain;
+    private final Deque<SlowQuery> entries = new ArrayDeque<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final Semaphore explainPermit = new Semaphore(1);
+    private volatile String explainPrefix;
+    private volatile boolean postgres;
+
+    public SlowQueryLog(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                        long thresholdMs, int capacity, boolean explain) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.thresholdMs = thresholdMs;
+        this.capacity = capacity;
+        this.explain = explain;
+    }
+
+    public long getThresholdMs() {
+        return thresholdMs;
+    }
+
+    public boolean isSlow(long durationMs) {
+        return durationMs >= thresholdMs;
+    }
+
+    void record(String repositoryMethod, long durationMs, List<SqlCapture.Statement> statements) {
+        List<SlowQuery.CapturedStatement> captured = new ArrayList<>(statements.size());
+        for (SqlCapture.Statement statement : statements) {
+            List<String> bindTypes = statement.getBinds().values().stream()
+                    .map(value -> value == null ? "null" : value.getClass().getSimpleName())
+                    .toList();
+            SlowQuery.CapturedStatement entry = explain && isExplainable(statement.getSql())
+                    ? new SlowQuery.CapturedStatement(redact(statement.getSql()), bindTypes, statement.getSql(),
+                            new HashMap<>(statement.getBinds()))
+                    : new SlowQuery.CapturedStatement(redact(statement.getSql()), bindTypes, null, null);
+            captured.add(entry);
+        }
+        synchronized (entries) {
+            if (entries.size() == capacity) {
+                entries.removeLast();
+            }
+            entries.addFirst(new SlowQuery(ids.incrementAndGet(), Instant.now(), repositoryMethod, durationMs, captured));
+        }
+    }
+
+    /**
+     * Newest first.
+     */
+    public List<SlowQuery> getEntries() {
+        synchronized (entries) {
+            return new ArrayList<>(entries);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Explains the statements of one entry on the calling thread. Returns null when the entry has left
+     * the buffer; statements are marked as skipped while another explain is running.
+     */
+    public SlowQuery explain(long id) {
+        SlowQuery entry = getEntries().stream().filter(candidate -> candidate.getId() == id).findFirst().orElse(null);
+        if (entry == null) {
+            return null;
+        }
+        if (!explainPermit.tryAcquire()) {
+            entry.getStatements().stream().filter(SlowQuery.CapturedStatement::isExplainable)
+                    .forEach(statement -> statement.setPlan("skipped: another explain is running"));
+            return entry;
+        }
+        try {
+            for (SlowQuery.CapturedStatement statement : entry.getStatements()) {
+                if (statement.isExplainable()) {
+                    statement.explained(explain(statement.originalSql(), statement.binds()));
+                }
+            }
+        } finally {
+            explainPermit.release();
+        }
+        return entry;
+    }
+
+    static String redact(String sql) {
+        String masked = STRING_LITERAL.matcher(sql).replaceAll("'?'");
+        return NUMERIC_LITERAL.matcher(masked).replaceAll("?");
+    }
+
+    static boolean isExplainable(String sql) {
+        String normalized = sql.stripLeading().toLowerCase(Locale.ROOT);
+        if (!normalized.startsWith("select") && !normalized.startsWith("with")) {
+            return false;
+        }
+        // FOR [NO KEY] UPDATE is covered by the update keyword; literals are masked so a value cannot look like one
+        return !SIDE_EFFECT.matcher(STRING_LITERAL.matcher(normalized).replaceAll("''")).find();
+    }
+
+    private String explain(String sql, Map<Integer, Object> binds) {
+        try {
+            String prefix = explainPrefix();
+            List<String> lines = readOnly.execute(status -> {
+                status.setRollbackOnly();
+                return jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+                    if (postgres) {
+                        // Also holds when the driver does not turn setReadOnly into BEGIN READ ONLY
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("SET TRANSACTION READ ONLY");
+                        }
+                    }
+                    List<String> plan = new ArrayList<>();
+                    try (PreparedStatement ps = connection.prepareStatement(prefix + sql)) {
+                        for (Map.Entry<Integer, Object> bind : binds.entrySet()) {
+                            ps.setObject(bind.getKey(), bind.getValue());
+                        }
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) {
+                                plan.add(rs.getString(1));
+                            }
+                        }
+                    }
+                    return plan;
+                });
+            });
+            return String.join("\n", lines);
+        } catch (RuntimeException e) {
+            return "explain failed: " + e.getMessage();
+        }
+    }
+
+    private String explainPrefix() {
+        if (explainPrefix == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equalsIgnoreCase(product);
+            explainPrefix = postgres ? "EXPLAIN (ANALYZE, BUFFERS) " : "EXPLAIN ANALYZE ";
+        }
+        return explainPrefix;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.banking.observability;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects the statements, with their bind values, that the current thread sends while a repository
+ * call is being measured. Only the outermost call collects; nested repository calls (default methods
+ * delegating to derived queries) add to the same list.
+ */
+public final class SqlCapture {
+
+    private static final ThreadLocal<SqlCapture> CURRENT = new ThreadLocal<>();
+
+    private final List<Statement> statements = new ArrayList<>();
+    private int depth;
+
+    private SqlCapture() {
+    }
+
+    static void begin() {
+        SqlCapture capture = CURRENT.get();
+        if (capture == null) {
+            capture = new SqlCapture();
+            CURRENT.set(capture);
+        }
+        capture.depth++;
+    }
+
+    /**
+     * Ends the current level and returns the statements once the outermost call ends, otherwise null.
+     */
+    static List<Statement> end() {
+        SqlCapture capture = CURRENT.get();
+        if (capture == null || --capture.depth > 0) {
+            return null;
+        }
+        CURRENT.remove();
+        return capture.statements;
+    }
+
+    /**
+     * Called by the JDBC proxy for every prepared or executed SQL string; null when nothing is capturing.
+     */
+    static Statement onStatement(String sql) {
+        SqlCapture capture = CURRENT.get();
+        if (capture == null) {
+            return null;
+        }
+        Statement statement = new Statement(sql);
+        capture.statements.add(statement);
+        return statement;
+    }
+
+    public static final class Statement {
+        private final String sql;
+        // Raw values, kept only long enough to EXPLAIN the statement; never exposed
+        private final Map<Integer, Object> binds = new TreeMap<>();
+
+        private Statement(String sql) {
+            this.sql = sql;
+        }
+
+        void bind(int index, Object value) {
+            binds.put(index, value);
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        Map<Integer, Object> getBinds() {
+            return binds;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.banking.observability;
+
+/**
+ * The service operation the current thread is working for. Only the outermost service call is kept,
+ * so statements issued by LedgerService on behalf of AccountService.processTransaction are attributed
+ * to processTransaction.
+ */
+public final class SqlCommentContext {
+
+    private static final ThreadLocal<SqlCommentContext> CURRENT = new ThreadLocal<>();
+
+    private final String operation;
+    private int depth;
+
+    private SqlCommentContext(String operation) {
+        this.operation = operation;
+    }
+
+    static void enter(String operation) {
+        SqlCommentContext context = CURRENT.get();
+        if (context == null) {
+            context = new SqlCommentContext(operation);
+            CURRENT.set(context);
+        }
+        context.depth++;
+    }
+
+    static void exit() {
+        SqlCommentContext context = CURRENT.get();
+        if (context != null && --context.depth == 0) {
+            CURRENT.remove();
+        }
+    }
+
+    static String currentOperation() {
+        SqlCommentContext context = CURRENT.get();
+        return context == null ? null : context.operation;
+    }
+}
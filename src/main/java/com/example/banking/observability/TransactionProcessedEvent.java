@@ -0,0 +1,34 @@
+package com.example.banking.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.banking.TransactionProcessed")
+@Label("Transaction Processed")
+@Category({"Banking", "Transactions"})
+@Description("One AccountService.processTransaction call, excluding the commit")
+@StackTrace(false)
+public class TransactionProcessedEvent extends Event {
+
+    public static final String SUCCESS = "SUCCESS";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    @Label("Type")
+    public String type;
+
+    // 0 when the request has no such account
+    @Label("From Account")
+    public long fromAccount;
+
+    @Label("To Account")
+    public long toAccount;
+
+    @Label("Outcome")
+    @Description("SUCCESS, REJECTED (validation or funds) or FAILED (exception)")
+    public String outcome;
+}
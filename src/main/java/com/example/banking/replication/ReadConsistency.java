@@ -0,0 +1,143 @@
+package com.example.banking.replication;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * What the current thread needs from a read-only transaction: nothing (any replica will do), a replica
+ * that has replayed the primary's WAL up to a given LSN, or the primary itself. Consulted by
+ * {@link ReplicaRoutingDataSource} when a read-only transaction fetches its connection.
+ * <p>
+ * LSNs travel in their Postgres text form ({@code 16/B374D848}) and are compared as 64-bit positions.
+ */
+public final class ReadConsistency {
+
+    private static final ThreadLocal<Long> requiredLsn = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> primaryOnly = new ThreadLocal<>();
+    private static final ThreadLocal<String> avoidedTarget = new ThreadLocal<>();
+    private static final ThreadLocal<AtomicReference<String>> routingTrace = new ThreadLocal<>();
+
+    private ReadConsistency() {
+    }
+
+    /**
+     * Restricts read-only transactions on this thread to replicas that have replayed at least this LSN.
+     */
+    public static void requireLsn(long lsn) {
+        requiredLsn.set(lsn);
+    }
+
+    public static Long requiredLsn() {
+        return requiredLsn.get();
+    }
+
+    public static void requirePrimary() {
+        primaryOnly.set(Boolean.TRUE);
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(primaryOnly.get());
+    }
+
+    /**
+     * Steers read-only transactions on this thread away from the given database where another one will do,
+     * so a hedged read does not wait on the same database as the attempt it hedges.
+     */
+    public static void avoid(String target) {
+        avoidedTarget.set(target);
+    }
+
+    public static String avoidedTarget() {
+        return avoidedTarget.get();
+    }
+
+    /**
+     * Has the database picked for this thread's next connections written to the given reference.
+     */
+    public static void traceRouting(AtomicReference<String> target) {
+        routingTrace.set(target);
+    }
+
+    static void routedTo(String target) {
+        AtomicReference<String> trace = routingTrace.get();
+        if (trace != null) {
+            trace.set(target);
+        }
+    }
+
+    public static void clear() {
+        requiredLsn.remove();
+        primaryOnly.remove();
+        avoidedTarget.remove();
+        routingTrace.remove();
+    }
+
+    /**
+     * Captures this thread's requirements so reads handed to another thread keep them.
+     */
+    public static Snapshot capture() {
+        return new Snapshot(requiredLsn.get(), isPrimaryRequired());
+    }
+
+    /**
+     * Runs the work with every read on the primary, for results that outlive the request, such as cache
+     * entries, and so must not come from a replica that is still catching up.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = primaryOnly.get();
+        primaryOnly.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                primaryOnly.remove();
+            } else {
+                primaryOnly.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException when the text is not an LSN
+     */
+    public static long parseLsn(String text) {
+        int slash = text == null ? -1 : text.indexOf('/');
+        if (slash <= 0 || slash == text.length() - 1) {
+            throw new IllegalArgumentException("Not an LSN: " + text);
+        }
+        try {
+            long high = Long.parseLong(text.substring(0, slash), 16);
+            long low = Long.parseLong(text.substring(slash + 1), 16);
+            if (high < 0 || high > 0xFFFFFFFFL || low < 0 || low > 0xFFFFFFFFL) {
+                throw new IllegalArgumentException("Not an LSN: " + text);
+            }
+            return high << 32 | low;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not an LSN: " + text, e);
+        }
+    }
+
+    public static String formatLsn(long lsn) {
+        return Long.toHexString(lsn >>> 32).toUpperCase() + "/" + Long.toHexString(lsn & 0xFFFFFFFFL).toUpperCase();
+    }
+
+    public record Snapshot(Long requiredLsn, boolean primaryRequired) {
+
+        /**
+         * Runs the work with these requirements on the current thread, then clears them.
+         */
+        public <T> T run(Supplier<T> work) {
+            try {
+                if (requiredLsn != null) {
+                    ReadConsistency.requireLsn(requiredLsn);
+                }
+                if (primaryRequired) {
+                    ReadConsistency.requirePrimary();
+                }
+                return work.get();
+            } finally {
+                ReadConsistency.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.banking.replication;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Gives clients read-your-writes on top of replica reads. Responses to writes carry the primary's current
+ * WAL position as a consistency token; a request that sends the token back has its reads served by a
+ * replica that has replayed that far, or by the primary.
+ * <p>
+ * The position is read when the response commits, after the request's transaction has, so it covers
+ * the write. Work handed off to run later, such as an asynchronous submission, is not covered.
+ * A malformed token sends every read of the request to the primary.
+ */
+public class ReadConsistencyFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadConsistencyFilter.class);
+
+    public static final String CONSISTENCY_TOKEN_HEADER = "X-Banking-Consistency-Token";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean issueTokens;
+
+    /**
+     * @param issueTokens whether the primary reports WAL positions, which only Postgres does
+     */
+    public ReadConsistencyFilter(JdbcTemplate jdbcTemplate, boolean issueTokens) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.issueTokens = issueTokens;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = request.getHeader(CONSISTENCY_TOKEN_HEADER);
+        if (token != null) {
+            try {
+                ReadConsistency.requireLsn(ReadConsistency.parseLsn(token.trim()));
+            } catch (IllegalArgumentException e) {
+                ReadConsistency.requirePrimary();
+            }
+        }
+
+        HttpServletResponse target = response;
+        if (issueTokens && !READ_METHODS.contains(request.getMethod())) {
+            target = new OnCommittedResponseWrapper(response) {
+                @Override
+                protected void onResponseCommitted() {
+                    issueToken(response);
+                }
+            };
+        }
+        try {
+            chain.doFilter(request, target);
+        } finally {
+            if (target != response && !response.isCommitted()) {
+                issueToken(response);
+            }
+            ReadConsistency.clear();
+        }
+    }
+
+    private void issueToken(HttpServletResponse response) {
+        try {
+            String lsn = jdbcTemplate.queryForObject("SELECT pg_current_wal_lsn()::text", String.class);
+            if (lsn != null) {
+                response.setHeader(CONSISTENCY_TOKEN_HEADER, lsn);
+            }
+        } catch (DataAccessException e) {
+            // Without a token the client's next reads may be served by a replica that has not caught up yet
+            log.warn("Could not read the primary's WAL position for a consistency token", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.banking.replication;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary. Transactions only know
+ * they are read-only once they have begun, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which defers the choice to
+ * the first statement.
+ * <p>
+ * A read that carries a consistency token goes to a replica that has caught up with it, or to the primary
+ * when none has. A hedged read passes over the replica its first attempt went to.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String READS_METRIC = "banking.datasource.reads";
+
+    private final ReplicaSet replicas;
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaSet replicas, MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        Map<Object, Object> targets = new HashMap<>(replicas.getDataSources());
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+        this.primaryReads = Counter.builder(READS_METRIC).description("Read-only transactions by the database that served them")
+                .tag("target", "primary").register(meterRegistry);
+        this.replicaReads = Counter.builder(READS_METRIC).description("Read-only transactions by the database that served them")
+                .tag("target", "replica").register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String target = route();
+        ReadConsistency.routedTo(target);
+        return target;
+    }
+
+    private String route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        String replica = ReadConsistency.isPrimaryRequired() ? null
+                : replicas.choose(ReadConsistency.requiredLsn(), ReadConsistency.avoidedTarget());
+        if (replica == null) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return replica;
+    }
+}
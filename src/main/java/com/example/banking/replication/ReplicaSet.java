@@ -0,0 +1,117 @@
+package com.example.banking.replication;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read replicas and how far each has replayed the primary's WAL. Replay positions are polled in the
+ * background rather than per transaction, so a replica can be up to one interval further ahead than
+ * recorded; that only ever sends a read to the primary that a replica could have served.
+ * <p>
+ * A replica that cannot be reached is left out until it answers again. One that answers without a replay
+ * position (not a Postgres standby) serves reads without a consistency token only.
+ */
+public class ReplicaSet implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaSet.class);
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaSet(Map<String, DataSource> replicas) {
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+    }
+
+    public Map<String, DataSource> getDataSources() {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        replicas.forEach(replica -> dataSources.put(replica.name, replica.dataSource));
+        return dataSources;
+    }
+
+    public String choose(Long requiredLsn) {
+        return choose(requiredLsn, null);
+    }
+
+    /**
+     * Picks the next available replica, round robin, that has replayed at least the required LSN.
+     *
+     * @param requiredLsn the LSN the read must see, or null for any replica
+     * @param avoided     a replica to pass over, or null
+     * @return the replica's name, or null when none qualifies
+     */
+    public String choose(Long requiredLsn, String avoided) {
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(replicas.size(), 1));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.available && !replica.name.equals(avoided) && (requiredLsn == null
+                    || replica.replayedLsn != null && Long.compareUnsigned(replica.replayedLsn, requiredLsn) >= 0)) {
+                return replica.name;
+            }
+        }
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${banking.datasource.replica-check-interval-ms:1000}")
+    public void refresh() {
+        replicas.forEach(Replica::refresh);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean available = true;
+        private volatile Long replayedLsn;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private void refresh() {
+            try (Connection connection = dataSource.getConnection()) {
+                if (!available) {
+                    log.info("Replica {} is reachable again", name);
+                }
+                available = true;
+                replayedLsn = replayedLsn(connection);
+            } catch (SQLException e) {
+                if (available) {
+                    log.warn("Replica {} is unreachable, reads go elsewhere until it answers", name, e);
+                }
+                available = false;
+            }
+        }
+
+        private Long replayedLsn(Connection connection) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT pg_last_wal_replay_lsn()::text")) {
+                String lsn = resultSet.next() ? resultSet.getString(1) : null;
+                return lsn == null ? null : ReadConsistency.parseLsn(lsn);
+            } catch (SQLException | IllegalArgumentException e) {
+                log.debug("Replica {} does not report a replay position", name, e);
+                return null;
+            }
+        }
+    }
+}
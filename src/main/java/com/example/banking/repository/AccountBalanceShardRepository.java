@@ -0,0 +1,51 @@
+package com.example.banking.repository;
+
+import com.example.banking.model.AccountBalanceShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AccountBalanceShardRepository extends JpaRepository<AccountBalanceShard, AccountBalanceShard.Key> {
+
+    /**
+     * Adds to one shard in place, so concurrent credits only wait for writers of the same shard.
+     */
+    @Modifying
+    @Query("UPDATE AccountBalanceShard s SET s.balance = s.balance + :amount WHERE s.accountId = :accountId AND s.shardNo = :shardNo")
+    int addToShard(@Param("accountId") long accountId, @Param("shardNo") int shardNo, @Param("amount") BigDecimal amount);
+
+    /**
+     * The account balance plus its shards in one statement, so a concurrent fold is either fully seen or not at all.
+     */
+    @Query("SELECT a.balance + COALESCE((SELECT SUM(s.balance) FROM AccountBalanceShard s WHERE s.accountId = a.id), 0) FROM Account a WHERE a.id = :accountId")
+    BigDecimal totalBalance(@Param("accountId") long accountId);
+
+    /**
+     * {@link #totalBalance} for several accounts in one statement.
+     */
+    @Query("SELECT a.id AS accountId, a.balance + COALESCE((SELECT SUM(s.balance) FROM AccountBalanceShard s WHERE s.accountId = a.id), 0) AS total "
+            + "FROM Account a WHERE a.id IN :accountIds")
+    List<AccountTotal> totalBalances(@Param("accountIds") Collection<Long> accountIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountBalanceShard s WHERE s.accountId = :accountId ORDER BY s.shardNo")
+    List<AccountBalanceShard> findByAccountIdForUpdate(@Param("accountId") long accountId);
+
+    @Query("SELECT DISTINCT s.accountId FROM AccountBalanceShard s WHERE s.balance <> 0 ORDER BY s.accountId")
+    List<Long> findAccountIdsWithUnfoldedCredits();
+
+    interface AccountTotal {
+        Long getAccountId();
+
+        BigDecimal getTotal();
+    }
+}
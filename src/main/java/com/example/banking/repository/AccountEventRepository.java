@@ -0,0 +1,15 @@
+package com.example.banking.repository;
+
+import com.example.banking.model.AccountEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AccountEventRepository extends JpaRepository<AccountEvent, Long> {
+    List<AccountEvent> findByAccountIdAndVersionGreaterThanOrderByVersionAsc(Long accountId, Long version);
+
+    boolean existsByAccountIdIn(Collection<Long> accountIds);
+}
@@ -11,6 +11,12 @@ import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
+    /**
+     * The committed shard count, read past the persistence context, which may hold a stale account.
+     */
+    @Query("SELECT a.balanceShards FROM Account a WHERE a.id = :id")
+    Optional<Integer> findBalanceShardsById(@Param("id") long id);
+
     @Query("SELECT a FROM Account a WHERE a.custId = :customerId")
     List<Account> findAccountsByCustomerId(@Param("customerId") long customerId);
 } 
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.example.banking.repository;
+
+import com.example.banking.model.AccountSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AccountSummaryRepository extends JpaRepository<AccountSummary, Long> {
+    List<AccountSummary> findByCustomerIdOrderByAccountId(Long customerId);
+
+    /**
+     * Summaries seeded by a migration rather than built by a refresh.
+     */
+    @Query("SELECT s.accountId FROM AccountSummary s WHERE s.updatedAt IS NULL ORDER BY s.accountId")
+    List<Long> findAccountIdsNeverRefreshed();
+}
@@ -1,12 +1,43 @@
 package com.example.banking.repository;
 
 import com.example.banking.model.Customer;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
-    Optional<Customer> findByName(String name);
-} 
\ No newline at end of file
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerRepositoryCustom {
+    // Names are unique after normalization, so look them up through the unique index rather than scanning on name
+    default Optional<Customer> findByName(String name) {
+        return findByNameNormalized(Customer.normalizeName(name));
+    }
+
+    Optional<Customer> findByNameNormalized(String nameNormalized);
+
+    // Keyset pagination: callers pass the last id they saw instead of an offset
+    List<Customer> findByIdGreaterThanOrderByIdAsc(long afterId, Pageable pageable);
+
+    List<Customer> findByCustomerLevelAndIdGreaterThanOrderByIdAsc(String customerLevel, long afterId, Pageable pageable);
+
+    /**
+     * Server-side cursor over all customers. Must be consumed inside a read-only transaction and closed.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT c FROM Customer c ORDER BY c.id")
+    Stream<Customer> streamAll();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT c FROM Customer c WHERE c.customerLevel = :customerLevel ORDER BY c.id")
+    Stream<Customer> streamByCustomerLevel(@Param("customerLevel") String customerLevel);
+}
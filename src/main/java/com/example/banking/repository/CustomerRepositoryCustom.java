@@ -0,0 +1,12 @@
+package com.example.banking.repository;
+
+import com.example.banking.model.Customer;
+import com.example.banking.model.CustomerInsertResult;
+
+public interface CustomerRepositoryCustom {
+
+    /**
+     * Inserts the customer unless another customer already has the same normalized name.
+     */
+    CustomerInsertResult insertIfAbsent(Customer customer);
+}
@@ -0,0 +1,77 @@
+package com.example.banking.repository;
+
+import com.example.banking.model.Customer;
+import com.example.banking.model.CustomerInsertResult;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * On PostgreSQL the insert and the duplicate check are one indexed INSERT ... ON CONFLICT statement that
+ * returns either the new row or the existing one. Other databases (H2 in tests) fall back to an indexed
+ * lookup followed by a persist, with the unique constraint as the backstop.
+ */
+public class CustomerRepositoryImpl implements CustomerRepositoryCustom {
+
+    private static final String INSERT_ON_CONFLICT =
+            "WITH inserted AS ("
+            + " INSERT INTO customers (name, name_normalized, email, phone, customer_level)"
+            + " VALUES (?, ?, ?, ?, ?)"
+            + " ON CONFLICT (name_normalized) DO NOTHING"
+            + " RETURNING id, name, email, phone, customer_level, true AS created)"
+            + " SELECT * FROM inserted"
+            + " UNION ALL"
+            + " SELECT id, name, email, phone, customer_level, false AS created FROM customers"
+            + " WHERE name_normalized = ? AND NOT EXISTS (SELECT 1 FROM inserted)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public CustomerInsertResult insertIfAbsent(Customer customer) {
+        String normalized = Customer.normalizeName(customer.getName());
+        if (isPostgres()) {
+            List<CustomerInsertResult> rows = jdbcTemplate.query(INSERT_ON_CONFLICT, (rs, rowNum) -> {
+                Customer row = new Customer();
+                row.setId(rs.getLong("id"));
+                row.setName(rs.getString("name"));
+                row.setEmail(rs.getString("email"));
+                row.setPhone(rs.getString("phone"));
+                row.setCustomerLevel(rs.getString("customer_level"));
+                row.setNameNormalized(normalized);
+                return new CustomerInsertResult(row, rs.getBoolean("created"));
+            }, customer.getName(), normalized, customer.getEmail(), customer.getPhone(), customer.getCustomerLevel(), normalized);
+            return rows.isEmpty() ? new CustomerInsertResult(null, false) : rows.get(0);
+        }
+
+        List<Customer> existing = entityManager
+                .createQuery("SELECT c FROM Customer c WHERE c.nameNormalized = :name", Customer.class)
+                .setParameter("name", normalized)
+                .setMaxResults(1)
+                .getResultList();
+        if (!existing.isEmpty()) {
+            return new CustomerInsertResult(existing.get(0), false);
+        }
+        entityManager.persist(customer);
+        entityManager.flush();
+        return new CustomerInsertResult(customer, true);
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equalsIgnoreCase(product);
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.banking.repository;
+
+import com.example.banking.model.JournalEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface JournalEntryRepository extends JpaRepository<JournalEntry, Long> {
+    List<JournalEntry> findByTransactionId(Long transactionId);
+}
@@ -0,0 +1,23 @@
+package com.example.banking.repository;
+
+import com.example.banking.model.Posting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface PostingRepository extends JpaRepository<Posting, Long> {
+
+    /**
+     * Reconciliation is a plain sum over the append-only postings of an account.
+     */
+    @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Posting p WHERE p.ledgerAccount = com.example.banking.model.LedgerAccount.CUSTOMER AND p.accountId = :accountId")
+    BigDecimal sumByAccountId(@Param("accountId") long accountId);
+
+    @Query("SELECT p FROM Posting p WHERE p.ledgerAccount = com.example.banking.model.LedgerAccount.CUSTOMER AND p.accountId = :accountId ORDER BY p.id DESC")
+    List<Posting> findByAccountIdOrderByIdDesc(@Param("accountId") long accountId);
+}
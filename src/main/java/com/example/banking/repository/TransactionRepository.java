@@ -1,11 +1,13 @@
 package com.example.banking.repository;
 
 import com.example.banking.model.Transaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.Date;
 import java.util.List;
 
@@ -29,4 +31,13 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
         @Param("type") String type, 
         @Param("startDate") Date startDate, 
         @Param("endDate") Date endDate);
-} 
\ No newline at end of file
+
+    @Query("SELECT t FROM Transaction t WHERE t.fromAccount = :accountId OR t.toAccount = :accountId ORDER BY t.date DESC, t.id DESC")
+    List<Transaction> findRecentByAccountId(@Param("accountId") long accountId, Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(t.value), 0) FROM Transaction t WHERE t.toAccount = :accountId AND t.date >= :since")
+    BigDecimal sumCreditsSince(@Param("accountId") long accountId, @Param("since") Date since);
+
+    @Query("SELECT COALESCE(SUM(t.value), 0) FROM Transaction t WHERE t.fromAccount = :accountId AND t.date >= :since")
+    BigDecimal sumDebitsSince(@Param("accountId") long accountId, @Param("since") Date since);
+}
@@ -0,0 +1,18 @@
+package com.example.banking.service;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published whenever the balance or transaction history of accounts changes. Listeners that
+ * maintain derived state (read models, caches) refresh the listed accounts.
+ *
+ * @param shardCreditedIds the subset of accounts whose only change was a credit to a balance shard, which
+ *                         leaves the accounts row as it was
+ */
+public record AccountChangedEvent(Collection<Long> accountIds, Collection<Long> shardCreditedIds) {
+
+    public AccountChangedEvent(Collection<Long> accountIds) {
+        this(accountIds, Set.of());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.banking.service;
+
+import com.example.banking.model.Account;
+
+import java.util.Collection;
+
+/**
+ * Serializes transactions that change the same account balances, across every replica sharing the
+ * database. Selected with {@code banking.account-locks.strategy}: {@code row} locks the accounts rows
+ * with SELECT ... FOR UPDATE, {@code advisory} takes Postgres transaction-level advisory locks keyed by
+ * account id, and {@code none} takes no lock at all.
+ */
+public interface AccountLockStrategy {
+
+    /**
+     * Locks the given accounts until the current transaction ends and reloads their state, which may have
+     * changed while waiting. Accounts are locked in ascending id order, so two transfers between the same
+     * accounts in opposite directions queue behind each other instead of deadlocking.
+     *
+     * @throws com.example.banking.exception.AccountLockTimeoutException when a lock is not granted in time
+     */
+    void lock(Collection<Account> accounts);
+}
@@ -1,16 +1,30 @@
 package com.example.banking.service;
 
+import com.example.banking.cache.CacheInvalidationBus;
+import com.example.banking.cache.LocalCache;
 import com.example.banking.model.Account;
 import com.example.banking.model.AccountCreationRequest;
+import com.example.banking.model.JournalEntry;
+import com.example.banking.model.LedgerAccount;
 import com.example.banking.model.LimitedAccount;
 import com.example.banking.model.ProcessTransactionRequest;
 import com.example.banking.model.Transaction;
+import com.example.banking.observability.LogMarkers;
+import com.example.banking.observability.TransactionProcessedEvent;
+import com.example.banking.replication.ReadConsistency;
 import com.example.banking.repository.AccountRepository;
 import com.example.banking.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -18,6 +32,8 @@ import java.util.Optional;
 @Service
 public class AccountService {
 
+    private static final Logger log = LoggerFactory.getLogger(AccountService.class);
+
     private final EmailNotificationService notificationService = new EmailNotificationService();
 
     @Autowired
@@ -26,6 +42,27 @@ public class AccountService {
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private BalanceShardService balanceShardService;
+
+    @Autowired
+    private AccountLockStrategy accountLockStrategy;
+
+    @Autowired
+    private LocalCache<Account> accountCache;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private HedgedReadExecutor hedgedReadExecutor;
+
     public Account createAccount(AccountCreationRequest request) {
         if ("STUDENT".equals(request.getAccountType())) {
             return createLimitedAccount(request);
@@ -35,7 +72,7 @@ public class AccountService {
         account.setCustId(request.getCustomerId());
         account.setAccountType(request.getAccountType());
         account.setBalance(BigDecimal.ZERO);
-        return accountRepository.save(account);
+        return publishCreated(accountRepository.save(account));
     }
 
     public Account createLimitedAccount(AccountCreationRequest request) {
@@ -43,22 +80,81 @@ public class AccountService {
         account.setCustId(request.getCustomerId());
         account.setAccountType("STUDENT");
         account.setBalance(BigDecimal.ZERO);
-        return accountRepository.save(account);
+        return publishCreated(accountRepository.save(account));
+    }
+
+    private Account publishCreated(Account account) {
+        if (account != null && account.getId() != null) {
+            eventPublisher.publishEvent(new AccountChangedEvent(List.of(account.getId())));
+        }
+        return account;
     }
 
+    /**
+     * Serves the account from the local cache. Inside a transaction the row is read directly, since it may
+     * hold changes that are not committed yet. Cache misses are loaded from the primary: an entry evicted
+     * for a change must not be refilled from a replica that has not replayed it yet.
+     */
     public Account getAccount(long id) {
-        return accountRepository.findById(id).orElse(null);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loadAccount(id);
+        }
+        Account cached = accountCache.get(id, key -> ReadConsistency.onPrimary(
+                () -> hedgedReadExecutor.read("account", () -> detached(accountRepository.findById(key).orElse(null)))));
+        // The cache holds the row only; shard credits do not evict it, so the shards are added on every read
+        if (cached != null && balanceShardService.isSharded(cached)) {
+            return ReadConsistency.onPrimary(() -> balanceShardService.withTotalBalance(cached));
+        }
+        return detached(cached);
     }
 
+    private Account loadAccount(long id) {
+        return balanceShardService.withTotalBalance(accountRepository.findById(id).orElse(null));
+    }
+
+    @Transactional(readOnly = true)
     public List<Account> getAccountsByCustomerId(long customerId) {
-        return accountRepository.findAccountsByCustomerId(customerId);
+        return accountRepository.findAccountsByCustomerId(customerId).stream()
+                .map(balanceShardService::withTotalBalance)
+                .toList();
+    }
+
+    /**
+     * Spreads credits to the account over the given number of balance shards, or turns sharding off with 0.
+     *
+     * @return the account, or null when it does not exist
+     */
+    public Account configureBalanceShards(long id, int shardCount) {
+        return balanceShardService.withTotalBalance(balanceShardService.configure(id, shardCount));
     }
 
+    @Transactional(readOnly = true)
     public List<Transaction> getTransactions(long accountId) {
         return transactionRepository.findByAccountId(accountId);
     }
 
+    @Transactional
     public boolean processTransaction(ProcessTransactionRequest request) {
+        TransactionProcessedEvent event = new TransactionProcessedEvent();
+        event.begin();
+        String outcome = TransactionProcessedEvent.FAILED;
+        try {
+            boolean processed = doProcessTransaction(request);
+            outcome = processed ? TransactionProcessedEvent.SUCCESS : TransactionProcessedEvent.REJECTED;
+            return processed;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.type = request.getType();
+                event.fromAccount = request.getFrom() == null ? 0 : request.getFrom();
+                event.toAccount = request.getTo() == null ? 0 : request.getTo();
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    private boolean doProcessTransaction(ProcessTransactionRequest request) {
         Long fromId = request.getFrom();
         Long toId = request.getTo();
         BigDecimal amount = request.getAmount();
@@ -66,49 +162,50 @@ public class AccountService {
 
         // Validate request
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            System.err.println("Invalid transaction: amount must be more than zero");
+            log.warn("Invalid transaction: amount must be more than zero");
             return false;
         }
         
         if (type == null || type.trim().isEmpty()) {
-            System.err.println("Invalid transaction: transaction type is required");
+            log.warn("Invalid transaction: transaction type is required");
             return false;
         }
 
-        // Log everything for now, we'll figure out logging later
-        System.out.println("Processing transaction: from=" + fromId + ", to=" + toId + ", amount=" + amount + ", type=" + type);
+        // One line per request adds up; only a sample of these is written
+        log.info(LogMarkers.SAMPLED, "Processing transaction: from={}, to={}, amount={}, type={}", fromId, toId, amount, type);
 
-        // Check transaction limit for large amounts
-        if (amount.compareTo(new BigDecimal("10000")) > 0) {
-            // Send notification for large transaction but don't block it
-            System.out.println("Transaction amount " + amount + " exceeds the limit of 10000.");
-            if (fromId != null) {
-                accountRepository.findById(fromId).ifPresent(acc ->
-                        notificationService.sendNotification(String.valueOf(acc.getCustId()), "A large transaction of " + amount + " was initiated."));
-            }
+        // Check transaction limit for large amounts. The notification is sent by each branch once it has
+        // loaded the source account, so the check does not cost a lookup of its own.
+        boolean largeTransaction = amount.compareTo(new BigDecimal("10000")) > 0;
+        if (largeTransaction) {
+            log.info("Transaction amount {} exceeds the limit of 10000", amount);
         }
 
         if ("TRANSFER".equalsIgnoreCase(type) || "INTERNATIONAL_TRANSFER".equalsIgnoreCase(type)) {
             if (fromId == null || toId == null) {
-                System.err.println("Invalid transfer: need both from and to account numbers");
+                log.warn("Invalid transfer: need both from and to account numbers");
                 return false;
             }
 
             Optional<Account> fromAccOpt = accountRepository.findById(fromId);
             Optional<Account> toAccOpt = accountRepository.findById(toId);
+            if (largeTransaction) {
+                fromAccOpt.ifPresent(acc -> notifyLargeTransaction(acc, amount));
+            }
 
             if (fromAccOpt.isEmpty()) {
-                System.err.println("Account " + fromId + " not found");
+                log.warn("Account {} not found", fromId);
                 return false;
             }
             
             if (toAccOpt.isEmpty()) {
-                System.err.println("Account " + toId + " not found");
+                log.warn("Account {} not found", toId);
                 return false;
             }
 
             Account fromAcc = fromAccOpt.get();
             Account toAcc = toAccOpt.get();
+            lockForUpdate(fromAcc, toAcc);
 
             BigDecimal totalDebit = amount;
             BigDecimal feeAmount = BigDecimal.ZERO;
@@ -116,18 +213,26 @@ public class AccountService {
             if ("INTERNATIONAL_TRANSFER".equalsIgnoreCase(type)) {
                 feeAmount = new BigDecimal("50.00"); // Magic number for fee
                 totalDebit = totalDebit.add(feeAmount);
-                System.out.println("Charged international fee of: " + feeAmount);
+                log.info(LogMarkers.SAMPLED, "Charged international fee of {}", feeAmount);
+            }
+
+            if (balanceShardService.isSharded(fromAcc)) {
+                balanceShardService.consolidate(fromAcc, totalDebit);
             }
 
             if (fromAcc.getBalance().compareTo(totalDebit) < 0) {
-                System.err.println("Not enough money in account " + fromId + 
-                    ". Need: $" + totalDebit + " (including $" + feeAmount + " fee), Have: $" + fromAcc.getBalance());
+                log.warn("Not enough money in account {}. Need: ${} (including ${} fee), Have: ${}", fromId, totalDebit, feeAmount, fromAcc.getBalance());
                 return false;
             }
 
-            // Process the transaction
-            fromAcc.setBalance(fromAcc.getBalance().subtract(totalDebit));
-            toAcc.setBalance(toAcc.getBalance().add(amount));
+            // Process the transaction; the journal entry moves the cached balances
+            JournalEntry entry = JournalEntry.of(type.toUpperCase(), request.getDetails())
+                    .debit(fromAcc, amount);
+            credit(entry, toAcc, amount);
+            if (feeAmount.signum() > 0) {
+                entry.debit(fromAcc, feeAmount)
+                        .credit(LedgerAccount.BANK_FEE_INCOME, feeAmount);
+            }
 
             accountRepository.save(fromAcc);
             accountRepository.save(toAcc);
@@ -155,28 +260,37 @@ public class AccountService {
                 
                 notificationService.sendNotification(String.valueOf(fromAcc.getCustId()), "International transfer processed.");
             }
+
+            entry.setTransactionId(t.getId());
+            ledgerService.append(entry);
         } else if ("DEPOSIT".equalsIgnoreCase(type)) {
             if (toId == null) {
-                System.err.println("Need account number for deposit");
+                log.warn("Need account number for deposit");
                 return false;
             }
+            if (largeTransaction && fromId != null) {
+                accountRepository.findById(fromId).ifPresent(acc -> notifyLargeTransaction(acc, amount));
+            }
             
             Optional<Account> accOpt = accountRepository.findById(toId);
             if (accOpt.isEmpty()) {
-                System.err.println("Account " + toId + " not found");
+                log.warn("Account {} not found", toId);
                 return false;
             }
 
             Account acc = accOpt.get();
+            lockForUpdate(null, acc);
             
             if ("STUDENT".equals(acc.getAccountType())) {
-                BigDecimal newBalance = acc.getBalance().add(amount);
+                BigDecimal newBalance = balanceShardService.totalBalance(acc).add(amount);
                 if (newBalance.compareTo(new BigDecimal("10000")) > 0) {
                     throw new IllegalArgumentException("Balance for a limited account cannot exceed 10000");
                 }
             }
             
-            acc.setBalance(acc.getBalance().add(amount));
+            JournalEntry entry = JournalEntry.of("DEPOSIT", request.getDetails())
+                    .debit(LedgerAccount.BANK_CASH, amount);
+            credit(entry, acc, amount);
             accountRepository.save(acc);
 
             Transaction t = new Transaction();
@@ -187,26 +301,37 @@ public class AccountService {
             t.setDescription(request.getDetails());
             transactionRepository.save(t);
 
+            entry.setTransactionId(t.getId());
+            ledgerService.append(entry);
+
         } else if ("WITHDRAWAL".equalsIgnoreCase(type)) {
             if (fromId == null) {
-                System.err.println("Need account number for withdrawal");
+                log.warn("Need account number for withdrawal");
                 return false;
             }
             
             Optional<Account> accOpt = accountRepository.findById(fromId);
+            if (largeTransaction) {
+                accOpt.ifPresent(acc -> notifyLargeTransaction(acc, amount));
+            }
             if (accOpt.isEmpty()) {
-                System.err.println("Account " + fromId + " not found");
+                log.warn("Account {} not found", fromId);
                 return false;
             }
 
             Account acc = accOpt.get();
+            lockForUpdate(acc, null);
+            if (balanceShardService.isSharded(acc)) {
+                balanceShardService.consolidate(acc, amount);
+            }
             if (acc.getBalance().compareTo(amount) < 0) {
-                System.err.println("Not enough money in account " + fromId + 
-                    ". Need: $" + amount + ", Have: $" + acc.getBalance());
+                log.warn("Not enough money in account {}. Need: ${}, Have: ${}", fromId, amount, acc.getBalance());
                 return false;
             }
 
-            acc.setBalance(acc.getBalance().subtract(amount));
+            JournalEntry entry = JournalEntry.of("WITHDRAWAL", request.getDetails())
+                    .debit(acc, amount)
+                    .credit(LedgerAccount.BANK_CASH, amount);
             accountRepository.save(acc);
 
             Transaction t = new Transaction();
@@ -216,11 +341,63 @@ public class AccountService {
             t.setType("WITHDRAWAL");
             t.setDescription(request.getDetails());
             transactionRepository.save(t);
+
+            entry.setTransactionId(t.getId());
+            ledgerService.append(entry);
         } else {
-            System.err.println("Invalid transaction type: " + type);
+            log.warn("Invalid transaction type: {}", type);
             return false;
         }
 
         return true; // Success
     }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        // Shard credits leave the cached row as it is, so a hot account's credits cause no evictions or NOTIFYs
+        List<Long> rowsChanged = event.accountIds().stream()
+                .filter(id -> !event.shardCreditedIds().contains(id))
+                .toList();
+        cacheInvalidationBus.invalidate(accountCache, rowsChanged);
+    }
+
+    // Cached accounts are shared, so callers only ever see copies
+    private static Account detached(Account account) {
+        if (account == null) {
+            return null;
+        }
+        Account copy = new Account();
+        copy.setId(account.getId());
+        copy.setCustId(account.getCustId());
+        copy.setAccountType(account.getAccountType());
+        copy.setBalanceShards(account.getBalanceShards());
+        copy.setBalance(account.getBalance());
+        return copy;
+    }
+
+    // A credit to a sharded account is an in-place increment of one shard and needs no account lock
+    private void lockForUpdate(Account debited, Account credited) {
+        List<Account> accounts = new ArrayList<>(2);
+        if (debited != null) {
+            accounts.add(debited);
+        }
+        if (credited != null && !balanceShardService.isSharded(credited)) {
+            accounts.add(credited);
+        }
+        accountLockStrategy.lock(accounts);
+    }
+
+    // A sharded account takes credits into one of its balance shards rather than its own row
+    private void credit(JournalEntry entry, Account account, BigDecimal amount) {
+        if (balanceShardService.isSharded(account) && balanceShardService.credit(account, amount)) {
+            entry.creditShard(account, amount);
+        } else {
+            entry.credit(account, amount);
+        }
+    }
+
+    // Large transactions are reported but never blocked
+    private void notifyLargeTransaction(Account from, BigDecimal amount) {
+        notificationService.sendNotification(String.valueOf(from.getCustId()), "A large transaction of " + amount + " was initiated.");
+    }
 } 
\ No newline at end of file
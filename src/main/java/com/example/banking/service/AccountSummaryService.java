@@ -0,0 +1,196 @@
+package com.example.banking.service;
+
+import com.example.banking.model.Account;
+import com.example.banking.model.AccountSummary;
+import com.example.banking.model.Customer;
+import com.example.banking.model.CustomerOverview;
+import com.example.banking.model.RecentTransaction;
+import com.example.banking.repository.AccountBalanceShardRepository;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.AccountSummaryRepository;
+import com.example.banking.repository.CustomerRepository;
+import com.example.banking.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Maintains the account_summary read model and serves the customer overview from it.
+ * Summaries are rebuilt from the source tables rather than patched incrementally, so a refresh
+ * is idempotent and late or duplicate events cannot corrupt them.
+ * <p>
+ * That also means changes can be coalesced: an account has at most one refresh queued at a time, and it
+ * picks up every change committed before it runs. A burst of credits to a hot account costs one or two
+ * refreshes instead of one each.
+ */
+@Service
+public class AccountSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountSummaryService.class);
+
+    @Autowired
+    private AccountSummaryRepository accountSummaryRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private AccountBalanceShardRepository accountBalanceShardRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    @Qualifier("projectionExecutor")
+    private Executor projectionExecutor;
+
+    private final Set<Long> queuedRefreshes = ConcurrentHashMap.newKeySet();
+
+    @Value("${banking.read-model.recent-transactions:10}")
+    private int recentTransactions = 10;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        event.accountIds().forEach(this::queueRefresh);
+    }
+
+    /**
+     * Rebuilds the summaries a migration only seeded, such as the backfill of changeset 5.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshSeededSummaries() {
+        List<Long> seeded = accountSummaryRepository.findAccountIdsNeverRefreshed();
+        if (!seeded.isEmpty()) {
+            log.info("Rebuilding {} account summaries seeded by a migration", seeded.size());
+            seeded.forEach(this::queueRefresh);
+        }
+    }
+
+    private void queueRefresh(long accountId) {
+        if (queuedRefreshes.add(accountId)) {
+            projectionExecutor.execute(() -> refreshQueued(accountId));
+        }
+    }
+
+    private void refreshQueued(long accountId) {
+        // Dequeued before reading, so a change committed while this runs queues the next refresh
+        queuedRefreshes.remove(accountId);
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> refresh(accountId));
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh the summary of account {}", accountId, e);
+        }
+    }
+
+    @Transactional
+    public void refresh(long accountId) {
+        Optional<Account> accOpt = accountRepository.findById(accountId);
+        if (accOpt.isEmpty()) {
+            accountSummaryRepository.findById(accountId).ifPresent(accountSummaryRepository::delete);
+            return;
+        }
+        Account acc = accOpt.get();
+
+        AccountSummary summary = accountSummaryRepository.findById(accountId).orElseGet(AccountSummary::new);
+        summary.setAccountId(accountId);
+        summary.setCustomerId(acc.getCustId());
+        summary.setAccountType(acc.getAccountType());
+        summary.setBalance(acc.getBalanceShards() > 0 ? accountBalanceShardRepository.totalBalance(accountId) : acc.getBalance());
+
+        if (acc.getCustId() != null) {
+            customerRepository.findById(acc.getCustId()).ifPresent(cust -> {
+                summary.setCustomerName(cust.getName());
+                summary.setCustomerLevel(cust.getCustomerLevel());
+            });
+        }
+
+        YearMonth month = YearMonth.now();
+        Date monthStart = Date.from(month.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        summary.setMonthToDateMonth(month.toString());
+        summary.setMonthToDateCredits(transactionRepository.sumCreditsSince(accountId, monthStart));
+        summary.setMonthToDateDebits(transactionRepository.sumDebitsSince(accountId, monthStart));
+
+        summary.setRecentTransactions(transactionRepository
+                .findRecentByAccountId(accountId, PageRequest.of(0, recentTransactions))
+                .stream()
+                .map(RecentTransaction::of)
+                .toList());
+        summary.setUpdatedAt(new Date());
+        accountSummaryRepository.save(summary);
+    }
+
+    /**
+     * Serves the dashboard with a single query against the read model.
+     */
+    @Transactional(readOnly = true)
+    public CustomerOverview getCustomerOverview(long customerId) {
+        List<AccountSummary> summaries = accountSummaryRepository.findByCustomerIdOrderByAccountId(customerId);
+
+        CustomerOverview overview = new CustomerOverview();
+        overview.setCustomerId(customerId);
+        if (summaries.isEmpty()) {
+            // No accounts projected yet; the customer row is still needed for name and level
+            Customer cust = customerRepository.findById(customerId)
+                    .orElseThrow(() -> new NoSuchElementException("Customer " + customerId + " not found"));
+            overview.setCustomerName(cust.getName());
+            overview.setCustomerLevel(cust.getCustomerLevel());
+            return overview;
+        }
+
+        String currentMonth = YearMonth.from(LocalDate.now()).toString();
+        BigDecimal total = BigDecimal.ZERO;
+        List<AccountSummary> accounts = new ArrayList<>(summaries.size());
+        for (AccountSummary summary : summaries) {
+            // Totals belong to a previous month and no activity has refreshed them since
+            accounts.add(currentMonth.equals(summary.getMonthToDateMonth()) ? summary : withEmptyMonth(summary, currentMonth));
+            if (summary.getBalance() != null) {
+                total = total.add(summary.getBalance());
+            }
+        }
+        overview.setCustomerName(summaries.get(0).getCustomerName());
+        overview.setCustomerLevel(summaries.get(0).getCustomerLevel());
+        overview.setTotalBalance(total);
+        overview.setAccounts(accounts);
+        return overview;
+    }
+
+    // A copy, so the managed summary read in this read-only transaction is never changed
+    private static AccountSummary withEmptyMonth(AccountSummary summary, String month) {
+        AccountSummary copy = new AccountSummary();
+        copy.setAccountId(summary.getAccountId());
+        copy.setCustomerId(summary.getCustomerId());
+        copy.setCustomerName(summary.getCustomerName());
+        copy.setCustomerLevel(summary.getCustomerLevel());
+        copy.setAccountType(summary.getAccountType());
+        copy.setBalance(summary.getBalance());
+        copy.setMonthToDateMonth(month);
+        copy.setMonthToDateCredits(BigDecimal.ZERO);
+        copy.setMonthToDateDebits(BigDecimal.ZERO);
+        copy.setRecentTransactions(summary.getRecentTransactions());
+        copy.setUpdatedAt(summary.getUpdatedAt());
+        return copy;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.banking.service;
+
+import com.example.banking.model.Account;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Takes a Postgres transaction-level advisory lock per account, keyed by the account id and released
+ * when the transaction ends. Readers and writers that do not ask for the lock, such as reporting queries
+ * and vacuum, never wait for it, unlike a row lock. The accounts are re-read once every lock is held.
+ * <p>
+ * The single-bigint key space is shared with any other advisory lock taken on the database, so no other
+ * user of advisory locks may key them by account id.
+ */
+@Service
+@ConditionalOnProperty(name = "banking.account-locks.strategy", havingValue = "advisory")
+public class AdvisoryAccountLockStrategy extends TimedAccountLockStrategy {
+
+    @Override
+    protected void acquire(List<Account> ordered) {
+        for (Account account : ordered) {
+            entityManager.createNativeQuery("SELECT 1 FROM pg_advisory_xact_lock(:accountId)")
+                    .setParameter("accountId", account.getId())
+                    .getSingleResult();
+        }
+        for (Account account : ordered) {
+            entityManager.refresh(account);
+        }
+    }
+
+    @Override
+    protected String name() {
+        return "advisory";
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.banking.service;
+
+import com.example.banking.exception.BalanceShardsChangingException;
+import com.example.banking.model.Account;
+import com.example.banking.model.AccountBalanceShard;
+import com.example.banking.repository.AccountBalanceShardRepository;
+import com.example.banking.repository.AccountRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Splits the balance of hot receiving accounts, such as merchant and treasury accounts, into sub-balances
+ * so that concurrent credits do not all queue for the lock on one accounts row. A credit is added to a
+ * random shard; the account balance itself only moves on debits and when shards are folded back into it.
+ * <p>
+ * A debit that the account balance alone cannot cover folds the shards in first. A background job also
+ * folds them periodically, so most debits never have to. Both take the {@link AccountLockStrategy} lock and
+ * then lock the account's shards before touching its balance, which serializes them with each other;
+ * credits only wait for the shard they land on.
+ * <p>
+ * The balance reported to clients is the account balance plus its shards, read in a single statement.
+ */
+@Service
+public class BalanceShardService {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceShardService.class);
+
+    private static final int MAX_CREDIT_ATTEMPTS = 3;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountBalanceShardRepository shardRepository;
+
+    @Autowired
+    private AccountLockStrategy accountLockStrategy;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${banking.hot-accounts.max-shards:64}")
+    private int maxShards = 64;
+
+    @Value("${banking.hot-accounts.fold-enabled:true}")
+    private boolean foldEnabled = true;
+
+    public boolean isSharded(Account account) {
+        return account.getBalanceShards() > 0;
+    }
+
+    public int getMaxShards() {
+        return maxShards;
+    }
+
+    /**
+     * Adds a credit to one of the account's shards. The caller records the posting with
+     * {@link com.example.banking.model.JournalEntry#creditShard}.
+     * <p>
+     * The account is read without a lock, so a concurrent {@link #configure} may have dropped the shard
+     * picked. The update then waits for that on the shard row and changes nothing; the committed shard count
+     * is read again and another shard tried. When sharding was turned off meanwhile the account is locked
+     * and refreshed instead, and the caller credits its balance.
+     *
+     * @return true when the credit went into a shard, false when the caller has to credit the account
+     * @throws BalanceShardsChangingException when the shards kept changing under every attempt
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean credit(Account account, BigDecimal amount) {
+        int shardCount = account.getBalanceShards();
+        for (int attempt = 0; attempt < MAX_CREDIT_ATTEMPTS; attempt++) {
+            if (shardCount == 0) {
+                accountLockStrategy.lock(List.of(account));
+                entityManager.refresh(account);
+                return false;
+            }
+            int shardNo = ThreadLocalRandom.current().nextInt(shardCount);
+            if (shardRepository.addToShard(account.getId(), shardNo, amount) == 1) {
+                return true;
+            }
+            shardCount = accountRepository.findBalanceShardsById(account.getId()).orElse(0);
+            log.debug("Balance shard {} of account {} is gone, retrying over {} shards", shardNo, account.getId(), shardCount);
+        }
+        throw new BalanceShardsChangingException(account.getId());
+    }
+
+    /**
+     * Makes sure the account balance covers the given amount if the shards together can, by folding them in
+     * when it does not. The account is re-read once its shards are locked, as a fold may have moved it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void consolidate(Account account, BigDecimal amount) {
+        List<AccountBalanceShard> shards = lockShards(account);
+        if (account.getBalance().compareTo(amount) < 0) {
+            BigDecimal folded = fold(account, shards);
+            log.debug("Folded {} from the balance shards of account {} to cover a debit of {}", folded, account.getId(), amount);
+        }
+    }
+
+    /**
+     * The account balance plus whatever its shards hold.
+     */
+    public BigDecimal totalBalance(Account account) {
+        return isSharded(account) ? shardRepository.totalBalance(account.getId()) : account.getBalance();
+    }
+
+    /**
+     * The account as clients see it: a sharded account is returned as a copy carrying its total balance,
+     * so the managed entity is never changed.
+     */
+    public Account withTotalBalance(Account account) {
+        if (account == null || !isSharded(account)) {
+            return account;
+        }
+        Account view = new Account();
+        view.setId(account.getId());
+        view.setCustId(account.getCustId());
+        view.setAccountType(account.getAccountType());
+        view.setBalanceShards(account.getBalanceShards());
+        view.setBalance(totalBalance(account));
+        return view;
+    }
+
+    /**
+     * Sets the number of shards credits to the account are spread over; 0 turns sharding off. The existing
+     * shards are folded into the account balance first, so no money moves between accounts.
+     *
+     * @return the account, or null when it does not exist
+     */
+    @Transactional
+    public Account configure(long accountId, int shardCount) {
+        if (shardCount < 0 || shardCount > maxShards) {
+            throw new IllegalArgumentException("Shard count must be between 0 and " + maxShards);
+        }
+        Account account = accountRepository.findById(accountId).orElse(null);
+        if (account == null) {
+            return null;
+        }
+        accountLockStrategy.lock(List.of(account));
+        List<AccountBalanceShard> shards = lockShards(account);
+        fold(account, shards);
+
+        // Shards below the new count are kept, now empty; the rest are dropped or added
+        List<AccountBalanceShard> surplus = new ArrayList<>();
+        for (AccountBalanceShard shard : shards) {
+            if (shard.getShardNo() >= shardCount) {
+                surplus.add(shard);
+            }
+        }
+        shardRepository.deleteAll(surplus);
+        for (int shardNo = shards.size() - surplus.size(); shardNo < shardCount; shardNo++) {
+            entityManager.persist(AccountBalanceShard.empty(accountId, shardNo));
+        }
+        account.setBalanceShards(shardCount);
+        log.info("Account {} now spreads credits over {} balance shards", accountId, shardCount);
+        Account saved = accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountChangedEvent(List.of(accountId)));
+        return saved;
+    }
+
+    @Scheduled(fixedDelayString = "${banking.hot-accounts.fold-interval-ms:5000}")
+    void scheduledFold() {
+        if (foldEnabled) {
+            foldAll();
+        }
+    }
+
+    /**
+     * Folds the credits collected in the shards back into the account balances, one account per transaction.
+     */
+    public void foldAll() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (Long accountId : shardRepository.findAccountIdsWithUnfoldedCredits()) {
+            try {
+                transaction.executeWithoutResult(status -> accountRepository.findById(accountId).ifPresent(account -> {
+                    // Same order as a debit: the account lock first, then its shards
+                    accountLockStrategy.lock(List.of(account));
+                    fold(account, lockShards(account));
+                }));
+            } catch (RuntimeException e) {
+                log.warn("Could not fold the balance shards of account {}", accountId, e);
+            }
+        }
+    }
+
+    private List<AccountBalanceShard> lockShards(Account account) {
+        List<AccountBalanceShard> shards = shardRepository.findByAccountIdForUpdate(account.getId());
+        // The balance may have moved while this waited for the shards
+        entityManager.refresh(account);
+        return shards;
+    }
+
+    // The shards must be locked by the caller
+    private BigDecimal fold(Account account, List<AccountBalanceShard> shards) {
+        BigDecimal folded = BigDecimal.ZERO;
+        for (AccountBalanceShard shard : shards) {
+            folded = folded.add(shard.getBalance());
+            shard.setBalance(BigDecimal.ZERO);
+        }
+        account.setBalance(account.getBalance().add(folded));
+        return folded;
+    }
+}
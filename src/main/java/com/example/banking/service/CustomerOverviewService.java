@@ -0,0 +1,198 @@
+package com.example.banking.service;
+
+import com.example.banking.model.Account;
+import com.example.banking.model.AccountSummary;
+import com.example.banking.model.Customer;
+import com.example.banking.model.CustomerOverview;
+import com.example.banking.model.RecentTransaction;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.AccountBalanceShardRepository;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.CustomerRepository;
+import com.example.banking.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Builds the customer overview straight from the source tables. The customer, the account list and the
+ * recent transactions of each account are independent reads, so they run concurrently and the request
+ * takes as long as the slowest one. Anything not back by the deadline is left out and flagged.
+ * <p>
+ * Abandoning a late part does not stop its query, so every query runs with a statement timeout derived
+ * from the deadline and is skipped if it only gets a thread after the deadline. A part the executor
+ * rejects, or whose query fails, is left out and listed as failed.
+ */
+@Service
+public class CustomerOverviewService {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private AccountBalanceShardRepository accountBalanceShardRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("overviewExecutor")
+    private Executor overviewExecutor;
+
+    @Value("${banking.overview.timeout-ms:500}")
+    private long timeoutMs = 500;
+
+    @Value("${banking.read-model.recent-transactions:10}")
+    private int recentTransactions = 10;
+
+    public CustomerOverview getLiveOverview(long customerId) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+        CompletableFuture<Optional<Customer>> customerFuture =
+                query(() -> customerRepository.findById(customerId), deadline);
+        CompletableFuture<List<Account>> accountsFuture =
+                query(() -> accountRepository.findAccountsByCustomerId(customerId), deadline);
+        // Start each account's transaction query as soon as the account list arrives, without waiting for the customer
+        CompletableFuture<Map<Long, CompletableFuture<List<Transaction>>>> transactionsFuture =
+                accountsFuture.thenApply(accounts -> {
+                    Map<Long, CompletableFuture<List<Transaction>>> perAccount = new LinkedHashMap<>();
+                    for (Account account : accounts) {
+                        perAccount.put(account.getId(), query(() -> transactionRepository
+                                .findRecentByAccountId(account.getId(), PageRequest.of(0, recentTransactions)), deadline));
+                    }
+                    return perAccount;
+                });
+        // Sharded balances need the shards added; one grouped query, also bound by the deadline
+        CompletableFuture<Map<Long, BigDecimal>> shardTotalsFuture =
+                accountsFuture.thenCompose(accounts -> accounts.stream().anyMatch(account -> account.getBalanceShards() > 0)
+                        ? query(() -> shardTotals(accounts), deadline)
+                        : CompletableFuture.completedFuture(Map.of()));
+
+        CustomerOverview overview = new CustomerOverview();
+        overview.setCustomerId(customerId);
+
+        Optional<Customer> customer = await(customerFuture, deadline, "customer", overview);
+        if (customer != null) {
+            Customer cust = customer.orElseThrow(() -> new NoSuchElementException("Customer " + customerId + " not found"));
+            overview.setCustomerName(cust.getName());
+            overview.setCustomerLevel(cust.getCustomerLevel());
+        }
+
+        List<Account> accounts = await(accountsFuture, deadline, "accounts", overview);
+        if (accounts == null) {
+            return overview;
+        }
+        Map<Long, CompletableFuture<List<Transaction>>> perAccount = await(transactionsFuture, deadline, "transactions", overview);
+        Map<Long, BigDecimal> shardTotals = accounts.stream().anyMatch(account -> account.getBalanceShards() > 0)
+                ? await(shardTotalsFuture, deadline, "balances", overview)
+                : Map.of();
+
+        BigDecimal total = BigDecimal.ZERO;
+        List<AccountSummary> summaries = new ArrayList<>();
+        for (Account account : accounts) {
+            AccountSummary summary = new AccountSummary();
+            summary.setAccountId(account.getId());
+            summary.setCustomerId(account.getCustId());
+            summary.setCustomerName(overview.getCustomerName());
+            summary.setCustomerLevel(overview.getCustomerLevel());
+            summary.setAccountType(account.getAccountType());
+            // Left out rather than understated when the shard totals are late
+            BigDecimal balance = account.getBalanceShards() == 0 ? account.getBalance()
+                    : shardTotals == null ? null : shardTotals.get(account.getId());
+            summary.setBalance(balance);
+            if (perAccount != null) {
+                List<Transaction> transactions = await(perAccount.get(account.getId()), deadline,
+                        "transactions:" + account.getId(), overview);
+                if (transactions != null) {
+                    summary.setRecentTransactions(transactions.stream().map(RecentTransaction::of).toList());
+                }
+            }
+            if (balance != null) {
+                total = total.add(balance);
+            }
+            summaries.add(summary);
+        }
+        overview.setAccounts(summaries);
+        overview.setTotalBalance(total);
+        return overview;
+    }
+
+    /**
+     * Runs a read on the overview executor with a statement timeout that ends near the deadline; a
+     * rejected task comes back as a failed future instead of being thrown at the request thread.
+     */
+    private <T> CompletableFuture<T> query(Supplier<T> read, long deadline) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new RejectedExecutionException("Overview deadline passed before the query started");
+                }
+                TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                // Hibernate counts the remaining time in whole seconds and fails once under one, hence the extra
+                // second: a query can outlive the deadline by up to two seconds, but not indefinitely
+                transaction.setTimeout((int) TimeUnit.NANOSECONDS.toSeconds(remaining + TimeUnit.SECONDS.toNanos(2) - 1));
+                return transaction.execute(status -> read.get());
+            }, overviewExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Map<Long, BigDecimal> shardTotals(List<Account> accounts) {
+        List<Long> sharded = accounts.stream()
+                .filter(account -> account.getBalanceShards() > 0)
+                .map(Account::getId)
+                .toList();
+        return accountBalanceShardRepository.totalBalances(sharded).stream()
+                .collect(Collectors.toMap(AccountBalanceShardRepository.AccountTotal::getAccountId,
+                        AccountBalanceShardRepository.AccountTotal::getTotal));
+    }
+
+    /**
+     * Waits for a sub-query until the shared deadline. Returns null and flags the overview as partial
+     * when the part is late or failed; errors from the customer lookup itself are propagated to the caller.
+     */
+    private <T> T await(CompletableFuture<T> future, long deadline, String part, CustomerOverview overview) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return future.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            overview.getTimedOut().add(part);
+        } catch (ExecutionException e) {
+            if ("customer".equals(part) && e.getCause() instanceof RuntimeException cause
+                    && !(cause instanceof RejectedExecutionException)) {
+                throw cause;
+            }
+            overview.getFailed().add(part);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            overview.getTimedOut().add(part);
+        }
+        overview.setPartial(true);
+        return null;
+    }
+}
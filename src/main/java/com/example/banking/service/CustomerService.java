@@ -1,39 +1,114 @@
 package com.example.banking.service;
 
+import com.example.banking.cache.LocalCache;
 import com.example.banking.model.Customer;
 import com.example.banking.model.CustomerCreationRequest;
+import com.example.banking.model.CustomerInsertResult;
 import com.example.banking.repository.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class CustomerService {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private CustomerRepository customerRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private LocalCache<Customer> customerCache;
+
+    @Autowired
+    private HedgedReadExecutor hedgedReadExecutor;
+
     public Customer createCustomer(CustomerCreationRequest request) {
-        if (customerRepository.findByName(request.getName()).isPresent()) {
+        Customer newCustomer = new Customer(request.getName(), request.getEmail(), request.getPhone());
+        // One indexed insert-or-conflict instead of a name lookup followed by a racy insert
+        CustomerInsertResult result = customerRepository.insertIfAbsent(newCustomer);
+        if (!result.created()) {
             throw new IllegalArgumentException("Customer with name " + request.getName() + " already exists.");
         }
-        Customer newCustomer = new Customer(request.getName(), request.getEmail(), request.getPhone());
-        return customerRepository.save(newCustomer);
+        return result.customer();
     }
 
+    /**
+     * Customers are never changed once created, so the cache needs no invalidation yet; whatever starts
+     * changing them must evict through the {@link com.example.banking.cache.CacheInvalidationBus}.
+     * Runs outside a transaction so a cache miss can be hedged.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Customer getCustomer(long id) {
-        return customerRepository.findById(id).get();
+        Customer customer = customerCache.get(id, key -> hedgedReadExecutor.read("customer",
+                () -> customerRepository.findById(key).map(CustomerService::detached).orElse(null)));
+        if (customer == null) {
+            throw new NoSuchElementException("No customer with id " + id);
+        }
+        return detached(customer);
+    }
+
+    /**
+     * Returns the next page of customers after the given id, optionally filtered by level.
+     * The page size is capped at {@link #MAX_PAGE_SIZE} so one request can never load the whole table;
+     * callers clamp it, since they need the effective size to tell whether this is the last page.
+     *
+     * @throws IllegalArgumentException if the limit is below 1 or above {@link #MAX_PAGE_SIZE}
+     */
+    @Transactional(readOnly = true)
+    public List<Customer> getCustomers(Long afterId, int limit, String customerLevel) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ", was " + limit);
+        }
+        long after = afterId == null ? 0L : afterId;
+        PageRequest page = PageRequest.of(0, limit);
+        if (customerLevel == null || customerLevel.isBlank()) {
+            return customerRepository.findByIdGreaterThanOrderByIdAsc(after, page);
+        }
+        return customerRepository.findByCustomerLevelAndIdGreaterThanOrderByIdAsc(customerLevel, after, page);
     }
 
-    public List<Customer> getAllCustomers() {
-        return customerRepository.findAll();
+    /**
+     * Feeds every customer to the consumer from a database cursor. Each row is detached once handed
+     * over, so memory stays flat regardless of the table size.
+     */
+    @Transactional(readOnly = true)
+    public void streamCustomers(String customerLevel, Consumer<Customer> consumer) {
+        try (Stream<Customer> customers = customerLevel == null || customerLevel.isBlank()
+                ? customerRepository.streamAll()
+                : customerRepository.streamByCustomerLevel(customerLevel)) {
+            customers.forEach(customer -> {
+                consumer.accept(customer);
+                entityManager.detach(customer);
+            });
+        }
     }
 
     public Optional<Customer> findByName(String name) {
         return customerRepository.findByName(name);
     }
+
+    // Cached customers are shared, so callers only ever see copies
+    private static Customer detached(Customer customer) {
+        Customer copy = new Customer(customer.getName(), customer.getEmail(), customer.getPhone());
+        copy.setId(customer.getId());
+        copy.setCustomerLevel(customer.getCustomerLevel());
+        copy.setNameNormalized(customer.getNameNormalized());
+        return copy;
+    }
 } 
\ No newline at end of file
@@ -1,13 +1,15 @@
 package com.example.banking.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 public class EmailNotificationService implements NotificationService {
 
+    private static final Logger log = LoggerFactory.getLogger(EmailNotificationService.class);
+
     @Override
     public void sendNotification(String customerId, String message) {
         // In a real application, this would use JavaMail or a third-party service.
-        System.out.println("---");
-        System.out.println("Sending EMAIL to " + customerId);
-        System.out.println("Message: " + message);
-        System.out.println("---");
+        log.info("Sending EMAIL to {}: {}", customerId, message);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,143 @@
+package com.example.banking.service;
+
+import com.example.banking.exception.AccountNotFoundException;
+import com.example.banking.exception.AccountVersionConflictException;
+import com.example.banking.model.AccountAggregate;
+import com.example.banking.model.AccountEvent;
+import com.example.banking.model.AccountSnapshot;
+import com.example.banking.observability.EventStoreAppendEvent;
+import com.example.banking.repository.AccountEventRepository;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.AccountSnapshotRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Alternative persistence for accounts: state is rebuilt from the latest snapshot plus the event tail,
+ * and writes are a single batched append guarded by the (account_id, version) unique key instead of
+ * an UPDATE on the accounts row plus an INSERT into transactions.
+ * <p>
+ * No request path uses this store yet, so it only exists with {@code banking.event-store.enabled=true}.
+ * Accounts have no stream until the first load here, which starts one from the accounts row as it is at
+ * that moment. From then on the store must be the account's only writer: {@link LedgerService} refuses
+ * postings to accounts that have a stream, since the stream would not see them.
+ */
+@Service
+@ConditionalOnProperty(name = "banking.event-store.enabled", havingValue = "true")
+public class EventSourcedAccountStore {
+
+    @Autowired
+    private AccountEventRepository accountEventRepository;
+
+    @Autowired
+    private AccountSnapshotRepository accountSnapshotRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Value("${banking.event-store.snapshot-interval:100}")
+    private int snapshotInterval = 100;
+
+    @PostConstruct
+    void validate() {
+        if (snapshotInterval <= 0) {
+            throw new IllegalStateException("banking.event-store.snapshot-interval must be at least 1");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public AccountAggregate load(long accountId) {
+        AccountAggregate aggregate = accountSnapshotRepository.findFirstByAccountIdOrderByVersionDesc(accountId)
+                .map(AccountAggregate::fromSnapshot)
+                .orElseGet(() -> new AccountAggregate(accountId));
+
+        List<AccountEvent> tail = accountEventRepository
+                .findByAccountIdAndVersionGreaterThanOrderByVersionAsc(accountId, aggregate.getVersion());
+        tail.forEach(aggregate::apply);
+
+        if (aggregate.getVersion() == 0) {
+            // The OPENED event is appended with the first save; a concurrent bootstrap loses on version 1
+            return accountRepository.findById(accountId)
+                    .map(AccountAggregate::bootstrap)
+                    .orElseThrow(() -> new AccountNotFoundException(String.valueOf(accountId)));
+        }
+        return aggregate;
+    }
+
+    /**
+     * Appends the aggregate's uncommitted events on top of the version it was loaded at.
+     *
+     * @throws AccountVersionConflictException if another writer appended to the stream first
+     */
+    @Transactional
+    public void save(AccountAggregate aggregate) {
+        List<AccountEvent> events = aggregate.getUncommittedEvents();
+        if (events.isEmpty()) {
+            return;
+        }
+        long expectedVersion = aggregate.getExpectedVersion();
+        EventStoreAppendEvent appendEvent = new EventStoreAppendEvent();
+        appendEvent.begin();
+        try {
+            accountEventRepository.saveAllAndFlush(events);
+        } catch (DataIntegrityViolationException e) {
+            appendEvent.conflict = true;
+            throw new AccountVersionConflictException(aggregate.getAccountId(), expectedVersion);
+        } finally {
+            appendEvent.end();
+            if (appendEvent.shouldCommit()) {
+                appendEvent.accountId = aggregate.getAccountId();
+                appendEvent.expectedVersion = expectedVersion;
+                appendEvent.eventCount = events.size();
+                appendEvent.commit();
+            }
+        }
+
+        if (expectedVersion / snapshotInterval != aggregate.getVersion() / snapshotInterval) {
+            accountSnapshotRepository.save(snapshotOf(aggregate));
+        }
+        aggregate.markCommitted();
+    }
+
+    @Transactional
+    public void transfer(long fromAccountId, long toAccountId, BigDecimal amount) {
+        AccountAggregate from = load(fromAccountId);
+        AccountAggregate to = load(toAccountId);
+        from.transferOut(toAccountId, amount);
+        to.transferIn(fromAccountId, amount);
+        save(from);
+        save(to);
+    }
+
+    /**
+     * @throws IllegalStateException if any of the accounts is event-sourced and so must not be written elsewhere
+     */
+    @Transactional(readOnly = true)
+    public void requireNotEventSourced(Collection<Long> accountIds) {
+        if (!accountIds.isEmpty() && accountEventRepository.existsByAccountIdIn(accountIds)) {
+            throw new IllegalStateException("Accounts " + accountIds + " include an event-sourced account, which only "
+                    + EventSourcedAccountStore.class.getSimpleName() + " may change");
+        }
+    }
+
+    private AccountSnapshot snapshotOf(AccountAggregate aggregate) {
+        AccountSnapshot snapshot = new AccountSnapshot();
+        snapshot.setAccountId(aggregate.getAccountId());
+        snapshot.setVersion(aggregate.getVersion());
+        snapshot.setBalance(aggregate.getBalance());
+        snapshot.setAccountType(aggregate.getAccountType());
+        snapshot.setCustId(aggregate.getCustId());
+        snapshot.setCreatedAt(new Date());
+        return snapshot;
+    }
+}
@@ -2,12 +2,18 @@ package com.example.banking.service;
 
 import com.example.banking.model.Account;
 import com.example.banking.model.Customer;
+import com.example.banking.model.JournalEntry;
+import com.example.banking.model.LedgerAccount;
 import com.example.banking.model.Transaction;
+import com.example.banking.observability.FeeCalculationEvent;
 import com.example.banking.repository.AccountRepository;
 import com.example.banking.repository.CustomerRepository;
 import com.example.banking.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -19,12 +25,16 @@ import java.util.Optional;
 @Service
 public class FeeCalculationService {
 
+    private static final Logger log = LoggerFactory.getLogger(FeeCalculationService.class);
+
     @Autowired
     private AccountRepository accountRepository;
     @Autowired
     private CustomerRepository customerRepository;
     @Autowired
     private TransactionRepository transactionRepository;
+    @Autowired
+    private LedgerService ledgerService;
 
     /**
      * Checks if a monthly fee was already applied to the account in the current month
@@ -48,38 +58,58 @@ public class FeeCalculationService {
         return !feeTransactions.isEmpty();
     }
 
+    @Transactional
     public String handle(long accountId) {
+        FeeCalculationEvent event = new FeeCalculationEvent();
+        event.begin();
+        event.accountId = accountId;
+        String result = null;
+        try {
+            result = doHandle(accountId, event);
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.result = result;
+                event.commit();
+            }
+        }
+    }
+
+    private String doHandle(long accountId, FeeCalculationEvent event) {
         // Check if monthly fee was already applied this month
         if (isMonthlyFeeAlreadyApplied(accountId)) {
-            String message = "Monthly fee already charged for account " + accountId + " this month.";
-            System.err.println(message);
-            return message;
+            log.info("Monthly fee already charged for account {} this month", accountId);
+            return "Monthly fee already charged for account " + accountId + " this month.";
         }
 
         // High-level step: Get the data
         Optional<Account> accOpt = accountRepository.findById(accountId);
         if (accOpt.isEmpty()) {
-            String message = "Account not found.";
-            System.err.println(message);
-            return message;
+            log.warn("Fee run: account {} not found", accountId);
+            return "Account not found.";
         }
         Account acc = accOpt.get();
 
         Optional<Customer> custOpt = customerRepository.findById(acc.getCustId());
         if (custOpt.isEmpty()) {
-            String message = "Customer not found.";
-            System.err.println(message);
-            return message;
+            log.warn("Fee run: customer {} of account {} not found", acc.getCustId(), accountId);
+            return "Customer not found.";
         }
         Customer cust = custOpt.get();
 
         // Intermediate-level step: Calculate fees
         FeeResult feeResult = new FeeResult();
         calculate(acc, cust.getCustomerLevel(), feeResult);
+        event.customerLevel = cust.getCustomerLevel();
+        event.waived = feeResult.feesWaived;
+        event.feeAmount = feeResult.feeAmount == null ? 0 : feeResult.feeAmount.doubleValue();
 
         // Low-level step: Apply the fees if they are not waived
         if (!feeResult.feesWaived) {
-            acc.setBalance(acc.getBalance().subtract(feeResult.feeAmount));
+            JournalEntry entry = JournalEntry.of("FEE", feeResult.feeDescription)
+                    .debit(acc, feeResult.feeAmount)
+                    .credit(LedgerAccount.BANK_FEE_INCOME, feeResult.feeAmount);
             accountRepository.save(acc);
 
             Transaction t = new Transaction();
@@ -90,13 +120,14 @@ public class FeeCalculationService {
             t.setDescription(feeResult.feeDescription);
             transactionRepository.save(t);
 
-            String message = "Charged $" + feeResult.feeAmount + " fee to account " + accountId + " (" + feeResult.feeDescription + ")";
-            System.out.println(message);
-            return message;
+            entry.setTransactionId(t.getId());
+            ledgerService.append(entry);
+
+            log.info("Charged {} fee to account {} ({})", feeResult.feeAmount, accountId, feeResult.feeDescription);
+            return "Charged $" + feeResult.feeAmount + " fee to account " + accountId + " (" + feeResult.feeDescription + ")";
         } else {
-            String message = "No fee charged for account " + accountId + " (" + feeResult.feeDescription + ")";
-            System.out.println(message);
-            return message;
+            log.info("No fee charged for account {} ({})", accountId, feeResult.feeDescription);
+            return "No fee charged for account " + accountId + " (" + feeResult.feeDescription + ")";
         }
     }
 
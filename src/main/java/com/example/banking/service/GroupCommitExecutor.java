@@ -0,0 +1,235 @@
+package com.example.banking.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Optional group commit: concurrent transactions that arrive within a short window are applied in one
+ * database transaction and committed together, so a burst pays for one commit (and one WAL flush) instead
+ * of one per transaction. Callers are only answered once the shared transaction has committed.
+ * <p>
+ * The first caller of a batch leads it: it waits up to {@code max-wait} or until {@code max-batch} callers
+ * have joined, then runs every item on its own thread while the others wait for their result.
+ * <p>
+ * A failed item must not take the others down with it. Savepoints cannot provide that under JPA: Hibernate
+ * marks the whole transaction rollback-only as soon as an exception leaves a participating
+ * {@code @Transactional} method or a flush fails, and a savepoint rollback does not clear the mark. Instead
+ * the batch is rolled back, the failed item keeps its outcome, and the items that ran before it are applied
+ * again together with the rest. Nothing is committed until every item in the round succeeded, so this costs
+ * one extra round only when something fails. Each item is flushed before the next one starts, so a
+ * constraint violation is attributed to the item that caused it.
+ * <p>
+ * Items run on the leader's thread, so per-request metrics of the other callers do not see their statements,
+ * and an item may run more than once, so side effects outside the database (such as notifications) can repeat.
+ */
+@Service
+public class GroupCommitExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitExecutor.class);
+
+    static final String BATCH_SIZE_METRIC = "banking.group-commit.batch.size";
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    @Value("${banking.group-commit.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${banking.group-commit.max-batch:32}")
+    private int maxBatch = 32;
+
+    @Value("${banking.group-commit.max-wait:1ms}")
+    private Duration maxWait = Duration.ofMillis(1);
+
+    private final Object lock = new Object();
+    private Batch open;
+
+    public <T> T execute(Supplier<T> work) {
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        Item<T> item = new Item<>(work);
+        Batch batch;
+        boolean leader = false;
+        synchronized (lock) {
+            if (open == null) {
+                open = new Batch();
+                leader = true;
+            }
+            batch = open;
+            batch.items.add(item);
+            if (batch.items.size() >= maxBatch) {
+                open = null;
+                lock.notifyAll();
+            }
+        }
+
+        if (leader) {
+            awaitBatch(batch);
+            run(batch.items);
+        }
+        return item.join();
+    }
+
+    private void awaitBatch(Batch batch) {
+        synchronized (lock) {
+            long deadline = System.nanoTime() + maxWait.toNanos();
+            long remaining;
+            while (open == batch && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (open == batch) {
+                open = null;
+            }
+        }
+    }
+
+    private void run(List<Item<?>> items) {
+        try {
+            runRounds(items);
+        } finally {
+            // Leaves no caller waiting forever if a round ended in an Error; settled items are unaffected
+            IllegalStateException aborted = new IllegalStateException("Group commit aborted");
+            items.forEach(item -> item.fail(aborted));
+        }
+    }
+
+    private void runRounds(List<Item<?>> items) {
+        List<Item<?>> remaining = items;
+        while (!remaining.isEmpty()) {
+            List<Item<?>> round = remaining;
+            DistributionSummary.builder(BATCH_SIZE_METRIC)
+                    .description("Transactions applied per group commit round")
+                    .register(meterRegistry)
+                    .record(round.size());
+            List<Item<?>> settled = new ArrayList<>();
+            boolean[] poisoned = {false};
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    for (Item<?> item : round) {
+                        if (!runItem(item, status)) {
+                            // This item failed; roll everything back and run the others again without it
+                            settled.add(item);
+                            poisoned[0] = true;
+                            status.setRollbackOnly();
+                            return;
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                // The commit itself failed, so nothing in this round was applied
+                log.warn("Group commit of {} transactions failed", round.size(), e);
+                round.forEach(item -> item.fail(e));
+                return;
+            }
+
+            if (!poisoned[0]) {
+                round.forEach(Item::complete);
+                return;
+            }
+            settled.forEach(Item::complete);
+            remaining = new ArrayList<>(round);
+            remaining.removeAll(settled);
+            log.info("Group commit rolled back after a failed transaction, re-running {} others", remaining.size());
+        }
+    }
+
+    // Returns false when the item failed or its work left the shared transaction rollback-only
+    private boolean runItem(Item<?> item, TransactionStatus status) {
+        try {
+            item.run();
+            if (status.isRollbackOnly()) {
+                return false;
+            }
+            // Flushing per item pins a constraint violation on the item that caused it, not on the whole batch
+            entityManager.flush();
+            return true;
+        } catch (RuntimeException e) {
+            item.failed(e);
+            return false;
+        }
+    }
+
+    private static final class Batch {
+        private final List<Item<?>> items = new ArrayList<>();
+    }
+
+    private static final class Item<T> {
+        private final Supplier<T> work;
+        private final CompletableFuture<T> outcome = new CompletableFuture<>();
+        private T result;
+        private RuntimeException failure;
+
+        private Item(Supplier<T> work) {
+            this.work = work;
+        }
+
+        private void run() {
+            result = null;
+            failure = null;
+            result = work.get();
+        }
+
+        private void failed(RuntimeException e) {
+            failure = e;
+        }
+
+        private void complete() {
+            if (failure != null) {
+                outcome.completeExceptionally(failure);
+            } else {
+                outcome.complete(result);
+            }
+        }
+
+        private void fail(RuntimeException e) {
+            outcome.completeExceptionally(e);
+        }
+
+        private T join() {
+            try {
+                return outcome.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the group commit", e);
+            }
+        }
+    }
+}
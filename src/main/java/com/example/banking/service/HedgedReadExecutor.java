@@ -0,0 +1,254 @@
+package com.example.banking.service;
+
+import com.example.banking.replication.ReadConsistency;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Optional hedged reads: when a read has not answered within the p95 latency observed for it, a second
+ * attempt is started against another database and whichever answers first is used. This cuts the tail
+ * left by an occasional slow replica or a wait for a pooled connection, at the cost of running some
+ * reads twice.
+ * <p>
+ * Hedges are paid for out of a budget that grows by {@code budget-percent} of a hedge with every read, so
+ * hedging can never add more than that share of load, even when everything is slow at once. Each attempt
+ * runs in its own read-only transaction on the hedging executor; with replicas configured the hedge passes
+ * over the database the first attempt went to. A read that must be served by the primary is hedged on a
+ * second primary connection. The loser is not cancelled, it finishes in the background.
+ * <p>
+ * Attempts run on executor threads, so their statements do not show up in the request's Server-Timing
+ * header.
+ */
+@Service
+public class HedgedReadExecutor {
+
+    static final String HEDGES_METRIC = "banking.hedged-reads";
+
+    private static final long HEDGE_COST = 1000;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("hedgedReadPool")
+    private Executor executor;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    @Value("${banking.hedged-reads.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${banking.hedged-reads.budget-percent:5}")
+    private int budgetPercent = 5;
+
+    @Value("${banking.hedged-reads.max-burst:10}")
+    private int maxBurst = 10;
+
+    @Value("${banking.hedged-reads.min-delay:5ms}")
+    private Duration minDelay = Duration.ofMillis(5);
+
+    @Value("${banking.hedged-reads.min-samples:100}")
+    private int minSamples = 100;
+
+    @Value("${banking.hedged-reads.window:1000}")
+    private int windowSize = 1000;
+
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    // In thousandths of a hedge
+    private final AtomicLong budget = new AtomicLong();
+
+    public <T> T read(String operation, Supplier<T> read) {
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return read.get();
+        }
+        earnBudget();
+        LatencyWindow window = latencies.computeIfAbsent(operation, name -> new LatencyWindow(windowSize));
+        ReadConsistency.Snapshot consistency = ReadConsistency.capture();
+
+        AtomicReference<String> firstTarget = new AtomicReference<>();
+        long start = System.nanoTime();
+        CompletableFuture<T> first;
+        try {
+            first = attempt(read, consistency, firstTarget, null);
+        } catch (RejectedExecutionException e) {
+            // Every hedging thread is busy; no worse than reading without hedging
+            return read.get();
+        }
+        first.whenComplete((result, failure) -> window.record(System.nanoTime() - start));
+
+        Long p95 = window.percentile95(minSamples);
+        if (p95 == null) {
+            return join(first);
+        }
+        try {
+            return first.get(Math.max(p95, minDelay.toNanos()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return hedge(operation, read, consistency, first, firstTarget.get());
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a read", e);
+        }
+    }
+
+    private <T> T hedge(String operation, Supplier<T> read, ReadConsistency.Snapshot consistency,
+                        CompletableFuture<T> first, String firstTarget) {
+        if (!spendBudget()) {
+            count(operation, "skipped");
+            return join(first);
+        }
+        CompletableFuture<T> second;
+        try {
+            second = attempt(read, consistency, new AtomicReference<>(), firstTarget);
+        } catch (RejectedExecutionException e) {
+            budget.addAndGet(HEDGE_COST);
+            count(operation, "skipped");
+            return join(first);
+        }
+
+        // The first success wins; a failure only counts once both attempts have failed
+        CompletableFuture<Winner<T>> winner = new CompletableFuture<>();
+        first.whenComplete((result, failure) -> {
+            if (failure == null) {
+                winner.complete(new Winner<>(result, false));
+            } else {
+                second.whenComplete((ignored, secondFailure) -> {
+                    if (secondFailure != null) {
+                        winner.completeExceptionally(failure);
+                    }
+                });
+            }
+        });
+        second.whenComplete((result, failure) -> {
+            if (failure == null) {
+                winner.complete(new Winner<>(result, true));
+            } else {
+                first.whenComplete((ignored, firstFailure) -> {
+                    if (firstFailure != null) {
+                        winner.completeExceptionally(failure);
+                    }
+                });
+            }
+        });
+        Winner<T> won = join(winner);
+        count(operation, won.hedge() ? "hedge-won" : "first-won");
+        return won.result();
+    }
+
+    private <T> CompletableFuture<T> attempt(Supplier<T> read, ReadConsistency.Snapshot consistency,
+                                             AtomicReference<String> target, String avoided) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return CompletableFuture.supplyAsync(() -> consistency.run(() -> {
+            ReadConsistency.traceRouting(target);
+            if (avoided != null) {
+                ReadConsistency.avoid(avoided);
+            }
+            return readOnly.execute(status -> read.get());
+        }), executor);
+    }
+
+    private void earnBudget() {
+        long cap = maxBurst * HEDGE_COST;
+        budget.getAndUpdate(current -> Math.min(cap, current + budgetPercent * HEDGE_COST / 100));
+    }
+
+    private boolean spendBudget() {
+        while (true) {
+            long current = budget.get();
+            if (current < HEDGE_COST) {
+                return false;
+            }
+            if (budget.compareAndSet(current, current - HEDGE_COST)) {
+                return true;
+            }
+        }
+    }
+
+    private void count(String operation, String outcome) {
+        Counter.builder(HEDGES_METRIC)
+                .description("Reads that outlasted their p95, by whether a hedge was sent and which attempt answered first")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a read", e);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    private record Winner<T>(T result, boolean hedge) {
+    }
+
+    /**
+     * The most recent latencies of one operation. The percentile is recomputed every tenth of a window,
+     * not on every read.
+     */
+    private static final class LatencyWindow {
+        private final long[] samples;
+        private int next;
+        private int count;
+        private int sinceComputed;
+        private Long p95;
+
+        private LatencyWindow(int size) {
+            this.samples = new long[Math.max(size, 1)];
+        }
+
+        private synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+            if (p95 == null || ++sinceComputed >= Math.max(samples.length / 10, 1)) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                p95 = sorted[(int) Math.ceil(count * 0.95) - 1];
+                sinceComputed = 0;
+            }
+        }
+
+        private synchronized Long percentile95(int minSamples) {
+            return count < minSamples ? null : p95;
+        }
+    }
+}
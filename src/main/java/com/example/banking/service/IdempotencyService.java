@@ -0,0 +1,269 @@
+package com.example.banking.service;
+
+import com.example.banking.exception.IdempotencyKeyConflictException;
+import com.example.banking.exception.IdempotencyKeyInProgressException;
+import com.example.banking.exception.IdempotencyKeyReuseException;
+import com.example.banking.model.IdempotencyKey;
+import com.example.banking.model.IdempotentResponse;
+import com.example.banking.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Executes a request at most once per client-supplied idempotency key.
+ * <p>
+ * Responses are recorded in the idempotency_keys table inside the same transaction as the work they
+ * describe, so a retry either finds the committed response or finds nothing and runs the request.
+ * Recently answered keys are also kept in a bounded, time-limited map so retries normally skip the
+ * database. A duplicate that arrives while the first execution is still running on this node waits
+ * for its result; a duplicate on another node loses on the primary key and replays the winner's row.
+ * Inside a shared transaction such as a group commit the loser cannot read that row, so it throws
+ * {@link IdempotencyKeyConflictException} and the caller executes again once the shared transaction is over.
+ * <p>
+ * A request whose transaction rolls back records nothing, so retrying it runs it again. Rows older than
+ * the ttl are purged periodically, so a key can be reused once its retention has passed.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final TypeReference<Map<String, Object>> BODY_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${banking.idempotency.cache-size:10000}")
+    private int cacheSize = 10000;
+
+    @Value("${banking.idempotency.ttl:24h}")
+    private Duration ttl = Duration.ofHours(24);
+
+    @Value("${banking.idempotency.wait-timeout:30s}")
+    private Duration waitTimeout = Duration.ofSeconds(30);
+
+    // Access-ordered so the least recently used key is evicted once the map is full
+    private final Map<String, Completed> recent = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Completed> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    private final ConcurrentHashMap<String, CompletableFuture<Completed>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotentResponse execute(String key, Object request, Supplier<IdempotentResponse> action) {
+        String requestHash = fingerprint(request);
+        while (true) {
+            Completed cached = recentResponse(key);
+            if (cached != null) {
+                return replay(key, requestHash, cached);
+            }
+
+            CompletableFuture<Completed> execution = new CompletableFuture<>();
+            CompletableFuture<Completed> running = inFlight.putIfAbsent(key, execution);
+            if (running != null) {
+                Completed completed = awaitRunning(key, running);
+                if (completed != null) {
+                    return replay(key, requestHash, completed);
+                }
+                // The first execution failed without recording anything; try again ourselves
+                continue;
+            }
+
+            try {
+                Completed completed = executeOnce(key, requestHash, action);
+                execution.complete(completed);
+                return completed.replayed() ? replay(key, requestHash, completed) : completed.response();
+            } catch (RuntimeException e) {
+                execution.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, execution);
+            }
+        }
+    }
+
+    /**
+     * The response to replay for a key this node has answered, waiting first for an execution of it that is
+     * still running here. Empty when the request has to run; callers check this before taking a scheduler
+     * slot so a duplicate never holds one while it waits. {@link #execute} still covers keys that start
+     * running, or were answered by another node, after this check.
+     */
+    public Optional<IdempotentResponse> completedResponse(String key, Object request) {
+        String requestHash = fingerprint(request);
+        Completed completed = recentResponse(key);
+        if (completed == null) {
+            CompletableFuture<Completed> running = inFlight.get(key);
+            completed = running == null ? null : awaitRunning(key, running);
+        }
+        return Optional.ofNullable(completed).map(done -> replay(key, requestHash, done));
+    }
+
+    /**
+     * Deletes recorded keys older than the ttl, which only ever grow otherwise.
+     */
+    @Scheduled(fixedDelayString = "${banking.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        Date cutoff = new Date(System.currentTimeMillis() - ttl.toMillis());
+        int deleted = new TransactionTemplate(transactionManager).execute(
+                status -> idempotencyKeyRepository.deleteCreatedBefore(cutoff));
+        if (deleted > 0) {
+            log.info("Purged {} idempotency keys recorded before {}", deleted, cutoff.toInstant());
+        }
+    }
+
+    private Completed executeOnce(String key, String requestHash, Supplier<IdempotentResponse> action) {
+        Optional<IdempotencyKey> stored = idempotencyKeyRepository.findById(key);
+        if (stored.isPresent()) {
+            return remember(key, fromRow(stored.get(), true));
+        }
+
+        boolean shared = TransactionSynchronizationManager.isActualTransactionActive();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Completed completed;
+        try {
+            completed = transaction.execute(status -> {
+                IdempotentResponse response = action.get();
+                if (status.isRollbackOnly()) {
+                    // The work failed and will not commit, so there is nothing to record against the key
+                    status.setRollbackOnly();
+                    return new Completed(requestHash, response, false, false);
+                }
+                idempotencyKeyRepository.saveAndFlush(toRow(key, requestHash, response));
+                if (!status.isNewTransaction()) {
+                    // Part of a larger transaction such as a group commit: only share the response once that
+                    // commits. Until then a duplicate blocks on the uncommitted row and learns the outcome there.
+                    Completed committed = new Completed(requestHash, response, true, false);
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            remember(key, committed);
+                        }
+                    });
+                    return new Completed(requestHash, response, false, false);
+                }
+                return new Completed(requestHash, response, true, false);
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (shared) {
+                // The shared transaction is aborted, so the winner's row can only be read after it has ended
+                throw new IdempotencyKeyConflictException(key, e);
+            }
+            // Another node committed the same key first; our transaction, ledger change included, rolled back
+            log.info("Idempotency key {} was recorded concurrently, replaying the stored response", key);
+            IdempotencyKey winner = idempotencyKeyRepository.findById(key).orElseThrow(() -> e);
+            return remember(key, fromRow(winner, true));
+        }
+        return completed.recorded() ? remember(key, completed) : completed;
+    }
+
+    private Completed awaitRunning(String key, CompletableFuture<Completed> running) {
+        try {
+            Completed completed = running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return completed.recorded() ? completed : null;
+        } catch (ExecutionException e) {
+            return null;
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key);
+        }
+    }
+
+    private IdempotentResponse replay(String key, String requestHash, Completed completed) {
+        if (!completed.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReuseException(key);
+        }
+        return completed.response().asReplay();
+    }
+
+    private Completed recentResponse(String key) {
+        synchronized (recent) {
+            Completed completed = recent.get(key);
+            if (completed != null && System.nanoTime() - completed.storedAt() > ttl.toNanos()) {
+                recent.remove(key);
+                return null;
+            }
+            return completed;
+        }
+    }
+
+    private Completed remember(String key, Completed completed) {
+        synchronized (recent) {
+            recent.put(key, completed);
+        }
+        return completed;
+    }
+
+    private IdempotencyKey toRow(String key, String requestHash, IdempotentResponse response) {
+        IdempotencyKey row = new IdempotencyKey();
+        row.setKey(key);
+        row.setRequestHash(requestHash);
+        row.setStatusCode(response.status());
+        try {
+            row.setResponseBody(objectMapper.writeValueAsString(response.body()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the response for idempotency key " + key, e);
+        }
+        row.setCreatedAt(new Date());
+        return row;
+    }
+
+    private Completed fromRow(IdempotencyKey row, boolean replayed) {
+        try {
+            Map<String, Object> body = row.getResponseBody() == null ? null : objectMapper.readValue(row.getResponseBody(), BODY_TYPE);
+            return new Completed(row.getRequestHash(), new IdempotentResponse(row.getStatusCode(), body), true, replayed);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read the stored response for idempotency key " + row.getKey(), e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint the request", e);
+        }
+    }
+
+    private record Completed(String requestHash, IdempotentResponse response, boolean recorded, boolean replayed, long storedAt) {
+        Completed(String requestHash, IdempotentResponse response, boolean recorded, boolean replayed) {
+            this(requestHash, response, recorded, replayed, System.nanoTime());
+        }
+    }
+}
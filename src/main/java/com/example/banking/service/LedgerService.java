@@ -0,0 +1,88 @@
+package com.example.banking.service;
+
+import com.example.banking.exception.UnbalancedJournalEntryException;
+import com.example.banking.model.Account;
+import com.example.banking.model.JournalEntry;
+import com.example.banking.model.LedgerAccount;
+import com.example.banking.model.Posting;
+import com.example.banking.repository.AccountBalanceShardRepository;
+import com.example.banking.repository.JournalEntryRepository;
+import com.example.banking.repository.PostingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+@Service
+public class LedgerService {
+
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+
+    @Autowired
+    private PostingRepository postingRepository;
+
+    @Autowired
+    private AccountBalanceShardRepository shardRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Only present when the event store is enabled
+    @Autowired(required = false)
+    private EventSourcedAccountStore eventSourcedAccountStore;
+
+    /**
+     * Appends a balanced journal entry. The entry and its postings are inserted in one batch and must
+     * share the caller's transaction with the balance projection update.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public JournalEntry append(JournalEntry entry) {
+        if (!entry.isBalanced()) {
+            throw new UnbalancedJournalEntryException(entry.getType());
+        }
+        if (entry.getCreatedAt() == null) {
+            entry.setCreatedAt(new Date());
+        }
+        JournalEntry saved = journalEntryRepository.save(entry);
+
+        Set<Long> accountIds = new LinkedHashSet<>();
+        Set<Long> rowsChanged = new LinkedHashSet<>();
+        for (Posting posting : entry.getPostings()) {
+            if (posting.getLedgerAccount() == LedgerAccount.CUSTOMER && posting.getAccountId() != null) {
+                accountIds.add(posting.getAccountId());
+                // Shard credits carry no running balance: the accounts row was not touched
+                if (posting.getBalanceAfter() != null) {
+                    rowsChanged.add(posting.getAccountId());
+                }
+            }
+        }
+        if (eventSourcedAccountStore != null) {
+            eventSourcedAccountStore.requireNotEventSourced(accountIds);
+        }
+        Set<Long> shardCredited = new LinkedHashSet<>(accountIds);
+        shardCredited.removeAll(rowsChanged);
+        eventPublisher.publishEvent(new AccountChangedEvent(accountIds, shardCredited));
+        return saved;
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getLedgerBalance(long accountId) {
+        return postingRepository.sumByAccountId(accountId);
+    }
+
+    /**
+     * Checks the stored balance of the account, plus its balance shards, against the sum of its postings.
+     * Shard credits are posted before they are folded into accounts.balance, so the balance alone lags.
+     */
+    @Transactional(readOnly = true)
+    public boolean isReconciled(Account account) {
+        return getLedgerBalance(account.getId()).compareTo(shardRepository.totalBalance(account.getId())) == 0;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.banking.service;
+
+import com.example.banking.model.Account;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+
+/**
+ * Takes no lock, which is how transactions ran before the lock strategies existed: concurrent writers of
+ * the same account can overwrite each other's balance. This is the default, and the baseline the other
+ * strategies are measured against.
+ */
+@Service
+@ConditionalOnProperty(name = "banking.account-locks.strategy", havingValue = "none", matchIfMissing = true)
+public class NoAccountLockStrategy implements AccountLockStrategy {
+
+    @Override
+    public void lock(Collection<Account> accounts) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.banking.service;
+
+import com.example.banking.model.Account;
+import jakarta.persistence.LockModeType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Locks the accounts rows themselves: each account is re-read with SELECT ... FOR UPDATE, which locks it
+ * and refreshes its state in one statement.
+ */
+@Service
+@ConditionalOnProperty(name = "banking.account-locks.strategy", havingValue = "row")
+public class RowAccountLockStrategy extends TimedAccountLockStrategy {
+
+    @Override
+    protected void acquire(List<Account> ordered) {
+        for (Account account : ordered) {
+            entityManager.refresh(account, LockModeType.PESSIMISTIC_WRITE);
+        }
+    }
+
+    @Override
+    protected String name() {
+        return "row";
+    }
+}
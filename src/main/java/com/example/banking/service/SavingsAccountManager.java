@@ -1,25 +1,30 @@
 package com.example.banking.service;
 
 import com.example.banking.model.Account;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.math.BigDecimal;
 
 public class SavingsAccountManager implements AccountOperations {
 
+    private static final Logger log = LoggerFactory.getLogger(SavingsAccountManager.class);
+
     private static final BigDecimal INTEREST_RATE = new BigDecimal("0.02");
 
     @Override
     public void performDeposit(Account account, BigDecimal amount) {
         account.setBalance(account.getBalance().add(amount));
-        System.out.println("Deposited " + amount + " into Savings Account " + account.getId());
+        log.info("Deposited {} into Savings Account {}", amount, account.getId());
     }
 
     @Override
     public void performWithdrawal(Account account, BigDecimal amount) {
         if (account.getBalance().compareTo(amount) >= 0) {
             account.setBalance(account.getBalance().subtract(amount));
-            System.out.println("Withdrew " + amount + " from Savings Account " + account.getId());
+            log.info("Withdrew {} from Savings Account {}", amount, account.getId());
         } else {
-            System.out.println("Insufficient funds for withdrawal from Savings Account " + account.getId());
+            log.warn("Insufficient funds for withdrawal from Savings Account {}", account.getId());
         }
     }
 
@@ -27,7 +32,7 @@ public class SavingsAccountManager implements AccountOperations {
     public void applyInterest(Account account) {
         BigDecimal interest = account.getBalance().multiply(INTEREST_RATE);
         account.setBalance(account.getBalance().add(interest));
-        System.out.println("Applied interest of " + interest + " to Savings Account " + account.getId());
+        log.info("Applied interest of {} to Savings Account {}", interest, account.getId());
     }
 
     @Override
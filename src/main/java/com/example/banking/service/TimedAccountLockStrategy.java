@@ -0,0 +1,102 @@
+package com.example.banking.service;
+
+import com.example.banking.exception.AccountLockTimeoutException;
+import com.example.banking.model.Account;
+import com.example.banking.observability.AccountLockWaitEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PessimisticLockException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Shared part of the Postgres lock strategies: ordering, the lock wait timeout, the wait-time metric and
+ * the {@link AccountLockWaitEvent}.
+ * <p>
+ * The timeout is Postgres' {@code lock_timeout}, set for the rest of the transaction, so it bounds any later
+ * lock wait in the same transaction as well. A lock that times out aborts the transaction, which is then
+ * rolled back and reported as {@link AccountLockTimeoutException}.
+ */
+abstract class TimedAccountLockStrategy implements AccountLockStrategy {
+
+    static final String LOCK_WAIT_METRIC = "banking.account-locks.wait";
+
+    @PersistenceContext
+    protected EntityManager entityManager;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    @Value("${banking.account-locks.timeout:2s}")
+    private Duration timeout = Duration.ofSeconds(2);
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lock(Collection<Account> accounts) {
+        List<Account> ordered = accounts.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted(Comparator.comparing(Account::getId))
+                .toList();
+        if (ordered.isEmpty()) {
+            return;
+        }
+
+        AccountLockWaitEvent event = new AccountLockWaitEvent();
+        event.begin();
+        String outcome = AccountLockWaitEvent.FAILED;
+        long start = System.nanoTime();
+        try {
+            entityManager.createNativeQuery("SELECT set_config('lock_timeout', :timeout, true)")
+                    .setParameter("timeout", timeout.toMillis() + "ms")
+                    .getSingleResult();
+            acquire(ordered);
+            outcome = AccountLockWaitEvent.ACQUIRED;
+        } catch (LockTimeoutException | PessimisticLockException e) {
+            outcome = AccountLockWaitEvent.TIMEOUT;
+            record(start, "timeout");
+            throw new AccountLockTimeoutException(ordered.stream().map(Account::getId).toList(), timeout);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.strategy = name();
+                event.accountIds = ordered.stream().map(account -> String.valueOf(account.getId()))
+                        .collect(Collectors.joining(","));
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+        record(start, "acquired");
+    }
+
+    /**
+     * Locks the accounts, already in ascending id order, and reloads their state.
+     */
+    protected abstract void acquire(List<Account> ordered);
+
+    protected abstract String name();
+
+    private void record(long start, String outcome) {
+        Timer.builder(LOCK_WAIT_METRIC)
+                .description("Time spent acquiring account locks")
+                .tag("strategy", name())
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.banking.service;
+
+import com.example.banking.model.ProcessTransactionRequest;
+
+/**
+ * Queue a transaction waits in for an execution slot of the {@link TransactionScheduler}.
+ */
+public enum TransactionLane {
+    // Flagged by the client as latency sensitive
+    PRIORITY,
+    // Synchronous requests, where a client connection is waiting on the answer
+    STANDARD,
+    // Asynchronous submissions, which are polled for and can tolerate queueing
+    BULK;
+
+    public static TransactionLane of(ProcessTransactionRequest request, boolean async) {
+        if (request.isPriority()) {
+            return PRIORITY;
+        }
+        return async ? BULK : STANDARD;
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.banking.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Admits transactions into a fixed number of execution slots. When every slot is busy, transactions wait
+ * in a queue per {@link TransactionLane} and each freed slot goes to the lane picked by smooth weighted
+ * round robin, so with weights 8/3/1 a saturated bulk lane gets one slot in twelve and a priority transfer
+ * waits for at most a few completions instead of the whole backlog.
+ * <p>
+ * Synchronous callers wait on their own thread and run the work there once admitted, so thread-bound
+ * state such as request metrics and SQL tags keeps working. Asynchronous work waits in the lane queue
+ * without holding a thread and is handed to the carrier executor when its slot is granted. Both count
+ * against the lane's queue capacity, and a synchronous caller gives up after the admission timeout, so
+ * a backlog turns into rejections rather than an unbounded number of parked request threads.
+ * <p>
+ * Admission happens before any transaction is opened, so waiting never holds a database connection.
+ * <p>
+ * On shutdown the scheduler stops admitting new work and lets everything already queued or running finish,
+ * for up to the drain timeout, so transactions accepted with 202 are not dropped by a rolling deploy.
+ */
+@Service
+public class TransactionScheduler implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionScheduler.class);
+
+    static final String QUEUE_LATENCY_METRIC = "banking.transactions.queue.latency";
+    static final String QUEUE_DEPTH_METRIC = "banking.transactions.queue.depth";
+
+    @Autowired
+    @Qualifier("transactionSubmissionExecutor")
+    private Executor carrierExecutor;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    @Value("${banking.transactions.scheduler.concurrency:8}")
+    private int concurrency = 8;
+
+    @Value("${banking.transactions.scheduler.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    @Value("${banking.transactions.scheduler.admission-timeout:5s}")
+    private Duration admissionTimeout = Duration.ofSeconds(5);
+
+    @Value("${banking.transactions.scheduler.drain-timeout:30s}")
+    private Duration drainTimeout = Duration.ofSeconds(30);
+
+    @Value("${banking.transactions.scheduler.weight.priority:8}")
+    private int priorityWeight = 8;
+
+    @Value("${banking.transactions.scheduler.weight.standard:3}")
+    private int standardWeight = 3;
+
+    @Value("${banking.transactions.scheduler.weight.bulk:1}")
+    private int bulkWeight = 1;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition idle = lock.newCondition();
+    private final Map<TransactionLane, Lane> lanes = new EnumMap<>(TransactionLane.class);
+    private int running;
+    private boolean draining;
+    private volatile boolean started;
+
+    public TransactionScheduler() {
+        for (TransactionLane lane : TransactionLane.values()) {
+            lanes.put(lane, new Lane(lane));
+        }
+    }
+
+    @PostConstruct
+    void registerGauges() {
+        for (Lane lane : lanes.values()) {
+            Gauge.builder(QUEUE_DEPTH_METRIC, lane, Lane::depth)
+                    .description("Transactions waiting for an execution slot")
+                    .tag("lane", lane.name.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void start() {
+        lock.lock();
+        try {
+            draining = false;
+            started = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops admitting and waits until the queued and running transactions have finished, or the drain
+     * timeout has passed.
+     */
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            draining = true;
+            long remaining = drainTimeout.toNanos();
+            while ((running > 0 || !nothingWaiting()) && remaining > 0) {
+                try {
+                    remaining = idle.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (running > 0 || !nothingWaiting()) {
+                log.warn("Shutting down with {} transactions running and {} queued after waiting {}",
+                        running, lanes.values().stream().mapToInt(lane -> lane.waiting.size()).sum(), drainTimeout);
+            }
+            started = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return started;
+    }
+
+    /**
+     * Waits for a slot in the given lane, then runs the work on the calling thread.
+     *
+     * @throws RejectedExecutionException when the lane's queue is full or no slot was granted within the
+     *                                    admission timeout; the work has not run
+     */
+    public <T> T execute(TransactionLane lane, Supplier<T> work) {
+        admit(lanes.get(lane));
+        try {
+            return work.get();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Queues the work in the given lane; it runs on the carrier executor once a slot is granted.
+     *
+     * @throws RejectedExecutionException when the lane's queue is full or the scheduler is shutting down
+     */
+    public void submit(TransactionLane lane, Runnable work) {
+        Lane target = lanes.get(lane);
+        lock.lock();
+        try {
+            requireAccepting();
+            requireQueueSpace(target);
+            target.waiting.add(new Ticket(target, work, null));
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void admit(Lane lane) {
+        lock.lock();
+        try {
+            requireAccepting();
+            if (running < concurrency && nothingWaiting()) {
+                running++;
+                lane.recordWait(0);
+                return;
+            }
+            requireQueueSpace(lane);
+            Ticket ticket = new Ticket(lane, null, lock.newCondition());
+            lane.waiting.add(ticket);
+            long remaining = admissionTimeout.toNanos();
+            boolean interrupted = false;
+            while (!ticket.admitted && remaining > 0) {
+                try {
+                    remaining = ticket.granted.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    // Keep waiting like before; the caller sees the flag once it has its answer
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (!ticket.admitted) {
+                lane.waiting.remove(ticket);
+                throw new RejectedExecutionException("No " + lane.name + " slot was free within " + admissionTimeout);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held
+    private void requireAccepting() {
+        if (draining) {
+            throw new RejectedExecutionException("The transaction scheduler is shutting down");
+        }
+    }
+
+    // Called with the lock held
+    private void requireQueueSpace(Lane lane) {
+        if (lane.waiting.size() >= queueCapacity) {
+            throw new RejectedExecutionException("The " + lane.name + " lane already has " + queueCapacity + " queued transactions");
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            running--;
+            dispatch();
+            if (running == 0 && nothingWaiting()) {
+                idle.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held
+    private void dispatch() {
+        while (running < concurrency) {
+            Ticket next = selectNext();
+            if (next == null) {
+                return;
+            }
+            running++;
+            next.lane.recordWait(System.nanoTime() - next.enqueuedAt);
+            if (next.asyncWork != null) {
+                Runnable work = next.asyncWork;
+                try {
+                    carrierExecutor.execute(() -> {
+                        try {
+                            work.run();
+                        } finally {
+                            release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // Only happens while the carrier shuts down; give the slot back so waiting callers still run
+                    running--;
+                    log.warn("Dropped a queued {} transaction, the carrier executor rejected it", next.lane.name, e);
+                }
+            } else {
+                next.admitted = true;
+                next.granted.signal();
+            }
+        }
+    }
+
+    // Smooth weighted round robin over the lanes that have something waiting
+    private Ticket selectNext() {
+        Lane best = null;
+        int totalWeight = 0;
+        for (Lane lane : lanes.values()) {
+            if (lane.waiting.isEmpty()) {
+                continue;
+            }
+            int weight = weightOf(lane.name);
+            lane.currentWeight += weight;
+            totalWeight += weight;
+            if (best == null || lane.currentWeight > best.currentWeight) {
+                best = lane;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        best.currentWeight -= totalWeight;
+        return best.waiting.poll();
+    }
+
+    private boolean nothingWaiting() {
+        for (Lane lane : lanes.values()) {
+            if (!lane.waiting.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int weightOf(TransactionLane lane) {
+        return switch (lane) {
+            case PRIORITY -> priorityWeight;
+            case STANDARD -> standardWeight;
+            case BULK -> bulkWeight;
+        };
+    }
+
+    private final class Lane {
+        private final TransactionLane name;
+        private final ArrayDeque<Ticket> waiting = new ArrayDeque<>();
+        private int currentWeight;
+        private Timer queueLatency;
+
+        private Lane(TransactionLane name) {
+            this.name = name;
+        }
+
+        // Read by the gauge without the lock; a slightly stale size is fine for a metric
+        private double depth() {
+            return waiting.size();
+        }
+
+        private void recordWait(long nanos) {
+            if (queueLatency == null) {
+                queueLatency = Timer.builder(QUEUE_LATENCY_METRIC)
+                        .description("Time transactions waited for an execution slot")
+                        .tag("lane", name.name().toLowerCase())
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry);
+            }
+            queueLatency.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static final class Ticket {
+        private final Lane lane;
+        private final Runnable asyncWork;
+        private final Condition granted;
+        private final long enqueuedAt = System.nanoTime();
+        private boolean admitted;
+
+        private Ticket(Lane lane, Runnable asyncWork, Condition granted) {
+            this.lane = lane;
+            this.asyncWork = asyncWork;
+            this.granted = granted;
+        }
+    }
+}
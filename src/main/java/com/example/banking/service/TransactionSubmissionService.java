@@ -0,0 +1,112 @@
+package com.example.banking.service;
+
+import com.example.banking.model.IdempotentResponse;
+import com.example.banking.model.TransactionSubmission;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Queues transactions with the {@link TransactionScheduler} and tracks their progress under an opaque handle, so the request
+ * thread can answer 202 straight away and the client polls for the outcome.
+ * <p>
+ * Handles live in memory on the node that accepted the submission. Finished entries are kept for the
+ * configured retention and the oldest finished entries make room once the tracker is full; queued and
+ * running entries are never dropped. On shutdown the scheduler finishes the accepted work before the node
+ * goes away; the handles go with it, so a client polling another node afterwards gets 404 and should look
+ * the outcome up with its Idempotency-Key.
+ */
+@Service
+public class TransactionSubmissionService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionSubmissionService.class);
+
+    @Autowired
+    private TransactionScheduler transactionScheduler;
+
+    @Value("${banking.transactions.async.retention:1h}")
+    private Duration retention = Duration.ofHours(1);
+
+    @Value("${banking.transactions.async.max-tracked:10000}")
+    private int maxTracked = 10000;
+
+    // Insertion-ordered, so iteration visits the oldest submissions first
+    private final Map<String, TransactionSubmission> submissions = new LinkedHashMap<>();
+
+    /**
+     * @throws RejectedExecutionException when the lane's queue is full
+     */
+    public TransactionSubmission submit(TransactionLane lane, Supplier<IdempotentResponse> work) {
+        TransactionSubmission submission = TransactionSubmission.queued(UUID.randomUUID().toString());
+        String handle = submission.handle();
+        track(submission);
+        try {
+            transactionScheduler.submit(lane, () -> run(handle, work));
+        } catch (RejectedExecutionException e) {
+            synchronized (submissions) {
+                submissions.remove(handle);
+            }
+            throw e;
+        }
+        return submission;
+    }
+
+    public Optional<TransactionSubmission> getStatus(String handle) {
+        synchronized (submissions) {
+            return Optional.ofNullable(submissions.get(handle));
+        }
+    }
+
+    private void run(String handle, Supplier<IdempotentResponse> work) {
+        update(handle, TransactionSubmission::processing);
+        try {
+            IdempotentResponse response = work.get();
+            update(handle, submission -> submission.completed(response));
+        } catch (RuntimeException e) {
+            log.error("Submitted transaction {} failed", handle, e);
+            update(handle, submission -> submission.failed(e.getMessage()));
+        }
+    }
+
+    private void track(TransactionSubmission submission) {
+        synchronized (submissions) {
+            evictFinished();
+            submissions.put(submission.handle(), submission);
+        }
+    }
+
+    private void update(String handle, UnaryOperator<TransactionSubmission> change) {
+        synchronized (submissions) {
+            submissions.computeIfPresent(handle, (key, submission) -> change.apply(submission));
+        }
+    }
+
+    private void evictFinished() {
+        Instant expiry = Instant.now().minus(retention);
+        Iterator<TransactionSubmission> oldestFirst = submissions.values().iterator();
+        while (oldestFirst.hasNext()) {
+            TransactionSubmission submission = oldestFirst.next();
+            if (!submission.isFinished()) {
+                continue;
+            }
+            if (submissions.size() < maxTracked && !submission.completedAt().isBefore(expiry)) {
+                // Everything after this was submitted later; in-flight entries skipped above are bounded by the pool queue
+                return;
+            }
+            oldestFirst.remove();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.banking.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimitTest {
+
+    @Test
+    void admitsUpToTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 3, 6, 0.9, 1000);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+
+        limit.release();
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void growsWhileLatencyStaysAtItsMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 50, 3, 6, 0.9, 1000);
+
+        for (int i = 0; i < 5; i++) {
+            fillAndRelease(limit, millis(10));
+        }
+
+        assertTrue(limit.getLimit() > 10);
+    }
+
+    @Test
+    void shrinksWhenLatencyShowsRequestsQueueing() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 50, 3, 6, 0.9, 1000);
+        fillAndRelease(limit, millis(10));
+        int before = limit.getLimit();
+
+        // Five times the baseline: most of each request was spent waiting
+        for (int i = 0; i < 5; i++) {
+            fillAndRelease(limit, millis(50));
+        }
+
+        assertTrue(limit.getLimit() < before);
+    }
+
+    @Test
+    void serverErrorCutsTheLimitButNotBelowTheMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 15, 50, 3, 6, 0.5, 1000);
+
+        limit.tryAcquire();
+        limit.release(millis(10), true);
+        assertEquals(15, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void doesNotGrowWhileMostlyIdle() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 50, 3, 6, 0.9, 1000);
+
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.release(millis(10), false);
+        }
+
+        assertEquals(20, limit.getLimit());
+    }
+
+    private static void fillAndRelease(AdaptiveConcurrencyLimit limit, long latencyNanos) {
+        int admitted = 0;
+        while (limit.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limit.release(latencyNanos, false);
+        }
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.banking.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 10, 3, 6, 0.5, 1000);
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limit, Duration.ofSeconds(2),
+            new ObjectMapper(), meterRegistry);
+
+    @Test
+    void requestOverTheLimitIsTurnedAwayWithRetryAfter() throws Exception {
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        FilterChain chain = (request, response) -> {
+            // A second request arrives while the only slot is taken
+            MockHttpServletResponse rejected = new MockHttpServletResponse();
+            filter.doFilter(get(), rejected, (req, res) -> {
+                throw new AssertionError("must not be served");
+            });
+            nested.set(rejected);
+        };
+
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(get(), admitted, chain);
+
+        assertEquals(200, admitted.getStatus());
+        assertEquals(503, nested.get().getStatus());
+        assertEquals("2", nested.get().getHeader("Retry-After"));
+        assertTrue(nested.get().getContentAsString().contains("OVERLOADED"));
+        assertEquals(1, meterRegistry.counter(ConcurrencyLimitFilter.REJECTED_METRIC).count());
+        assertEquals(0, limit.getInFlight());
+        assertEquals(limit.getLimit(), meterRegistry.get(ConcurrencyLimitFilter.LIMIT_METRIC).gauge().value());
+    }
+
+    @Test
+    void serverErrorsAreTreatedAsOverload() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 10, 3, 6, 0.5, 1000);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limit, Duration.ofSeconds(1), new ObjectMapper(),
+                new SimpleMeterRegistry());
+
+        filter.doFilter(get(), new MockHttpServletResponse(), (request, response) ->
+                ((MockHttpServletResponse) response).setStatus(503));
+
+        assertEquals(4, limit.getLimit());
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/api/v1/accounts/1");
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.banking.admission;
+
+import com.example.banking.cluster.ForwardingCredentials;
+import com.example.banking.cluster.ReplicaForwarder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ForwardingCredentials credentials = credentials();
+    // Refills far slower than the tests run, so only the burst capacity counts
+    private final RateLimitFilter filter = new RateLimitFilter(Map.of(
+            EndpointGroup.TRANSFERS, new RateLimitFilter.Quota(2, 0.001),
+            EndpointGroup.HISTORY, new RateLimitFilter.Quota(1, 0.001)),
+            "X-API-Key", Set.of("partner", "other"), credentials, new ObjectMapper(), meterRegistry);
+    private final AtomicInteger served = new AtomicInteger();
+    private final FilterChain chain = (request, response) -> served.incrementAndGet();
+
+    @Test
+    void clientOverItsQuotaGets429WithHeaders() throws Exception {
+        send(history("partner"));
+        MockHttpServletResponse refused = send(history("partner"));
+
+        assertEquals(1, served.get());
+        assertEquals(429, refused.getStatus());
+        assertEquals("1", refused.getHeader(RateLimitFilter.LIMIT_HEADER));
+        assertEquals("0", refused.getHeader(RateLimitFilter.REMAINING_HEADER));
+        assertTrue(Long.parseLong(refused.getHeader("Retry-After")) >= 1);
+        assertTrue(refused.getContentAsString().contains("RATE_LIMITED"));
+        assertEquals(1, meterRegistry.get(RateLimitFilter.REJECTED_METRIC).tag("group", "history").counter().count());
+    }
+
+    @Test
+    void noisyClientDoesNotStarveOtherClientsOrGroups() throws Exception {
+        send(history("partner"));
+        send(history("partner"));
+
+        assertEquals(200, send(history("other")).getStatus());
+        MockHttpServletResponse transfer = send(transfer("partner"));
+        assertEquals(200, transfer.getStatus());
+        assertEquals("1", transfer.getHeader(RateLimitFilter.REMAINING_HEADER));
+        assertEquals(3, served.get());
+    }
+
+    @Test
+    void clientsWithoutKeyAreTrackedByAddressIncludingForwardedOnes() throws Exception {
+        MockHttpServletRequest direct = history(null);
+        direct.setRemoteAddr("203.0.113.7");
+        MockHttpServletRequest forwarded = history(null);
+        forwarded.setRemoteAddr("10.0.0.2");
+        forwarded.addHeader(ReplicaForwarder.FORWARDED_BY_HEADER, "http://replica-b:8080");
+        forwarded.addHeader(ReplicaForwarder.CLIENT_ADDRESS_HEADER, "203.0.113.7");
+        forwarded.addHeader(ForwardingCredentials.SIGNATURE_HEADER, credentials.sign(
+                "http://replica-b:8080", "203.0.113.7", "GET", "/api/v1/accounts/7/transactions"));
+
+        assertEquals(200, send(direct).getStatus());
+        assertEquals(429, send(forwarded).getStatus());
+    }
+
+    @Test
+    void madeUpKeysAndUnsignedForwardingHeadersDoNotBuyFreshBuckets() throws Exception {
+        MockHttpServletRequest first = history("made-up-1");
+        first.setRemoteAddr("198.51.100.9");
+        MockHttpServletRequest rotatedKey = history("made-up-2");
+        rotatedKey.setRemoteAddr("198.51.100.9");
+        MockHttpServletRequest spoofedAddress = history(null);
+        spoofedAddress.setRemoteAddr("198.51.100.9");
+        spoofedAddress.addHeader(ReplicaForwarder.FORWARDED_BY_HEADER, "http://replica-b:8080");
+        spoofedAddress.addHeader(ReplicaForwarder.CLIENT_ADDRESS_HEADER, "192.0.2.1");
+
+        assertEquals(200, send(first).getStatus());
+        assertEquals(429, send(rotatedKey).getStatus());
+        assertEquals(429, send(spoofedAddress).getStatus());
+    }
+
+    @Test
+    void groupsWithoutQuotaAndRefilledBucketsAreNotTracked() throws Exception {
+        send(new MockHttpServletRequest("GET", "/api/v1/accounts/1"));
+        send(transfer("partner"));
+
+        assertEquals(2, served.get());
+        assertEquals(1, filter.bucketCount());
+        filter.sweep(System.nanoTime());
+        assertEquals(1, filter.bucketCount());
+        filter.sweep(System.nanoTime() + 10_000_000_000_000L);
+        assertEquals(0, filter.bucketCount());
+    }
+
+    private static ForwardingCredentials credentials() {
+        ForwardingCredentials credentials = new ForwardingCredentials();
+        ReflectionTestUtils.setField(credentials, "sharedSecret", "cluster-secret");
+        return credentials;
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest history(String apiKey) {
+        return withKey(new MockHttpServletRequest("GET", "/api/v1/accounts/7/transactions"), apiKey);
+    }
+
+    private static MockHttpServletRequest transfer(String apiKey) {
+        return withKey(new MockHttpServletRequest("POST", "/api/v1/accounts/process"), apiKey);
+    }
+
+    private static MockHttpServletRequest withKey(MockHttpServletRequest request, String apiKey) {
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.banking.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void burstUpToCapacityThenRefused() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+        assertEquals(2, bucket.tryTake(0).remaining());
+        assertEquals(1, bucket.tryTake(0).remaining());
+        assertEquals(0, bucket.tryTake(0).remaining());
+        TokenBucket.Decision refused = bucket.tryTake(0);
+
+        assertFalse(refused.allowed());
+        assertEquals(SECOND, refused.retryAfterNanos());
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(2, 4, 0);
+        bucket.tryTake(0);
+        bucket.tryTake(0);
+
+        assertFalse(bucket.tryTake(SECOND / 8).allowed());
+        assertTrue(bucket.tryTake(SECOND / 4).allowed());
+        assertFalse(bucket.tryTake(SECOND / 4).allowed());
+    }
+
+    @Test
+    void idleBucketIsFullAgainAndDoesNotSaveUpBeyondCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 1, 0);
+        bucket.tryTake(0);
+
+        assertFalse(bucket.isFull(0));
+        assertTrue(bucket.isFull(SECOND));
+        assertTrue(bucket.tryTake(100 * SECOND).allowed());
+        assertTrue(bucket.tryTake(100 * SECOND).allowed());
+        assertFalse(bucket.tryTake(100 * SECOND).allowed());
+    }
+}
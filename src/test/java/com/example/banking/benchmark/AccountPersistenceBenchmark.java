@@ -0,0 +1,109 @@
+package com.example.banking.benchmark;
+
+import com.example.banking.model.Account;
+import com.example.banking.model.AccountAggregate;
+import com.example.banking.model.ProcessTransactionRequest;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.service.AccountService;
+import com.example.banking.service.EventSourcedAccountStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the current JPA path (UPDATE accounts + INSERT transactions + ledger) with the
+ * event-sourced store (single append with expected-version check).
+ *
+ * Not part of the default surefire run; execute with: mvn test -Dtest=AccountPersistenceBenchmark
+ * Numbers from the in-memory H2 database are only useful relative to each other.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {"banking.event-store.enabled=true", "spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"})
+class AccountPersistenceBenchmark {
+
+    private static final int WARMUP = 200;
+    private static final int OPERATIONS = 2_000;
+    private static final int LOADS = 2_000;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private EventSourcedAccountStore eventStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void compareWriteThroughputAndLoadLatency() {
+        Account jpaAccount = new Account();
+        jpaAccount.setAccountType("CHECKING");
+        jpaAccount.setBalance(BigDecimal.ZERO);
+        long jpaId = accountRepository.save(jpaAccount).getId();
+
+        long esId = 1_000_000L;
+        eventStore.save(AccountAggregate.open(esId, 1L, "CHECKING"));
+
+        runJpaDeposits(jpaId, WARMUP);
+        runEventDeposits(esId, WARMUP);
+
+        long jpaWriteNanos = runJpaDeposits(jpaId, OPERATIONS);
+        long esWriteNanos = runEventDeposits(esId, OPERATIONS);
+
+        long jpaLoadNanos = time(LOADS, () -> transactionTemplate.executeWithoutResult(s -> accountRepository.findById(jpaId)));
+        long esLoadNanos = time(LOADS, () -> eventStore.load(esId));
+
+        assertEquals(0, accountRepository.findById(jpaId).get().getBalance()
+                .compareTo(eventStore.load(esId).getBalance()));
+
+        System.out.printf("%-14s %14s %16s%n", "path", "writes/sec", "load p-avg (us)");
+        System.out.printf("%-14s %14.0f %16.1f%n", "jpa", perSecond(OPERATIONS, jpaWriteNanos), micros(jpaLoadNanos, LOADS));
+        System.out.printf("%-14s %14.0f %16.1f%n", "event-sourced", perSecond(OPERATIONS, esWriteNanos), micros(esLoadNanos, LOADS));
+    }
+
+    private long runJpaDeposits(long accountId, int count) {
+        return time(count, () -> {
+            ProcessTransactionRequest request = new ProcessTransactionRequest();
+            request.setTo(accountId);
+            request.setAmount(BigDecimal.ONE);
+            request.setType("DEPOSIT");
+            accountService.processTransaction(request);
+        });
+    }
+
+    private long runEventDeposits(long accountId, int count) {
+        return time(count, () -> {
+            AccountAggregate aggregate = eventStore.load(accountId);
+            aggregate.deposit(BigDecimal.ONE);
+            eventStore.save(aggregate);
+        });
+    }
+
+    private static long time(int count, Runnable operation) {
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            operation.run();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static double perSecond(int count, long nanos) {
+        return count / (nanos / 1_000_000_000.0);
+    }
+
+    private static double micros(long nanos, int count) {
+        return nanos / 1_000.0 / count;
+    }
+}
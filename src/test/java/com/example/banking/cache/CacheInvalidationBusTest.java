@@ -0,0 +1,91 @@
+package com.example.banking.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class CacheInvalidationBusTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final LocalCache<String> cache = new LocalCache<>("account", 1000, Duration.ofMinutes(5));
+    private CacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = new CacheInvalidationBus();
+        ReflectionTestUtils.setField(bus, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(bus, "objectMapper", objectMapper);
+        bus.register(cache);
+    }
+
+    @Test
+    void invalidationIsLocalOnlyWithoutPostgres() {
+        cache.get(1L, id -> "cached");
+
+        bus.invalidate(cache, List.of(1L));
+        bus.flush();
+
+        assertEquals(0, cache.size());
+        assertFalse(bus.isDistributed());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void queuedIdsArePublishedInBatchesBelowThePayloadLimit() throws Exception {
+        // Stands in for a started publisher
+        ReflectionTestUtils.setField(bus, "publisher", mock(ScheduledExecutorService.class));
+        List<Long> ids = LongStream.rangeClosed(1, 450).boxed().toList();
+
+        bus.invalidate(cache, ids.subList(0, 300));
+        bus.invalidate(cache, ids.subList(200, 450));
+        bus.flush();
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate, times(3)).query(eq("SELECT pg_notify(?, ?)"), any(ResultSetExtractor.class),
+                eq(CacheInvalidationBus.CHANNEL), payload.capture());
+        CacheInvalidationBus.Invalidation last = objectMapper.readValue((String) payload.getValue(), CacheInvalidationBus.Invalidation.class);
+        assertEquals("account", last.cache());
+        assertEquals(ids.subList(400, 450), last.ids());
+    }
+
+    @Test
+    void notificationsFromOtherReplicasEvictLocally() throws Exception {
+        cache.get(1L, id -> "cached");
+        cache.get(2L, id -> "cached");
+
+        bus.apply(objectMapper.writeValueAsString(new CacheInvalidationBus.Invalidation("other-replica", "account", List.of(1L))));
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void ownNotificationsAndMalformedPayloadsAreIgnored() throws Exception {
+        String origin = (String) ReflectionTestUtils.getField(bus, "origin");
+        cache.get(1L, id -> "cached");
+
+        bus.apply(objectMapper.writeValueAsString(new CacheInvalidationBus.Invalidation(origin, "account", List.of(1L))));
+        bus.apply("not json");
+
+        assertEquals(1, cache.size());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.banking.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LocalCacheTest {
+
+    @Test
+    void cachedValueIsServedUntilEvicted() {
+        LocalCache<String> cache = new LocalCache<>("test", 10, Duration.ofMinutes(5));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, id -> "v" + loads.incrementAndGet());
+        assertEquals("v1", cache.get(1L, id -> "v" + loads.incrementAndGet()));
+
+        cache.evict(List.of(1L));
+        assertEquals("v2", cache.get(1L, id -> "v" + loads.incrementAndGet()));
+    }
+
+    @Test
+    void missingValueIsNotCached() {
+        LocalCache<String> cache = new LocalCache<>("test", 10, Duration.ofMinutes(5));
+
+        assertNull(cache.get(1L, id -> null));
+        assertEquals("found", cache.get(1L, id -> "found"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryMakesRoom() {
+        LocalCache<String> cache = new LocalCache<>("test", 2, Duration.ofMinutes(5));
+        cache.get(1L, id -> "one");
+        cache.get(2L, id -> "two");
+        cache.get(1L, id -> "reloaded");
+        cache.get(3L, id -> "three");
+
+        assertEquals("one", cache.get(1L, id -> "reloaded"));
+        assertEquals("reloaded", cache.get(2L, id -> "reloaded"));
+    }
+
+    @Test
+    void valueLoadedWhileAnEvictionHappenedIsNotCached() {
+        LocalCache<String> cache = new LocalCache<>("test", 10, Duration.ofMinutes(5));
+
+        cache.get(1L, id -> {
+            // The row changed and was evicted while this load was reading it
+            cache.evict(List.of(1L));
+            return "stale";
+        });
+
+        assertEquals("fresh", cache.get(1L, id -> "fresh"));
+    }
+
+    @Test
+    void expiredEntryIsReloaded() {
+        LocalCache<String> cache = new LocalCache<>("test", 10, Duration.ZERO);
+        cache.get(1L, id -> "old");
+
+        assertEquals("new", cache.get(1L, id -> "new"));
+    }
+}
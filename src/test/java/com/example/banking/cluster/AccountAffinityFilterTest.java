@@ -0,0 +1,151 @@
+package com.example.banking.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.ConnectException;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AccountAffinityFilterTest {
+
+    @Mock
+    private ClusterMembership membership;
+
+    @Mock
+    private ReplicaForwarder forwarder;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ForwardingCredentials credentials = new ForwardingCredentials();
+
+    private AccountAffinityFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(credentials, "sharedSecret", "cluster-secret");
+        filter = new AccountAffinityFilter(membership, forwarder, credentials, new ObjectMapper(), meterRegistry);
+        lenient().when(membership.isRoutingEnabled()).thenReturn(true);
+        lenient().when(membership.getSelf()).thenReturn("http://a:8080");
+    }
+
+    @Test
+    void testRequestForAnAccountOwnedElsewhere_isForwarded() throws Exception {
+        when(membership.remoteOwnerOf(42L)).thenReturn("http://b:8080");
+        when(forwarder.forward(eq("http://b:8080"), eq("http://a:8080"), any(), any())).thenReturn(new ReplicaForwarder.Response(
+                200, Map.of("Content-Type", List.of("application/json")), "{\"id\":42}".getBytes(StandardCharsets.UTF_8)));
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/accounts/42"), response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+        assertEquals("{\"id\":42}", response.getContentAsString());
+        assertEquals("application/json", response.getHeader("Content-Type"));
+        assertEquals(1, meterRegistry.get(AccountAffinityFilter.FORWARDED_METRIC).tag("outcome", "forwarded").counter().count());
+    }
+
+    @Test
+    void testRequestForALocalAccount_isServedHere() throws Exception {
+        when(membership.remoteOwnerOf(7L)).thenReturn(null);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/accounts/7/transactions"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        verify(forwarder, never()).forward(any(), any(), any(), any());
+    }
+
+    @Test
+    void testProcessRequest_isRoutedByTheDebitedAccountAndKeepsItsBody() throws Exception {
+        when(membership.remoteOwnerOf(5L)).thenReturn(null);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/accounts/process");
+        request.setContent("{\"from\":5,\"to\":9,\"amount\":10,\"type\":\"TRANSFER\"}".getBytes(StandardCharsets.UTF_8));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        verify(membership).remoteOwnerOf(5L);
+        assertEquals("{\"from\":5,\"to\":9,\"amount\":10,\"type\":\"TRANSFER\"}",
+                new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testAlreadyForwardedRequest_isNeverForwardedAgain() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/accounts/42");
+        request.addHeader(ReplicaForwarder.FORWARDED_BY_HEADER, "http://c:8080");
+        request.addHeader(ReplicaForwarder.CLIENT_ADDRESS_HEADER, "203.0.113.7");
+        request.addHeader(ForwardingCredentials.SIGNATURE_HEADER,
+                credentials.sign("http://c:8080", "203.0.113.7", "GET", "/api/v1/accounts/42"));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        verify(membership, never()).remoteOwnerOf(42L);
+    }
+
+    @Test
+    void testClientSendingForwardingHeaders_isRoutedAsUsual() throws Exception {
+        when(membership.remoteOwnerOf(42L)).thenReturn(null);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/accounts/42");
+        request.addHeader(ReplicaForwarder.FORWARDED_BY_HEADER, "http://c:8080");
+        request.addHeader(ReplicaForwarder.CLIENT_ADDRESS_HEADER, "203.0.113.7");
+        // Signed for another path, as a client replaying a captured request elsewhere would send it
+        request.addHeader(ForwardingCredentials.SIGNATURE_HEADER,
+                credentials.sign("http://c:8080", "203.0.113.7", "GET", "/api/v1/accounts/41"));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(membership).remoteOwnerOf(42L);
+    }
+
+    @Test
+    void testUnreachableOwner_isServedHere() throws Exception {
+        when(membership.remoteOwnerOf(42L)).thenReturn("http://b:8080");
+        when(forwarder.forward(any(), any(), any(), any())).thenThrow(new ConnectException("Connection refused"));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/v1/accounts/42/balance-shards"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void testWriteThatTimedOutAfterBeingSent_isNotAppliedHereAsWell() throws Exception {
+        when(membership.remoteOwnerOf(5L)).thenReturn("http://b:8080");
+        when(forwarder.forward(any(), any(), any(), any())).thenThrow(new HttpTimeoutException("request timed out"));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/accounts/process");
+        request.setContent("{\"from\":5,\"amount\":10,\"type\":\"WITHDRAWAL\"}".getBytes(StandardCharsets.UTF_8));
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(502, response.getStatus());
+    }
+}
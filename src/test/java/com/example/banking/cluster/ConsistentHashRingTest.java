@@ -0,0 +1,60 @@
+package com.example.banking.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final List<String> THREE = List.of("http://a:8080", "http://b:8080", "http://c:8080");
+
+    @Test
+    void testOwnerOf_isStableAcrossRingInstances() {
+        ConsistentHashRing first = new ConsistentHashRing(THREE, 128);
+        ConsistentHashRing second = new ConsistentHashRing(THREE, 128);
+
+        for (long accountId = 1; accountId <= 1000; accountId++) {
+            assertEquals(first.ownerOf(accountId), second.ownerOf(accountId));
+        }
+    }
+
+    @Test
+    void testOwnerOf_spreadsAccountsOverAllMembers() {
+        ConsistentHashRing ring = new ConsistentHashRing(THREE, 128);
+        Map<String, Integer> owned = new HashMap<>();
+        for (long accountId = 1; accountId <= 30000; accountId++) {
+            owned.merge(ring.ownerOf(accountId), 1, Integer::sum);
+        }
+
+        assertEquals(3, owned.size());
+        owned.values().forEach(count -> assertTrue(count > 7000 && count < 13000, "uneven share: " + owned));
+    }
+
+    @Test
+    void testAddingAMember_onlyMovesAccountsToIt() {
+        ConsistentHashRing before = new ConsistentHashRing(THREE, 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("http://a:8080", "http://b:8080", "http://c:8080", "http://d:8080"), 128);
+
+        int moved = 0;
+        for (long accountId = 1; accountId <= 10000; accountId++) {
+            String previous = before.ownerOf(accountId);
+            String current = after.ownerOf(accountId);
+            if (!previous.equals(current)) {
+                assertEquals("http://d:8080", current);
+                moved++;
+            }
+        }
+        assertTrue(moved > 1500 && moved < 3500, "moved " + moved);
+    }
+
+    @Test
+    void testOwnerOf_emptyRingHasNoOwner() {
+        assertNull(new ConsistentHashRing(List.of(), 128).ownerOf(1));
+    }
+}
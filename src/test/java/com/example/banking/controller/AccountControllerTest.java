@@ -1,20 +1,28 @@
 package com.example.banking.controller;
 
+import com.example.banking.exception.IdempotencyKeyConflictException;
 import com.example.banking.model.Account;
 import com.example.banking.model.AccountCreationRequest;
 import com.example.banking.model.Customer;
 import com.example.banking.model.CustomerCreationRequest;
+import com.example.banking.model.IdempotentResponse;
 import com.example.banking.model.ProcessTransactionRequest;
 import com.example.banking.model.Transaction;
 import com.example.banking.service.AccountService;
+import com.example.banking.service.AccountSummaryService;
+import com.example.banking.service.CustomerOverviewService;
 import com.example.banking.service.CustomerService;
 import com.example.banking.service.FeeCalculationService;
+import com.example.banking.service.GroupCommitExecutor;
+import com.example.banking.service.IdempotencyService;
+import com.example.banking.service.TransactionScheduler;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
@@ -23,9 +31,11 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -42,6 +52,23 @@ class AccountControllerTest {
     @Mock
     private FeeCalculationService feeCalculationService;
 
+    @Mock
+    private AccountSummaryService accountSummaryService;
+
+    @Mock
+    private CustomerOverviewService customerOverviewService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    // A real scheduler admits every request straight away, so transactions run as before
+    @Spy
+    private TransactionScheduler transactionScheduler = new TransactionScheduler();
+
+    // Group commit is off by default, so each transaction runs on its own
+    @Spy
+    private GroupCommitExecutor groupCommitExecutor = new GroupCommitExecutor();
+
     @InjectMocks
     private AccountController accountController;
 
@@ -110,7 +137,7 @@ class AccountControllerTest {
         customer2.setName("Jane Smith");
 
         List<Customer> customers = Arrays.asList(customer1, customer2);
-        when(customerService.getAllCustomers()).thenReturn(customers);
+        when(customerService.getCustomers(null, CustomerService.DEFAULT_PAGE_SIZE, null)).thenReturn(customers);
 
         // ACT & ASSERT
         mockMvc.perform(get("/api/v1/customers"))
@@ -253,6 +280,25 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.message").value("Transaction processed successfully"));
     }
 
+    @Test
+    void testProcessTransaction_keyLostInsideGroupCommitIsReplayedAfterwards() throws Exception {
+        ProcessTransactionRequest request = new ProcessTransactionRequest();
+        request.setTo(1L);
+        request.setAmount(BigDecimal.valueOf(100));
+        request.setType("DEPOSIT");
+        when(idempotencyService.execute(eq("key-1"), any(), any()))
+                .thenThrow(new IdempotencyKeyConflictException("key-1", null))
+                .thenReturn(new IdempotentResponse(200, Map.of("success", true)).asReplay());
+
+        mockMvc.perform(post("/api/v1/accounts/process")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.success").value(true));
+    }
+
     @Test
     void testProcessTransaction_failure() throws Exception {
         // ARRANGE
@@ -10,11 +10,13 @@ import org.junit.platform.suite.api.SuiteDisplayName;
  * This suite includes:
  * - API Layer Integration Tests (@WebMvcTest)
  * - End-to-End API Tests (@SpringBootTest with TestRestTemplate)
+ * - Query Plan Regression Tests (@SpringBootTest against a seeded database)
  */
 @Suite
 @SuiteDisplayName("Integration Test Suite")
 @SelectPackages({
     "com.example.banking.integration.api",
+    "com.example.banking.integration.db",
     "com.example.banking.integration.e2e"
 })
 public class IntegrationTestSuite {
@@ -2,16 +2,29 @@ package com.example.banking.integration.api;
 
 import com.example.banking.config.SecurityConfig;
 import com.example.banking.controller.AccountController;
+import com.example.banking.exception.AccountLockTimeoutException;
+import com.example.banking.exception.IdempotencyKeyReuseException;
 import com.example.banking.model.Account;
 import com.example.banking.model.AccountCreationRequest;
+import com.example.banking.model.AccountSummary;
 import com.example.banking.model.Customer;
 import com.example.banking.model.CustomerCreationRequest;
+import com.example.banking.model.CustomerOverview;
+import com.example.banking.model.IdempotentResponse;
 import com.example.banking.model.ProcessTransactionRequest;
 import com.example.banking.model.Transaction;
+import com.example.banking.model.TransactionSubmission;
 import com.example.banking.service.AccountService;
+import com.example.banking.service.AccountSummaryService;
+import com.example.banking.service.CustomerOverviewService;
 import com.example.banking.service.CustomerService;
 import com.example.banking.service.FeeCalculationService;
+import com.example.banking.service.GroupCommitExecutor;
+import com.example.banking.service.IdempotencyService;
+import com.example.banking.service.TransactionScheduler;
+import com.example.banking.service.TransactionSubmissionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -21,13 +34,21 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -48,9 +69,35 @@ class AccountControllerIntegrationTest {
     @MockBean
     private FeeCalculationService feeCalculationService;
 
+    @MockBean
+    private AccountSummaryService accountSummaryService;
+
+    @MockBean
+    private CustomerOverviewService customerOverviewService;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private TransactionSubmissionService transactionSubmissionService;
+
+    @MockBean
+    private TransactionScheduler transactionScheduler;
+
+    @MockBean
+    private GroupCommitExecutor groupCommitExecutor;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @BeforeEach
+    void runScheduledTransactionsInline() {
+        when(transactionScheduler.execute(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        when(groupCommitExecutor.execute(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+    }
+
     @Test
     void shouldCreateCustomerSuccessfully() throws Exception {
         // Given
@@ -108,7 +155,7 @@ class AccountControllerIntegrationTest {
 
         List<Customer> customers = Arrays.asList(customer1, customer2);
 
-        when(customerService.getAllCustomers()).thenReturn(customers);
+        when(customerService.getCustomers(null, CustomerService.DEFAULT_PAGE_SIZE, null)).thenReturn(customers);
 
         // When & Then
         mockMvc.perform(get("/api/v1/customers"))
@@ -167,6 +214,38 @@ class AccountControllerIntegrationTest {
                 .andExpect(jsonPath("$.balance").value(1000));
     }
 
+    @Test
+    void shouldConfigureBalanceShards() throws Exception {
+        Account account = new Account();
+        account.setId(1L);
+        account.setAccountType("CHECKING");
+        account.setBalance(BigDecimal.valueOf(1000));
+        account.setBalanceShards(8);
+        when(accountService.configureBalanceShards(1L, 8)).thenReturn(account);
+
+        mockMvc.perform(put("/api/v1/accounts/1/balance-shards").param("count", "8"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balanceShards").value(8))
+                .andExpect(jsonPath("$.balance").value(1000));
+    }
+
+    @Test
+    void shouldRejectAnOutOfRangeShardCount() throws Exception {
+        when(accountService.configureBalanceShards(1L, 500))
+                .thenThrow(new IllegalArgumentException("Shard count must be between 0 and 64"));
+
+        mockMvc.perform(put("/api/v1/accounts/1/balance-shards").param("count", "500"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturn404WhenShardingAnUnknownAccount() throws Exception {
+        when(accountService.configureBalanceShards(99L, 4)).thenReturn(null);
+
+        mockMvc.perform(put("/api/v1/accounts/99/balance-shards").param("count", "4"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void shouldGetAccountsByCustomerId() throws Exception {
         // Given
@@ -224,6 +303,52 @@ class AccountControllerIntegrationTest {
                 .andExpect(jsonPath("$[1].type").value("WITHDRAWAL"));
     }
 
+    @Test
+    void shouldGetCustomerOverview() throws Exception {
+        // Given
+        AccountSummary summary = new AccountSummary();
+        summary.setAccountId(10L);
+        summary.setCustomerId(1L);
+        summary.setBalance(BigDecimal.valueOf(250));
+
+        CustomerOverview overview = new CustomerOverview();
+        overview.setCustomerId(1L);
+        overview.setCustomerName("Test Customer");
+        overview.setCustomerLevel("GOLD");
+        overview.setTotalBalance(BigDecimal.valueOf(250));
+        overview.setAccounts(List.of(summary));
+
+        when(accountSummaryService.getCustomerOverview(1L)).thenReturn(overview);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/customers/1/overview"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customerName").value("Test Customer"))
+                .andExpect(jsonPath("$.customerLevel").value("GOLD"))
+                .andExpect(jsonPath("$.totalBalance").value(250))
+                .andExpect(jsonPath("$.accounts[0].accountId").value(10));
+    }
+
+    @Test
+    void shouldGetLiveCustomerOverviewWithPartialFlag() throws Exception {
+        // Given
+        CustomerOverview overview = new CustomerOverview();
+        overview.setCustomerId(1L);
+        overview.setCustomerName("Test Customer");
+        overview.setPartial(true);
+        overview.setTimedOut(List.of("transactions:10"));
+
+        when(customerOverviewService.getLiveOverview(1L)).thenReturn(overview);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/customers/1/overview").param("live", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.partial").value(true))
+                .andExpect(jsonPath("$.timedOut[0]").value("transactions:10"));
+
+        verify(accountSummaryService, never()).getCustomerOverview(anyLong());
+    }
+
     @Test
     void shouldProcessTransactionSuccessfully() throws Exception {
         // Given
@@ -288,6 +413,187 @@ class AccountControllerIntegrationTest {
                 .andExpect(jsonPath("$.lspViolation").value(true));
     }
 
+    @Test
+    void shouldReturn503WhenAccountLocksTimeOut() throws Exception {
+        ProcessTransactionRequest request = new ProcessTransactionRequest();
+        request.setFrom(1L);
+        request.setTo(2L);
+        request.setAmount(BigDecimal.valueOf(100));
+        request.setType("TRANSFER");
+
+        when(accountService.processTransaction(any(ProcessTransactionRequest.class)))
+                .thenThrow(new AccountLockTimeoutException(List.of(1L, 2L), Duration.ofSeconds(2)));
+
+        mockMvc.perform(post("/api/v1/accounts/process")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.error").value("ACCOUNT_LOCK_TIMEOUT"));
+    }
+
+    @Test
+    void shouldReplayStoredResponseForIdempotencyKey() throws Exception {
+        // Given
+        ProcessTransactionRequest request = new ProcessTransactionRequest();
+        request.setFrom(1L);
+        request.setTo(2L);
+        request.setAmount(BigDecimal.valueOf(100));
+        request.setType("TRANSFER");
+
+        Map<String, Object> stored = new HashMap<>();
+        stored.put("success", true);
+        stored.put("message", "Transaction processed successfully");
+        when(idempotencyService.execute(eq("retry-1"), any(ProcessTransactionRequest.class), any()))
+                .thenReturn(new IdempotentResponse(200, stored, true));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/accounts/process")
+                .header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.success").value(true));
+
+        verify(accountService, never()).processTransaction(any(ProcessTransactionRequest.class));
+    }
+
+    @Test
+    void shouldReplayDuplicateWithoutTakingASchedulerSlot() throws Exception {
+        // Given
+        ProcessTransactionRequest request = new ProcessTransactionRequest();
+        request.setTo(1L);
+        request.setAmount(BigDecimal.valueOf(50));
+        request.setType("DEPOSIT");
+
+        Map<String, Object> stored = new HashMap<>();
+        stored.put("success", true);
+        when(idempotencyService.completedResponse(eq("retry-3"), any(ProcessTransactionRequest.class)))
+                .thenReturn(Optional.of(new IdempotentResponse(200, stored, true)));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/accounts/process")
+                .header("Idempotency-Key", "retry-3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"));
+
+        verify(transactionScheduler, never()).execute(any(), any());
+    }
+
+    @Test
+    void shouldRejectIdempotencyKeyReusedForDifferentRequest() throws Exception {
+        // Given
+        ProcessTransactionRequest request = new ProcessTransactionRequest();
+        request.setTo(1L);
+        request.setAmount(BigDecimal.valueOf(50));
+        request.setType("DEPOSIT");
+
+        when(idempotencyService.execute(eq("retry-2"), any(ProcessTransactionRequest.class), any()))
+                .thenThrow(new IdempotencyKeyReuseException("retry-2"));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/accounts/process")
+                .header("Idempotency-Key", "retry-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.error").value("IDEMPOTENCY_KEY_REUSED"));
+    }
+
+    @Test
+    void shouldQueueTransactionWhenAsyncResponseIsPreferred() throws Exception {
+        // Given
+        ProcessTransactionRequest request = new ProcessTransactionRequest();
+        request.setTo(1L);
+        request.setAmount(BigDecimal.valueOf(100));
+        request.setType("DEPOSIT");
+
+        when(transactionSubmissionService.submit(any(), any())).thenReturn(TransactionSubmission.queued("handle-1"));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/accounts/process")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/v1/transactions/handle-1/status"))
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.handle").value("handle-1"))
+                .andExpect(jsonPath("$.state").value("QUEUED"));
+
+        verify(accountService, never()).processTransaction(any(ProcessTransactionRequest.class));
+    }
+
+    @Test
+    void shouldRejectAsyncSubmissionWhenQueueIsFull() throws Exception {
+        // Given
+        ProcessTransactionRequest request = new ProcessTransactionRequest();
+        request.setTo(1L);
+        request.setAmount(BigDecimal.valueOf(100));
+        request.setType("DEPOSIT");
+
+        when(transactionSubmissionService.submit(any(), any())).thenThrow(new RejectedExecutionException("queue full"));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/accounts/process")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error").value("SUBMISSION_QUEUE_FULL"));
+    }
+
+    @Test
+    void shouldRejectSynchronousTransactionWhenNotAdmitted() throws Exception {
+        // Given
+        ProcessTransactionRequest request = new ProcessTransactionRequest();
+        request.setTo(1L);
+        request.setAmount(BigDecimal.valueOf(100));
+        request.setType("DEPOSIT");
+
+        doThrow(new RejectedExecutionException("no slot")).when(transactionScheduler).execute(any(), any());
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/accounts/process")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error").value("TRANSACTION_QUEUE_FULL"));
+        verify(accountService, never()).processTransaction(any());
+    }
+
+    @Test
+    void shouldReturnSubmittedTransactionStatus() throws Exception {
+        // Given
+        TransactionSubmission completed = TransactionSubmission.queued("handle-2").processing()
+                .completed(new IdempotentResponse(200, Map.of("success", true)));
+        when(transactionSubmissionService.getStatus("handle-2")).thenReturn(Optional.of(completed));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/transactions/handle-2/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.handle").value("handle-2"))
+                .andExpect(jsonPath("$.state").value("COMPLETED"))
+                .andExpect(jsonPath("$.resultStatus").value(200))
+                .andExpect(jsonPath("$.result.success").value(true));
+    }
+
+    @Test
+    void shouldReturn404ForUnknownTransactionHandle() throws Exception {
+        // Given
+        when(transactionSubmissionService.getStatus("missing")).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/transactions/missing/status"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void shouldCalculateFeesSuccessfully() throws Exception {
         // Given
@@ -5,8 +5,14 @@ import com.example.banking.controller.AccountController;
 import com.example.banking.model.Customer;
 import com.example.banking.model.CustomerCreationRequest;
 import com.example.banking.service.AccountService;
+import com.example.banking.service.AccountSummaryService;
+import com.example.banking.service.CustomerOverviewService;
 import com.example.banking.service.CustomerService;
 import com.example.banking.service.FeeCalculationService;
+import com.example.banking.service.GroupCommitExecutor;
+import com.example.banking.service.IdempotencyService;
+import com.example.banking.service.TransactionScheduler;
+import com.example.banking.service.TransactionSubmissionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,12 +21,21 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -41,6 +56,24 @@ class CustomerControllerIntegrationTest {
     @MockBean
     private FeeCalculationService feeCalculationService;
 
+    @MockBean
+    private AccountSummaryService accountSummaryService;
+
+    @MockBean
+    private CustomerOverviewService customerOverviewService;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private TransactionSubmissionService transactionSubmissionService;
+
+    @MockBean
+    private TransactionScheduler transactionScheduler;
+
+    @MockBean
+    private GroupCommitExecutor groupCommitExecutor;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -143,7 +176,7 @@ class CustomerControllerIntegrationTest {
 
         List<Customer> customers = Arrays.asList(customer1, customer2);
 
-        when(customerService.getAllCustomers()).thenReturn(customers);
+        when(customerService.getCustomers(null, CustomerService.DEFAULT_PAGE_SIZE, null)).thenReturn(customers);
 
         // When & Then
         mockMvc.perform(get("/api/v1/customers"))
@@ -164,7 +197,7 @@ class CustomerControllerIntegrationTest {
     @Test
     void shouldReturnEmptyListWhenNoCustomers() throws Exception {
         // Given
-        when(customerService.getAllCustomers()).thenReturn(Arrays.asList());
+        when(customerService.getCustomers(null, CustomerService.DEFAULT_PAGE_SIZE, null)).thenReturn(Arrays.asList());
 
         // When & Then
         mockMvc.perform(get("/api/v1/customers"))
@@ -173,6 +206,82 @@ class CustomerControllerIntegrationTest {
                 .andExpect(jsonPath("$").isEmpty());
     }
 
+    @Test
+    void shouldReturnNextPageLinkWhenPageIsFull() throws Exception {
+        // Given
+        Customer customer1 = new Customer();
+        customer1.setId(7L);
+        Customer customer2 = new Customer();
+        customer2.setId(9L);
+
+        when(customerService.getCustomers(5L, 2, "GOLD")).thenReturn(Arrays.asList(customer1, customer2));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/customers").param("afterId", "5").param("limit", "2").param("level", "GOLD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().string("Link", org.hamcrest.Matchers.containsString("afterId=9")))
+                .andExpect(header().string("Link", org.hamcrest.Matchers.containsString("rel=\"next\"")));
+    }
+
+    @Test
+    void shouldRejectPageSizeBelowOne() throws Exception {
+        mockMvc.perform(get("/api/v1/customers").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/customers").param("limit", "-5"))
+                .andExpect(status().isBadRequest());
+
+        verify(customerService, never()).getCustomers(any(), anyInt(), any());
+    }
+
+    @Test
+    void shouldCapPageSizeAndStillLinkToNextPage() throws Exception {
+        // Given
+        List<Customer> fullPage = new ArrayList<>();
+        for (long id = 1; id <= CustomerService.MAX_PAGE_SIZE; id++) {
+            Customer customer = new Customer();
+            customer.setId(id);
+            fullPage.add(customer);
+        }
+        when(customerService.getCustomers(null, CustomerService.MAX_PAGE_SIZE, null)).thenReturn(fullPage);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/customers").param("limit", "10000"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link", org.hamcrest.Matchers.containsString("afterId=" + CustomerService.MAX_PAGE_SIZE)));
+    }
+
+    @Test
+    void shouldStreamCustomersAsNdjson() throws Exception {
+        // Given
+        Customer customer1 = new Customer("Customer One");
+        customer1.setId(1L);
+        Customer customer2 = new Customer("Customer Two");
+        customer2.setId(2L);
+
+        doAnswer(invocation -> {
+            Consumer<Customer> consumer = invocation.getArgument(1);
+            consumer.accept(customer1);
+            consumer.accept(customer2);
+            return null;
+        }).when(customerService).streamCustomers(isNull(), any());
+
+        // When & Then
+        MvcResult result = mockMvc.perform(get("/api/v1/customers").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Customer One", objectMapper.readTree(lines[0]).get("name").asText());
+        assertEquals("Customer Two", objectMapper.readTree(lines[1]).get("name").asText());
+    }
+
     @Test
     void shouldHandleCustomerNotFound() throws Exception {
         // Given
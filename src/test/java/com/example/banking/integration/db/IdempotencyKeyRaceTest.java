@@ -0,0 +1,76 @@
+package com.example.banking.integration.db;
+
+import com.example.banking.model.IdempotentResponse;
+import com.example.banking.model.ProcessTransactionRequest;
+import com.example.banking.service.IdempotencyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two nodes executing the same idempotency key: the other node commits its row while this one is still
+ * applying the ledger change. The database must refuse the second row, so only one change commits and
+ * this node replays the winner's response.
+ */
+@SpringBootTest(properties = {
+        // Own database: a second context recreating the shared schema would reset the pooled id sequences
+        "spring.datasource.url=jdbc:h2:mem:idempotencyracedb;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+class IdempotencyKeyRaceTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void keyCommittedByAnotherNodeDuringExecutionIsReplayedAndNotPostedTwice() throws Exception {
+        jdbcTemplate.update("INSERT INTO customers (name, name_normalized, email, customer_level) VALUES (?, ?, ?, ?)",
+                "Race Customer", "race customer", "race@example.com", "BRONZE");
+        Long customerId = jdbcTemplate.queryForObject("SELECT id FROM customers WHERE name = 'Race Customer'", Long.class);
+        jdbcTemplate.update("INSERT INTO accounts (balance, account_type, cust_id, balance_shards) VALUES (0, 'CHECKING', ?, 0)",
+                customerId);
+        Long accountId = jdbcTemplate.queryForObject("SELECT id FROM accounts WHERE cust_id = ?", Long.class, customerId);
+
+        ProcessTransactionRequest deposit = new ProcessTransactionRequest();
+        deposit.setTo(accountId);
+        deposit.setAmount(BigDecimal.valueOf(100));
+        deposit.setType("DEPOSIT");
+        String requestHash = HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(deposit)));
+
+        IdempotentResponse response = idempotencyService.execute("race-key", deposit, () -> {
+            jdbcTemplate.update("UPDATE accounts SET balance = balance + 100 WHERE id = ?", accountId);
+            // The other node finishes the same request and commits its key on its own connection
+            CompletableFuture.runAsync(() -> jdbcTemplate.update(
+                    "INSERT INTO idempotency_keys (idempotency_key, request_hash, status_code, response_body, created_at) "
+                            + "VALUES ('race-key', ?, 200, '{\"success\":true,\"node\":\"other\"}', CURRENT_TIMESTAMP)",
+                    requestHash)).join();
+            return new IdempotentResponse(200, Map.of("success", true, "node", "this"));
+        });
+
+        assertThat(response.replayed()).isTrue();
+        assertThat(response.body()).containsEntry("node", "other");
+        assertThat(jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId))
+                .isEqualByComparingTo("0");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT response_body FROM idempotency_keys WHERE idempotency_key = 'race-key'", String.class))
+                .contains("other");
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.banking.integration.db;
+
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds a synthetic dataset large enough for the optimizer to care, runs every selective customer
+ * and account repository query, and fails if the plan of the SQL it sent contains a full table scan.
+ * Deliberate full reads (findAll, streamAll) are not listed here.
+ * <p>
+ * The plans checked are H2's. That catches a query no index can serve, but H2's optimizer is not
+ * PostgreSQL's: Postgres plans, and the Postgres-only indexes from the Liquibase changesets (which the
+ * test schema built from the entities does not have), are not checked here.
+ */
+@SpringBootTest(properties = {
+        // Own database so the seeded rows never leak into other test contexts
+        "spring.datasource.url=jdbc:h2:mem:plandb;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.banking.integration.db.RecordingStatementInspector"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryQueryPlanTest {
+
+    private static final int CUSTOMERS = 20_000;
+    private static final int ACCOUNTS_PER_CUSTOMER = 3;
+    private static final String[] LEVELS = {"BRONZE", "SILVER", "GOLD", "PLATINUM"};
+    private static final String[] ACCOUNT_TYPES = {"CHECKING", "SAVINGS", "STUDENT", "BUSINESS"};
+
+    // H2's spelling of a full table scan
+    private static final List<String> FULL_SCAN_MARKERS = List.of(".tablescan");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private long sampleCustomerId;
+    private long sampleAccountId;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> customers = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String name = "Plan Customer " + i;
+            customers.add(new Object[]{name, name.toLowerCase(Locale.ROOT), "plan" + i + "@example.com", LEVELS[i % LEVELS.length]});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO customers (name, name_normalized, email, customer_level) VALUES (?, ?, ?, ?)", customers);
+
+        List<Long> customerIds = jdbcTemplate.queryForList("SELECT id FROM customers ORDER BY id", Long.class);
+        List<Object[]> accounts = new ArrayList<>(customerIds.size() * ACCOUNTS_PER_CUSTOMER);
+        int n = 0;
+        for (Long customerId : customerIds) {
+            for (int j = 0; j < ACCOUNTS_PER_CUSTOMER; j++, n++) {
+                BigDecimal balance = BigDecimal.valueOf((n * 7919L) % 10_000);
+                accounts.add(new Object[]{customerId, ACCOUNT_TYPES[n % ACCOUNT_TYPES.length], balance});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO accounts (cust_id, account_type, balance) VALUES (?, ?, ?)", accounts);
+
+        jdbcTemplate.execute("ANALYZE");
+        sampleCustomerId = customerIds.get(customerIds.size() / 2);
+        sampleAccountId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM accounts WHERE cust_id = ?", Long.class, sampleCustomerId);
+    }
+
+    Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                query("AccountRepository.findById",
+                        () -> accountRepository.findById(sampleAccountId), sampleAccountId),
+                query("AccountRepository.findAccountsByCustomerId",
+                        () -> accountRepository.findAccountsByCustomerId(sampleCustomerId), sampleCustomerId),
+                query("CustomerRepository.findById",
+                        () -> customerRepository.findById(sampleCustomerId), sampleCustomerId),
+                query("CustomerRepository.findByName",
+                        () -> customerRepository.findByName("Plan Customer 42"), "plan customer 42"),
+                query("CustomerRepository.findByIdGreaterThanOrderByIdAsc",
+                        () -> customerRepository.findByIdGreaterThanOrderByIdAsc(sampleCustomerId, PageRequest.ofSize(100)),
+                        sampleCustomerId, 0, 100),
+                query("CustomerRepository.findByCustomerLevelAndIdGreaterThanOrderByIdAsc",
+                        () -> customerRepository.findByCustomerLevelAndIdGreaterThanOrderByIdAsc("GOLD", sampleCustomerId, PageRequest.ofSize(100)),
+                        "GOLD", sampleCustomerId, 0, 100),
+                query("CustomerRepository.streamByCustomerLevel",
+                        () -> transactionTemplate.executeWithoutResult(status -> {
+                            try (Stream<?> rows = customerRepository.streamByCustomerLevel("GOLD")) {
+                                rows.findFirst();
+                            }
+                        }), "GOLD")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void repositoryQueryDoesNotScanWholeTable(String name, Runnable invocation, Object[] params) {
+        RecordingStatementInspector.clear();
+        invocation.run();
+
+        String sql = RecordingStatementInspector.statements().stream()
+                .filter(s -> s.trim().toLowerCase(Locale.ROOT).startsWith("select"))
+                .reduce((first, second) -> second)
+                .orElseThrow(() -> new AssertionError(name + " did not issue a SELECT"));
+        assertThat(sql.chars().filter(c -> c == '?').count())
+                .as("bind values supplied for %s", sql)
+                .isEqualTo(params.length);
+
+        String plan = String.join("\n", jdbcTemplate.query("EXPLAIN " + sql, ps -> {
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+        }, (rs, rowNum) -> rs.getString(1)));
+
+        String normalizedPlan = plan.toLowerCase(Locale.ROOT);
+        for (String marker : FULL_SCAN_MARKERS) {
+            assertThat(normalizedPlan).as("plan of %s:%n%s", name, plan).doesNotContain(marker);
+        }
+    }
+
+    private static Arguments query(String name, Runnable invocation, Object... params) {
+        return Arguments.of(name, invocation, params);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.banking.integration.e2e;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The JFR and slow query endpoints can start recordings, write dumps and reveal SQL, so they need the
+ * operator role; health stays open for load balancers.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                // Own database: a second context recreating the shared schema would reset the pooled id sequences
+                "spring.datasource.url=jdbc:h2:mem:actuatorsecuritydb;DB_CLOSE_DELAY=-1"
+        })
+@ActiveProfiles("test")
+class ActuatorSecurityE2ETest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void operatorEndpoints_requireCredentials() {
+        assertThat(restTemplate.getForEntity("/actuator/jfr", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(restTemplate.getForEntity("/actuator/slowqueries", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(restTemplate.exchange("/actuator/slowqueries", HttpMethod.DELETE, HttpEntity.EMPTY, String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void operatorEndpoints_areServedToTheOperator() {
+        ResponseEntity<Map> response = restTemplate.withBasicAuth("test", "test")
+                .getForEntity("/actuator/slowqueries", Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void health_staysOpen() {
+        assertThat(restTemplate.getForEntity("/actuator/health", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.banking.integration.e2e;
+
+import com.example.banking.model.Account;
+import com.example.banking.model.AccountCreationRequest;
+import com.example.banking.model.Customer;
+import com.example.banking.model.CustomerCreationRequest;
+import com.example.banking.model.ProcessTransactionRequest;
+import com.example.banking.repository.AccountRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent transactions with group commit enabled: they share commits, and one that fails is rolled
+ * back on its own while the rest of its batch still commits.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                // Own database: a second context recreating the shared schema would reset the pooled id sequences
+                "spring.datasource.url=jdbc:h2:mem:groupcommitdb;DB_CLOSE_DELAY=-1",
+                "banking.group-commit.enabled=true",
+                "banking.group-commit.max-batch=11",
+                "banking.group-commit.max-wait=500ms",
+                "banking.transactions.scheduler.concurrency=16"
+        })
+@ActiveProfiles("test")
+class GroupCommitE2ETest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentDepositsShareACommitAndAFailureOnlyRollsBackItself() {
+        String baseUrl = "http://localhost:" + port + "/api/v1";
+        Customer customer = createCustomer(baseUrl);
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            accounts.add(createAccount(baseUrl, customer.getId(), "CHECKING"));
+        }
+        Account student = createAccount(baseUrl, customer.getId(), "STUDENT");
+
+        ExecutorService clients = Executors.newFixedThreadPool(11);
+        try {
+            List<CompletableFuture<ResponseEntity<Map>>> deposits = new ArrayList<>();
+            for (Account account : accounts) {
+                deposits.add(CompletableFuture.supplyAsync(() -> deposit(baseUrl, account.getId(), "100"), clients));
+            }
+            // Over the student account limit: this one fails inside the shared transaction
+            CompletableFuture<ResponseEntity<Map>> overLimit =
+                    CompletableFuture.supplyAsync(() -> deposit(baseUrl, student.getId(), "20000"), clients);
+
+            deposits.forEach(deposit -> assertThat(deposit.join().getStatusCode()).isEqualTo(HttpStatus.OK));
+            assertThat(overLimit.join().getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+            assertThat(overLimit.join().getBody().get("error")).isEqualTo("BALANCE_LIMIT_EXCEEDED");
+        } finally {
+            clients.shutdownNow();
+        }
+
+        for (Account account : accounts) {
+            assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance())
+                    .isEqualByComparingTo("100");
+        }
+        assertThat(accountRepository.findById(student.getId()).orElseThrow().getBalance()).isEqualByComparingTo("0");
+
+        DistributionSummary batchSizes = meterRegistry.get("banking.group-commit.batch.size").summary();
+        assertThat(batchSizes.max()).isGreaterThan(1);
+    }
+
+    private ResponseEntity<Map> deposit(String baseUrl, Long accountId, String amount) {
+        ProcessTransactionRequest request = new ProcessTransactionRequest();
+        request.setTo(accountId);
+        request.setAmount(new BigDecimal(amount));
+        request.setType("DEPOSIT");
+        return restTemplate.postForEntity(baseUrl + "/accounts/process", request, Map.class);
+    }
+
+    private Customer createCustomer(String baseUrl) {
+        CustomerCreationRequest request = new CustomerCreationRequest();
+        request.setName("Group Commit " + System.nanoTime());
+        return restTemplate.postForEntity(baseUrl + "/customers", request, Customer.class).getBody();
+    }
+
+    private Account createAccount(String baseUrl, Long customerId, String accountType) {
+        AccountCreationRequest request = new AccountCreationRequest();
+        request.setCustomerId(customerId);
+        request.setAccountType(accountType);
+        return restTemplate.postForEntity(baseUrl + "/accounts", request, Account.class).getBody();
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.banking.integration.e2e;
+
+import com.example.banking.model.Account;
+import com.example.banking.model.CustomerCreationRequest;
+import com.example.banking.model.Customer;
+import com.example.banking.model.ProcessTransactionRequest;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.CustomerRepository;
+import com.example.banking.testconfig.QueryCountTestConfig;
+import com.example.banking.testconfig.SqlStatementCounter;
+import com.example.banking.testconfig.SqlStatementCounter.Counts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the number of SQL statements each endpoint issues, per transaction type. A new N+1 or a
+ * redundant lookup changes these numbers and fails here; if a change is intended, update the
+ * expectation in the same commit. Sequence fetches for pooled ids are not counted, and a JDBC batch
+ * (both account updates of a transfer, say) counts as one statement.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        // Own database: a second context recreating the shared schema would reset the pooled id sequences
+        properties = "spring.datasource.url=jdbc:h2:mem:querycountdb;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@Import(QueryCountTestConfig.class)
+class QueryCountE2ETest {
+
+    private static final String API = "/api/v1";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port + API;
+        SqlStatementCounter.reset();
+    }
+
+    @Test
+    void createCustomer_looksUpNameOnceAndInserts() {
+        CustomerCreationRequest request = new CustomerCreationRequest();
+        request.setName(uniqueName());
+
+        ResponseEntity<Customer> response = restTemplate.postForEntity(baseUrl + "/customers", request, Customer.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertStatements("POST", "/customers", 1, 1, 0);
+    }
+
+    @Test
+    void getCustomer_isOneSelect() {
+        Customer customer = seedCustomer("BRONZE");
+
+        restTemplate.getForEntity(baseUrl + "/customers/" + customer.getId(), Customer.class);
+
+        assertStatements("GET", "/customers/" + customer.getId(), 1, 0, 0);
+    }
+
+    @Test
+    void listCustomers_isOneSelectPerPage() {
+        seedCustomer("BRONZE");
+
+        restTemplate.getForEntity(baseUrl + "/customers?limit=10", Customer[].class);
+
+        assertStatements("GET", "/customers", 1, 0, 0);
+    }
+
+    @Test
+    void createAccount_isOneInsert() {
+        Customer customer = seedCustomer("BRONZE");
+        Map<String, Object> request = Map.of("customerId", customer.getId(), "accountType", "CHECKING");
+
+        restTemplate.postForEntity(baseUrl + "/accounts", request, Account.class);
+
+        assertStatements("POST", "/accounts", 0, 1, 0);
+    }
+
+    @Test
+    void accountReads_areOneSelectEach() {
+        Customer customer = seedCustomer("BRONZE");
+        Account account = seedAccount(customer, "CHECKING", "100.00");
+
+        restTemplate.getForEntity(baseUrl + "/accounts/" + account.getId(), Account.class);
+        restTemplate.getForEntity(baseUrl + "/accounts?customerId=" + customer.getId(), Account[].class);
+        restTemplate.getForEntity(baseUrl + "/accounts/" + account.getId() + "/transactions", Object[].class);
+
+        assertStatements("GET", "/accounts/" + account.getId(), 1, 0, 0);
+        assertStatements("GET", "/accounts", 1, 0, 0);
+        assertStatements("GET", "/accounts/" + account.getId() + "/transactions", 1, 0, 0);
+    }
+
+    @Test
+    void deposit() {
+        Account account = seedAccount(seedCustomer("BRONZE"), "CHECKING", "0.00");
+
+        process(null, account.getId(), "250.00", "DEPOSIT");
+
+        assertStatements("POST", "/accounts/process", 1, 3, 1);
+    }
+
+    @Test
+    void withdrawal() {
+        Account account = seedAccount(seedCustomer("BRONZE"), "CHECKING", "500.00");
+
+        process(account.getId(), null, "200.00", "WITHDRAWAL");
+
+        assertStatements("POST", "/accounts/process", 1, 3, 1);
+    }
+
+    @Test
+    void largeWithdrawal_notifiesWithoutAnExtraLookup() {
+        Account account = seedAccount(seedCustomer("BRONZE"), "CHECKING", "50000.00");
+
+        process(account.getId(), null, "20000.00", "WITHDRAWAL");
+
+        assertStatements("POST", "/accounts/process", 1, 3, 1);
+    }
+
+    @Test
+    void transfer() {
+        Account from = seedAccount(seedCustomer("BRONZE"), "CHECKING", "500.00");
+        Account to = seedAccount(seedCustomer("BRONZE"), "CHECKING", "0.00");
+
+        process(from.getId(), to.getId(), "100.00", "TRANSFER");
+
+        assertStatements("POST", "/accounts/process", 2, 3, 1);
+    }
+
+    @Test
+    void internationalTransfer() {
+        Account from = seedAccount(seedCustomer("BRONZE"), "CHECKING", "500.00");
+        Account to = seedAccount(seedCustomer("BRONZE"), "CHECKING", "0.00");
+
+        process(from.getId(), to.getId(), "100.00", "INTERNATIONAL_TRANSFER");
+
+        assertStatements("POST", "/accounts/process", 2, 4, 1);
+    }
+
+    @Test
+    void rejectedTransfer_onlyReads() {
+        Account from = seedAccount(seedCustomer("BRONZE"), "CHECKING", "10.00");
+        Account to = seedAccount(seedCustomer("BRONZE"), "CHECKING", "0.00");
+
+        process(from.getId(), to.getId(), "100.00", "TRANSFER");
+
+        assertStatements("POST", "/accounts/process", 2, 0, 0);
+    }
+
+    @Test
+    void monthlyFee() {
+        Account account = seedAccount(seedCustomer("BRONZE"), "CHECKING", "100.00");
+
+        restTemplate.postForEntity(baseUrl + "/accounts/" + account.getId() + "/fees", null, String.class);
+
+        assertStatements("POST", "/accounts/" + account.getId() + "/fees", 3, 3, 1);
+    }
+
+    @Test
+    void serverTimingHeader_reportsDbTimeStatementsAndAllocation() {
+        Account account = seedAccount(seedCustomer("BRONZE"), "CHECKING", "100.00");
+
+        ResponseEntity<Account> response = restTemplate.getForEntity(baseUrl + "/accounts/" + account.getId(), Account.class);
+
+        assertThat(response.getHeaders().getFirst("Server-Timing"))
+                .matches("total;dur=\\d+\\.\\d, db;dur=\\d+\\.\\d;desc=\"1 statements\"(, alloc;desc=\"\\d+ bytes\")?");
+    }
+
+    private void assertStatements(String method, String path, int selects, int inserts, int updates) {
+        Counts counts = SqlStatementCounter.forRequest(method, API + path);
+        assertThat(new int[]{counts.selects(), counts.inserts(), counts.updates(), counts.deletes()})
+                .as("selects, inserts, updates, deletes for %s %s:%n%s", method, path, counts)
+                .containsExactly(selects, inserts, updates, 0);
+    }
+
+    private void process(Long from, Long to, String amount, String type) {
+        ProcessTransactionRequest request = new ProcessTransactionRequest();
+        request.setFrom(from);
+        request.setTo(to);
+        request.setAmount(new BigDecimal(amount));
+        request.setType(type);
+        ResponseEntity<Map> response = restTemplate.postForEntity(baseUrl + "/accounts/process", request, Map.class);
+        assertThat(response.getStatusCode().is2xxSuccessful() || response.getStatusCode().is4xxClientError()).isTrue();
+    }
+
+    private Customer seedCustomer(String level) {
+        Customer customer = new Customer(uniqueName());
+        customer.setCustomerLevel(level);
+        return customerRepository.save(customer);
+    }
+
+    private Account seedAccount(Customer customer, String type, String balance) {
+        Account account = new Account();
+        account.setCustId(customer.getId());
+        account.setAccountType(type);
+        account.setBalance(new BigDecimal(balance));
+        return accountRepository.save(account);
+    }
+
+    private static String uniqueName() {
+        return "Query Count " + UUID.randomUUID();
+    }
+}
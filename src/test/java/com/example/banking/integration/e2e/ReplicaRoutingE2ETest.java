@@ -0,0 +1,133 @@
+package com.example.banking.integration.e2e;
+
+import com.example.banking.model.Account;
+import com.example.banking.model.AccountCreationRequest;
+import com.example.banking.model.Customer;
+import com.example.banking.model.CustomerCreationRequest;
+import com.example.banking.model.ProcessTransactionRequest;
+import com.example.banking.replication.ReadConsistencyFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Read/write split against a second in-memory database standing in for the replica. It gets the primary's
+ * schema but none of its data, so every read shows which of the two served it. H2 reports no WAL positions,
+ * so a read carrying a consistency token can never be matched to the replica and falls back to the primary.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                // Own database: a second context recreating the shared schema would reset the pooled id sequences
+                "spring.datasource.url=jdbc:h2:mem:routingprimarydb;DB_CLOSE_DELAY=-1",
+                "banking.datasource.replica-urls=" + ReplicaRoutingE2ETest.REPLICA_URL
+        })
+@ActiveProfiles("test")
+class ReplicaRoutingE2ETest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routingreplicadb;DB_CLOSE_DELAY=-1";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate primary;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp(@TempDir Path schemaDir) {
+        baseUrl = "http://localhost:" + port + "/api/v1";
+        replica.execute("DROP ALL OBJECTS");
+        String schema = schemaDir.resolve("schema.sql").toString().replace('\\', '/');
+        primary.execute("SCRIPT NODATA TO '" + schema + "'");
+        replica.execute("RUNSCRIPT FROM '" + schema + "'");
+    }
+
+    @Test
+    void readOnlyRequestsAreServedByTheReplica() {
+        String onPrimary = createCustomer(uniqueName("primary")).getName();
+        String onReplica = uniqueName("replica");
+        replica.update("INSERT INTO customers (name, name_normalized, customer_level) VALUES (?, ?, 'BRONZE')",
+                onReplica, onReplica.toLowerCase());
+
+        List<String> names = customerNames(new HttpHeaders());
+
+        assertThat(names).contains(onReplica).doesNotContain(onPrimary);
+    }
+
+    @Test
+    void readsWithAConsistencyTokenFallBackToThePrimaryWhenNoReplicaHasCaughtUp() {
+        String onPrimary = createCustomer(uniqueName("primary")).getName();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(ReadConsistencyFilter.CONSISTENCY_TOKEN_HEADER, "0/1");
+
+        assertThat(customerNames(headers)).contains(onPrimary);
+    }
+
+    @Test
+    void writesFollowingAReplicaReadInTheSameRequestGoToThePrimary() {
+        Customer customer = createCustomer(uniqueName("depositor"));
+        AccountCreationRequest accountRequest = new AccountCreationRequest();
+        accountRequest.setCustomerId(customer.getId());
+        accountRequest.setAccountType("CHECKING");
+        Account account = restTemplate.postForObject(baseUrl + "/accounts", accountRequest, Account.class);
+
+        ProcessTransactionRequest deposit = new ProcessTransactionRequest();
+        deposit.setTo(account.getId());
+        deposit.setAmount(new BigDecimal("75.00"));
+        deposit.setType("DEPOSIT");
+        HttpHeaders headers = new HttpHeaders();
+        // The key is looked up on the replica before the deposit is written
+        headers.set("Idempotency-Key", UUID.randomUUID().toString());
+        ResponseEntity<Map> response = restTemplate.exchange(baseUrl + "/accounts/process", HttpMethod.POST,
+                new HttpEntity<>(deposit, headers), Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        BigDecimal balance = primary.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, account.getId());
+        assertThat(balance).isEqualByComparingTo("75.00");
+        assertThat(replica.queryForObject("SELECT COUNT(*) FROM accounts", Integer.class)).isZero();
+    }
+
+    private List<String> customerNames(HttpHeaders headers) {
+        ResponseEntity<Customer[]> response = restTemplate.exchange(baseUrl + "/customers?limit=500", HttpMethod.GET,
+                new HttpEntity<>(headers), Customer[].class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return Arrays.stream(response.getBody()).map(Customer::getName).toList();
+    }
+
+    private Customer createCustomer(String name) {
+        CustomerCreationRequest request = new CustomerCreationRequest();
+        request.setName(name);
+        return restTemplate.postForObject(baseUrl + "/customers", request, Customer.class);
+    }
+
+    private static String uniqueName(String prefix) {
+        return prefix + "-" + UUID.randomUUID();
+    }
+}
@@ -9,6 +9,7 @@ import com.example.banking.model.Transaction;
 import com.example.banking.repository.AccountRepository;
 import com.example.banking.repository.CustomerRepository;
 import com.example.banking.repository.TransactionRepository;
+import com.example.banking.service.LedgerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +17,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
@@ -49,6 +53,9 @@ class TransactionE2ETest {
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private LedgerService ledgerService;
+
     private String baseUrl;
 
     @BeforeEach
@@ -398,6 +405,135 @@ class TransactionE2ETest {
         assertThat(updatedAccount.getBalance().compareTo(new BigDecimal("998999999.99"))).isEqualTo(0);
     }
 
+    @Test
+    void shouldNotDoublePostRetriedTransferWithIdempotencyKeyE2E() {
+        // Given
+        Customer customer = createCustomer("Retry Customer", "retry@example.com");
+        Account source = createAccount(customer.getId(), "CHECKING");
+        Account target = createAccount(customer.getId(), "SAVINGS");
+
+        ProcessTransactionRequest depositRequest = new ProcessTransactionRequest();
+        depositRequest.setTo(source.getId());
+        depositRequest.setAmount(BigDecimal.valueOf(500.00));
+        depositRequest.setType("DEPOSIT");
+        restTemplate.postForEntity(baseUrl + "/accounts/process", depositRequest, Map.class);
+
+        ProcessTransactionRequest transferRequest = new ProcessTransactionRequest();
+        transferRequest.setFrom(source.getId());
+        transferRequest.setTo(target.getId());
+        transferRequest.setAmount(BigDecimal.valueOf(200.00));
+        transferRequest.setType("TRANSFER");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Idempotency-Key", "transfer-" + System.nanoTime());
+
+        // When - The client retries the same transfer after a timeout
+        ResponseEntity<Map> first = restTemplate.postForEntity(
+                baseUrl + "/accounts/process", new HttpEntity<>(transferRequest, headers), Map.class);
+        ResponseEntity<Map> retry = restTemplate.postForEntity(
+                baseUrl + "/accounts/process", new HttpEntity<>(transferRequest, headers), Map.class);
+
+        // Then - The retry gets the original answer and the money moved once
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("false");
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(retry.getBody()).isEqualTo(first.getBody());
+
+        assertThat(getAccount(source.getId()).getBalance().compareTo(BigDecimal.valueOf(300.00))).isEqualTo(0);
+        assertThat(getAccount(target.getId()).getBalance().compareTo(BigDecimal.valueOf(200.00))).isEqualTo(0);
+
+        // A different transfer under the same key is refused rather than silently replayed
+        transferRequest.setAmount(BigDecimal.valueOf(50.00));
+        ResponseEntity<Map> reused = restTemplate.postForEntity(
+                baseUrl + "/accounts/process", new HttpEntity<>(transferRequest, headers), Map.class);
+        assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(reused.getBody().get("error")).isEqualTo("IDEMPOTENCY_KEY_REUSED");
+    }
+
+    @Test
+    void shouldProcessSubmittedTransactionAsynchronouslyE2E() throws InterruptedException {
+        // Given
+        Customer customer = createCustomer("Async Customer", "async@example.com");
+        Account account = createAccount(customer.getId(), "CHECKING");
+
+        ProcessTransactionRequest depositRequest = new ProcessTransactionRequest();
+        depositRequest.setTo(account.getId());
+        depositRequest.setAmount(BigDecimal.valueOf(250.00));
+        depositRequest.setType("DEPOSIT");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Prefer", "respond-async");
+
+        // When - The deposit is submitted without waiting for it
+        ResponseEntity<Map> accepted = restTemplate.postForEntity(
+                baseUrl + "/accounts/process", new HttpEntity<>(depositRequest, headers), Map.class);
+
+        // Then - The request is accepted with a handle, and polling reports the outcome
+        assertThat(accepted.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(accepted.getHeaders().getLocation()).isNotNull();
+        String handle = (String) accepted.getBody().get("handle");
+
+        Map status = null;
+        for (int attempt = 0; attempt < 100; attempt++) {
+            status = restTemplate.getForObject(baseUrl + "/transactions/" + handle + "/status", Map.class);
+            if ("COMPLETED".equals(status.get("state")) || "FAILED".equals(status.get("state"))) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        assertThat(status.get("state")).isEqualTo("COMPLETED");
+        assertThat(status.get("resultStatus")).isEqualTo(200);
+        assertThat(((Map) status.get("result")).get("success")).isEqualTo(true);
+
+        assertThat(getAccount(account.getId()).getBalance().compareTo(BigDecimal.valueOf(250.00))).isEqualTo(0);
+    }
+
+    @Test
+    void shouldReportTheExactBalanceOfAShardedAccountE2E() {
+        Customer merchant = createCustomer("Merchant", "merchant@example.com");
+        Account account = createAccount(merchant.getId(), "CHECKING");
+
+        ResponseEntity<Account> shardResponse = restTemplate.exchange(
+                baseUrl + "/accounts/" + account.getId() + "/balance-shards?count=4",
+                HttpMethod.PUT, null, Account.class);
+        assertThat(shardResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(shardResponse.getBody().getBalanceShards()).isEqualTo(4);
+
+        for (int i = 0; i < 3; i++) {
+            ProcessTransactionRequest deposit = new ProcessTransactionRequest();
+            deposit.setTo(account.getId());
+            deposit.setAmount(BigDecimal.valueOf(100.00));
+            deposit.setType("DEPOSIT");
+            assertThat(restTemplate.postForEntity(baseUrl + "/accounts/process", deposit, Map.class).getStatusCode())
+                    .isEqualTo(HttpStatus.OK);
+        }
+        assertThat(getAccount(account.getId()).getBalance().compareTo(BigDecimal.valueOf(300.00))).isEqualTo(0);
+        // The credits sit in the shards until the next fold, and the ledger already has them
+        assertThat(ledgerService.isReconciled(accountRepository.findById(account.getId()).orElseThrow())).isTrue();
+        ResponseEntity<Map> liveOverview = restTemplate.getForEntity(
+                baseUrl + "/customers/" + merchant.getId() + "/overview?live=true", Map.class);
+        assertThat(liveOverview.getBody().get("partial")).isEqualTo(false);
+        assertThat(new BigDecimal(liveOverview.getBody().get("totalBalance").toString())).isEqualByComparingTo("300");
+
+        // More than the account row held before any fold, so the debit has to pull the shards in
+        ProcessTransactionRequest withdrawal = new ProcessTransactionRequest();
+        withdrawal.setFrom(account.getId());
+        withdrawal.setAmount(BigDecimal.valueOf(250.00));
+        withdrawal.setType("WITHDRAWAL");
+        assertThat(restTemplate.postForEntity(baseUrl + "/accounts/process", withdrawal, Map.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(getAccount(account.getId()).getBalance().compareTo(BigDecimal.valueOf(50.00))).isEqualTo(0);
+        assertThat(ledgerService.isReconciled(accountRepository.findById(account.getId()).orElseThrow())).isTrue();
+
+        // Turning sharding off folds what is left back into the account
+        ResponseEntity<Account> unshardResponse = restTemplate.exchange(
+                baseUrl + "/accounts/" + account.getId() + "/balance-shards?count=0",
+                HttpMethod.PUT, null, Account.class);
+        assertThat(unshardResponse.getBody().getBalanceShards()).isZero();
+        assertThat(unshardResponse.getBody().getBalance().compareTo(BigDecimal.valueOf(50.00))).isEqualTo(0);
+    }
+
     // Helper methods
     private Customer createCustomer(String name, String email) {
         CustomerCreationRequest customerRequest = new CustomerCreationRequest();
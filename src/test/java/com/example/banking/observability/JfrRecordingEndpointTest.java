@@ -0,0 +1,67 @@
+package com.example.banking.observability;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrRecordingEndpointTest {
+
+    @TempDir
+    Path dumpDir;
+
+    private final JfrRecordingEndpoint endpoint = new JfrRecordingEndpoint();
+
+    @AfterEach
+    void stopRecording() {
+        endpoint.control("stop");
+    }
+
+    @Test
+    void startDumpStop_writesBankingEventsToFile() throws Exception {
+        ReflectionTestUtils.setField(endpoint, "dumpDir", dumpDir.toString());
+
+        Map<String, Object> started = endpoint.control("start");
+        assertEquals(true, started.get("running"));
+
+        TransactionProcessedEvent event = new TransactionProcessedEvent();
+        event.begin();
+        event.type = "DEPOSIT";
+        event.toAccount = 42;
+        event.outcome = TransactionProcessedEvent.SUCCESS;
+        event.commit();
+
+        Path file = Path.of((String) endpoint.control("dump").get("file"));
+        assertTrue(file.startsWith(dumpDir));
+
+        List<RecordedEvent> transactions = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.banking.TransactionProcessed"))
+                .toList();
+        assertEquals(1, transactions.size());
+        assertEquals(42L, transactions.get(0).getLong("toAccount"));
+        assertEquals("SUCCESS", transactions.get(0).getString("outcome"));
+
+        assertEquals(false, endpoint.control("stop").get("running"));
+    }
+
+    @Test
+    void dumpWithoutRecording_isRejected() {
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.control("dump"));
+    }
+
+    @Test
+    void unknownAction_isRejected() {
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.control("pause"));
+    }
+}
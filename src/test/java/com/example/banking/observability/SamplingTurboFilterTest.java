@@ -0,0 +1,38 @@
+package com.example.banking.observability;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MarkerFactory;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SamplingTurboFilterTest {
+
+    private final SamplingTurboFilter filter = new SamplingTurboFilter();
+
+    @Test
+    void sampledInfoEvents_passOneInRate() {
+        filter.setRate(10);
+
+        long passed = IntStream.range(0, 100)
+                .mapToObj(i -> filter.decide(LogMarkers.SAMPLED, null, Level.INFO, "Processing transaction", null, null))
+                .filter(reply -> reply == FilterReply.NEUTRAL)
+                .count();
+
+        assertEquals(10, passed);
+    }
+
+    @Test
+    void warningsAndUnmarkedEvents_areNeverSampled() {
+        filter.setRate(1_000);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(LogMarkers.SAMPLED, null, Level.WARN, "w", null, null));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, null, Level.INFO, "i", null, null));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(MarkerFactory.getMarker("OTHER"), null, Level.INFO, "i", null, null));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.banking.observability;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlowQueryLogTest {
+
+    interface NameLookup {
+        List<String> namesOfLevel(String level);
+    }
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(JdbcTimingDataSource.wrap(database));
+        jdbcTemplate.execute("CREATE TABLE people (name VARCHAR(50), level VARCHAR(10))");
+        jdbcTemplate.update("INSERT INTO people VALUES ('Alice', 'GOLD'), ('Bob', 'BRONZE')");
+        transactionManager = new DataSourceTransactionManager(jdbcTemplate.getDataSource());
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void slowCall_isCapturedRedactedAndExplainedOnRequest() {
+        SlowQueryLog log = new SlowQueryLog(jdbcTemplate, transactionManager, 0, 10, true);
+        NameLookup lookup = proxied(log, level -> jdbcTemplate.queryForList(
+                "SELECT name FROM people WHERE level = ? AND name <> 'Mallory' AND LENGTH(name) > 2", String.class, level));
+
+        assertEquals(List.of("Alice"), lookup.namesOfLevel("GOLD"));
+
+        SlowQuery slow = log.getEntries().get(0);
+        assertEquals("NameLookup.namesOfLevel", slow.getRepositoryMethod());
+        SlowQuery.CapturedStatement statement = slow.getStatements().get(0);
+        assertEquals("SELECT name FROM people WHERE level = ? AND name <> '?' AND LENGTH(name) > ?", statement.getSql());
+        assertEquals(List.of("String"), statement.getBindTypes());
+        assertFalse(statement.getSql().contains("GOLD"));
+
+        assertEquals(SlowQueryLog.NOT_REQUESTED, statement.getPlan());
+        assertEquals(1, meterRegistry.get(RepositoryMetricsInterceptor.METRIC_NAME)
+                .tag("repository", "NameLookup").tag("method", "namesOfLevel").timer().count());
+
+        SlowQuery explained = log.explain(slow.getId());
+
+        assertTrue(explained.getStatements().get(0).getPlan().toUpperCase().contains("PEOPLE"), statement.getPlan());
+        // Explained once; asking again returns the same plan without another run
+        String plan = statement.getPlan();
+        assertEquals(plan, log.explain(slow.getId()).getStatements().get(0).getPlan());
+    }
+
+    @Test
+    void explain_leavesUnexplainableStatementsAndUnknownEntriesAlone() {
+        SlowQueryLog log = new SlowQueryLog(jdbcTemplate, transactionManager, 0, 10, true);
+        NameLookup lookup = proxied(log, level -> {
+            jdbcTemplate.update("UPDATE people SET level = ? WHERE name = 'Bob'", level);
+            return List.of();
+        });
+        lookup.namesOfLevel("SILVER");
+
+        SlowQuery explained = log.explain(log.getEntries().get(0).getId());
+
+        assertEquals(SlowQueryLog.NOT_EXPLAINED, explained.getStatements().get(0).getPlan());
+        assertNull(log.explain(-1));
+    }
+
+    @Test
+    void fastCall_isTimedButNotCaptured() {
+        SlowQueryLog log = new SlowQueryLog(jdbcTemplate, transactionManager, 60_000, 10, true);
+        NameLookup lookup = proxied(log, level -> jdbcTemplate.queryForList("SELECT name FROM people WHERE level = ?", String.class, level));
+
+        lookup.namesOfLevel("BRONZE");
+
+        assertTrue(log.getEntries().isEmpty());
+        assertEquals(1, meterRegistry.get(RepositoryMetricsInterceptor.METRIC_NAME).timer().count());
+    }
+
+    @Test
+    void ringBuffer_keepsOnlyTheNewestEntries() {
+        SlowQueryLog log = new SlowQueryLog(jdbcTemplate, transactionManager, 0, 2, false);
+        NameLookup lookup = proxied(log, level -> jdbcTemplate.queryForList("SELECT name FROM people WHERE level = ?", String.class, level));
+
+        for (int i = 0; i < 5; i++) {
+            lookup.namesOfLevel("GOLD");
+        }
+
+        assertEquals(2, log.getEntries().size());
+        assertEquals(SlowQueryLog.NOT_EXPLAINED, log.getEntries().get(0).getStatements().get(0).getPlan());
+    }
+
+    @Test
+    void writesLockingReadsAndDataModifyingCtes_areNotExplained() {
+        assertTrue(SlowQueryLog.isExplainable("SELECT name FROM people WHERE level = 'UPDATE'"));
+        assertTrue(SlowQueryLog.isExplainable("WITH gold AS (SELECT name FROM people) SELECT updated_at FROM gold"));
+        assertFalse(SlowQueryLog.isExplainable("UPDATE people SET level = 'GOLD'"));
+        assertFalse(SlowQueryLog.isExplainable("SELECT * FROM account_balance_shards WHERE account_id = ? FOR UPDATE"));
+        assertFalse(SlowQueryLog.isExplainable("select * from people for no key update"));
+        assertFalse(SlowQueryLog.isExplainable("SELECT * FROM people FOR SHARE"));
+        assertFalse(SlowQueryLog.isExplainable(
+                "WITH inserted AS (INSERT INTO people VALUES (?, ?) ON CONFLICT DO NOTHING RETURNING name) SELECT name FROM inserted"));
+    }
+
+    private NameLookup proxied(SlowQueryLog log, NameLookup target) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addInterface(NameLookup.class);
+        proxyFactory.addAdvice(new RepositoryMetricsInterceptor(() -> meterRegistry, () -> log, NameLookup.class));
+        return (NameLookup) proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.banking.observability;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SqlCommentStatementInspectorTest {
+
+    private final List<String> seenByDelegate = new ArrayList<>();
+    private final SqlCommentStatementInspector inspector = new SqlCommentStatementInspector(sql -> {
+        seenByDelegate.add(sql);
+        return sql;
+    });
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        while (SqlCommentContext.currentOperation() != null) {
+            SqlCommentContext.exit();
+        }
+    }
+
+    @Test
+    void tagsWithRouteTemplateAndOutermostOperation() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/accounts/42/fees");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/accounts/{id}/fees");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        SqlCommentContext.enter("FeeCalculationService.handle");
+        SqlCommentContext.enter("LedgerService.append");
+
+        String sql = inspector.inspect("select a1_0.id from accounts a1_0 where a1_0.id=?");
+
+        assertEquals("select a1_0.id from accounts a1_0 where a1_0.id=? "
+                + "/* endpoint=POST /api/v1/accounts/{id}/fees, operation=FeeCalculationService.handle */", sql);
+        assertEquals(List.of("select a1_0.id from accounts a1_0 where a1_0.id=?"), seenByDelegate);
+    }
+
+    @Test
+    void backgroundWork_isTaggedWithOperationOnly() {
+        SqlCommentContext.enter("AccountSummaryService.onAccountChanged");
+
+        assertEquals("select 1 /* operation=AccountSummaryService.onAccountChanged */", inspector.inspect("select 1"));
+    }
+
+    @Test
+    void untrackedThreadAndUnmappedRequest_leaveSqlUntouched() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("GET", "/api/v1/accounts/7")));
+
+        assertEquals("select 1", inspector.inspect("select 1"));
+    }
+
+    @Test
+    void commentTerminatorsCannotBeInjected() {
+        SqlCommentContext.enter("Evil*/ drop table accounts; --");
+
+        assertEquals("select 1 /* operation=Evil_/ drop table accounts_ -- */", inspector.inspect("select 1"));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.banking.replication;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource upToDate = mock(DataSource.class);
+    private final DataSource lagging = mock(DataSource.class);
+    private ReplicaSet replicas;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        replaying(upToDate, "0/3000000");
+        replaying(lagging, "0/1000000");
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        dataSources.put("up-to-date", upToDate);
+        dataSources.put("lagging", lagging);
+        replicas = new ReplicaSet(dataSources);
+        replicas.refresh();
+        routing = new ReplicaRoutingDataSource(primary, replicas, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadConsistency.clear();
+    }
+
+    @Test
+    void writesGoToThePrimary() {
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readsAreSpreadOverTheReplicas() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Object first = routing.determineCurrentLookupKey();
+        Object second = routing.determineCurrentLookupKey();
+
+        assertEquals(Map.of("up-to-date", 1, "lagging", 1), Map.of(first, 1, second, 1));
+    }
+
+    @Test
+    void readsWithATokenGoToAReplicaThatHasCaughtUp() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadConsistency.requireLsn(ReadConsistency.parseLsn("0/2000000"));
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("up-to-date", routing.determineCurrentLookupKey());
+        }
+
+        ReadConsistency.requireLsn(ReadConsistency.parseLsn("0/4000000"));
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void hedgedReadPassesOverTheReplicaItsFirstAttemptUsed() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        AtomicReference<String> trace = new AtomicReference<>();
+        ReadConsistency.traceRouting(trace);
+        routing.determineCurrentLookupKey();
+        String firstTarget = trace.get();
+
+        ReadConsistency.avoid(firstTarget);
+        for (int i = 0; i < 4; i++) {
+            assertNotEquals(firstTarget, routing.determineCurrentLookupKey());
+        }
+    }
+
+    @Test
+    void unreachableReplicaIsSkipped() throws SQLException {
+        when(upToDate.getConnection()).thenThrow(new SQLException("connection refused"));
+        replicas.refresh();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("lagging", routing.determineCurrentLookupKey());
+        }
+    }
+
+    @Test
+    void readsThatMustBeFreshGoToThePrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Object key = ReadConsistency.onPrimary(routing::determineCurrentLookupKey);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, key);
+    }
+
+    @Test
+    void lsnRoundTripsThroughItsTextForm() {
+        long lsn = ReadConsistency.parseLsn("16/B374D848");
+
+        assertEquals(0x16B374D848L, lsn);
+        assertEquals("16/B374D848", ReadConsistency.formatLsn(lsn));
+        assertThrows(IllegalArgumentException.class, () -> ReadConsistency.parseLsn("16-B374D848"));
+        assertThrows(IllegalArgumentException.class, () -> ReadConsistency.parseLsn("/1"));
+    }
+
+    private static void replaying(DataSource replica, String lsn) throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getString(1)).thenReturn(lsn);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.banking.service;
+
+import com.example.banking.exception.AccountLockTimeoutException;
+import com.example.banking.model.Account;
+import com.example.banking.observability.AccountLockWaitEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PessimisticLockException;
+import jakarta.persistence.Query;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AccountLockStrategyTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Query query;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        lenient().when(query.setParameter(anyString(), any())).thenReturn(query);
+    }
+
+    @Test
+    void testRowLocks_areTakenInAscendingIdOrder() {
+        RowAccountLockStrategy strategy = wire(new RowAccountLockStrategy());
+        Account high = account(9L);
+        Account low = account(3L);
+
+        strategy.lock(List.of(high, low));
+
+        InOrder order = inOrder(query, entityManager);
+        order.verify(query).setParameter("timeout", "2000ms");
+        order.verify(entityManager).refresh(low, LockModeType.PESSIMISTIC_WRITE);
+        order.verify(entityManager).refresh(high, LockModeType.PESSIMISTIC_WRITE);
+        assertEquals(1, meterRegistry.get(TimedAccountLockStrategy.LOCK_WAIT_METRIC)
+                .tag("strategy", "row").tag("outcome", "acquired").timer().count());
+    }
+
+    @Test
+    void testAdvisoryLocks_areTakenInOrderBeforeTheAccountsAreReloaded() {
+        AdvisoryAccountLockStrategy strategy = wire(new AdvisoryAccountLockStrategy());
+        Account high = account(9L);
+        Account low = account(3L);
+
+        strategy.lock(List.of(high, low, high));
+
+        InOrder order = inOrder(query, entityManager);
+        order.verify(query).setParameter("accountId", 3L);
+        order.verify(query).setParameter("accountId", 9L);
+        order.verify(entityManager).refresh(low);
+        order.verify(entityManager).refresh(high);
+    }
+
+    @Test
+    void testLockTimeout_isReportedAndRecorded() {
+        RowAccountLockStrategy strategy = wire(new RowAccountLockStrategy());
+        Account account = account(5L);
+        doThrow(new PessimisticLockException("canceling statement due to lock timeout"))
+                .when(entityManager).refresh(account, LockModeType.PESSIMISTIC_WRITE);
+
+        AccountLockTimeoutException e = assertThrows(AccountLockTimeoutException.class, () -> strategy.lock(List.of(account)));
+
+        assertEquals(List.of(5L), e.getAccountIds());
+        assertEquals(1, meterRegistry.get(TimedAccountLockStrategy.LOCK_WAIT_METRIC)
+                .tag("strategy", "row").tag("outcome", "timeout").timer().count());
+    }
+
+    @Test
+    void testLockWait_isRecordedAsJfrEvent(@TempDir Path dir) throws Exception {
+        RowAccountLockStrategy strategy = wire(new RowAccountLockStrategy());
+        Account high = account(9L);
+        Account low = account(3L);
+        // The lower id is locked first and is not stubbed
+        lenient().doThrow(new PessimisticLockException("canceling statement due to lock timeout"))
+                .when(entityManager).refresh(high, LockModeType.PESSIMISTIC_WRITE);
+
+        Path file = dir.resolve("locks.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(AccountLockWaitEvent.class);
+            recording.start();
+            assertThrows(AccountLockTimeoutException.class, () -> strategy.lock(List.of(high, low)));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> waits = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.banking.AccountLockWait"))
+                .toList();
+        assertEquals(1, waits.size());
+        assertEquals("row", waits.get(0).getString("strategy"));
+        assertEquals("3,9", waits.get(0).getString("accountIds"));
+        assertEquals(AccountLockWaitEvent.TIMEOUT, waits.get(0).getString("outcome"));
+    }
+
+    @Test
+    void testNothingToLock_issuesNoStatements() {
+        RowAccountLockStrategy strategy = wire(new RowAccountLockStrategy());
+
+        strategy.lock(List.of());
+
+        verify(entityManager, never()).refresh(any(), eq(LockModeType.PESSIMISTIC_WRITE));
+        verifyNoInteractions(query);
+    }
+
+    private <T extends TimedAccountLockStrategy> T wire(T strategy) {
+        ReflectionTestUtils.setField(strategy, "entityManager", entityManager);
+        ReflectionTestUtils.setField(strategy, "meterRegistry", meterRegistry);
+        return strategy;
+    }
+
+    private Account account(long id) {
+        Account account = new Account();
+        account.setId(id);
+        return account;
+    }
+}
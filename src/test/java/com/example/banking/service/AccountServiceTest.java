@@ -1,5 +1,7 @@
 package com.example.banking.service;
 
+import com.example.banking.cache.CacheInvalidationBus;
+import com.example.banking.cache.LocalCache;
 import com.example.banking.model.Account;
 import com.example.banking.model.AccountCreationRequest;
 import com.example.banking.model.Transaction;
@@ -11,15 +13,25 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +43,25 @@ public class AccountServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AccountLockStrategy accountLockStrategy;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Spy
+    private BalanceShardService balanceShardService = new BalanceShardService();
+
+    // Disabled by default, so reads run inline
+    @Spy
+    private HedgedReadExecutor hedgedReadExecutor = new HedgedReadExecutor();
+
     @InjectMocks
     private AccountService accountService;
 
@@ -40,6 +71,7 @@ public class AccountServiceTest {
         // we need to mock it and set it using ReflectionTestUtils.
         EmailNotificationService mockNotificationService = org.mockito.Mockito.mock(EmailNotificationService.class);
         ReflectionTestUtils.setField(accountService, "notificationService", mockNotificationService);
+        ReflectionTestUtils.setField(accountService, "accountCache", new LocalCache<Account>("account", 100, Duration.ofMinutes(5)));
     }
 
     @Test
@@ -70,7 +102,46 @@ public class AccountServiceTest {
         when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
 
         Account foundAccount = accountService.getAccount(1L);
-        assertEquals(account, foundAccount);
+        assertEquals(account.getId(), foundAccount.getId());
+    }
+
+    @Test
+    void testGetAccount_servedFromCacheUntilChanged() {
+        Account account = new Account();
+        account.setId(1L);
+        account.setBalance(new BigDecimal("100"));
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+
+        accountService.getAccount(1L).setBalance(new BigDecimal("999"));
+        assertEquals(new BigDecimal("100"), accountService.getAccount(1L).getBalance());
+        verify(accountRepository, times(1)).findById(1L);
+
+        @SuppressWarnings("unchecked")
+        LocalCache<Account> accountCache = (LocalCache<Account>) ReflectionTestUtils.getField(accountService, "accountCache");
+        doAnswer(invocation -> {
+            accountCache.evict(invocation.getArgument(1));
+            return null;
+        }).when(cacheInvalidationBus).invalidate(eq(accountCache), any());
+        accountService.onAccountChanged(new AccountChangedEvent(List.of(1L)));
+        accountService.getAccount(1L);
+        verify(accountRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testGetAccount_shardCreditsKeepTheCachedRowAndShowTheCurrentTotal() {
+        Account account = new Account();
+        account.setId(1L);
+        account.setBalance(new BigDecimal("100"));
+        account.setBalanceShards(4);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        doReturn(new BigDecimal("130"), new BigDecimal("160")).when(balanceShardService).totalBalance(any());
+
+        assertEquals(new BigDecimal("130"), accountService.getAccount(1L).getBalance());
+        accountService.onAccountChanged(new AccountChangedEvent(List.of(1L), Set.of(1L)));
+
+        assertEquals(new BigDecimal("160"), accountService.getAccount(1L).getBalance());
+        verify(accountRepository, times(1)).findById(1L);
+        verify(cacheInvalidationBus).invalidate(any(), eq(List.of()));
     }
 
     @Test
@@ -228,6 +299,96 @@ public class AccountServiceTest {
         assertEquals(new BigDecimal("70"), toAccount.getBalance());
     }
 
+    @Test
+    void testProcessTransaction_transferLocksBothAccounts() {
+        Account fromAccount = new Account();
+        fromAccount.setId(1L);
+        fromAccount.setBalance(new BigDecimal("100"));
+
+        Account toAccount = new Account();
+        toAccount.setId(2L);
+        toAccount.setBalance(new BigDecimal("50"));
+
+        ProcessTransactionRequest request = new ProcessTransactionRequest();
+        request.setFrom(1L);
+        request.setTo(2L);
+        request.setAmount(new BigDecimal("20"));
+        request.setType("TRANSFER");
+
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findById(2L)).thenReturn(Optional.of(toAccount));
+
+        assertEquals(true, accountService.processTransaction(request));
+        verify(accountLockStrategy).lock(List.of(fromAccount, toAccount));
+    }
+
+    @Test
+    void testProcessTransaction_depositToShardedAccountGoesToAShard() {
+        Account toAccount = new Account();
+        toAccount.setId(2L);
+        toAccount.setBalance(new BigDecimal("50"));
+        toAccount.setBalanceShards(4);
+
+        ProcessTransactionRequest request = new ProcessTransactionRequest();
+        request.setTo(2L);
+        request.setAmount(new BigDecimal("20"));
+        request.setType("DEPOSIT");
+
+        when(accountRepository.findById(2L)).thenReturn(Optional.of(toAccount));
+        doReturn(true).when(balanceShardService).credit(toAccount, new BigDecimal("20"));
+
+        boolean result = accountService.processTransaction(request);
+
+        assertEquals(true, result);
+        // The accounts row is not touched; the credit is in a shard
+        assertEquals(new BigDecimal("50"), toAccount.getBalance());
+        verify(balanceShardService).credit(toAccount, new BigDecimal("20"));
+        // Shard increments are atomic, so the hot account is not locked
+        verify(accountLockStrategy).lock(List.of());
+    }
+
+    @Test
+    void testProcessTransaction_withdrawalFromShardedAccountConsolidatesFirst() {
+        Account fromAccount = new Account();
+        fromAccount.setId(1L);
+        fromAccount.setBalance(new BigDecimal("10"));
+        fromAccount.setBalanceShards(4);
+
+        ProcessTransactionRequest request = new ProcessTransactionRequest();
+        request.setFrom(1L);
+        request.setAmount(new BigDecimal("20"));
+        request.setType("WITHDRAWAL");
+
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(fromAccount));
+        // Stands in for folding 90 held in the shards into the account balance
+        doAnswer(invocation -> {
+            fromAccount.setBalance(new BigDecimal("100"));
+            return null;
+        }).when(balanceShardService).consolidate(fromAccount, new BigDecimal("20"));
+
+        boolean result = accountService.processTransaction(request);
+
+        assertEquals(true, result);
+        assertEquals(new BigDecimal("80"), fromAccount.getBalance());
+    }
+
+    @Test
+    void testProcessTransaction_withdrawalFromUnshardedAccountDoesNotConsolidate() {
+        Account fromAccount = new Account();
+        fromAccount.setId(1L);
+        fromAccount.setBalance(new BigDecimal("100"));
+
+        ProcessTransactionRequest request = new ProcessTransactionRequest();
+        request.setFrom(1L);
+        request.setAmount(new BigDecimal("20"));
+        request.setType("WITHDRAWAL");
+
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(fromAccount));
+
+        assertEquals(true, accountService.processTransaction(request));
+        verify(balanceShardService, never()).consolidate(any(), any());
+    }
+
     @Test
     void testProcessTransaction_withdrawal_success() {
         Account fromAccount = new Account();
@@ -319,6 +480,9 @@ public class AccountServiceTest {
 
         accountService.processTransaction(request);
 
+        // The notification reuses the account the withdrawal loads instead of looking it up again
+        verify(accountRepository, times(1)).findById(1L);
+
         // We can't easily test the System.out, but we can verify the mock notification service was called
         // To do this properly, EmailNotificationService should be a real injected bean.
         // For now, we know this code path is executed. Let's focus on other gaps.
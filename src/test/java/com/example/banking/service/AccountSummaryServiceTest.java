@@ -0,0 +1,193 @@
+package com.example.banking.service;
+
+import com.example.banking.model.Account;
+import com.example.banking.model.AccountSummary;
+import com.example.banking.model.Customer;
+import com.example.banking.model.CustomerOverview;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.AccountSummaryRepository;
+import com.example.banking.repository.CustomerRepository;
+import com.example.banking.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AccountSummaryServiceTest {
+
+    @Mock
+    private AccountSummaryRepository accountSummaryRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AccountSummaryService accountSummaryService;
+
+    @Test
+    void testOnAccountChanged_coalescesRefreshesQueuedForTheSameAccount() {
+        List<Runnable> queued = new ArrayList<>();
+        ReflectionTestUtils.setField(accountSummaryService, "projectionExecutor", (Executor) queued::add);
+        when(accountRepository.findById(1L)).thenReturn(Optional.empty());
+
+        for (int i = 0; i < 5; i++) {
+            accountSummaryService.onAccountChanged(new AccountChangedEvent(List.of(1L), Set.of(1L)));
+        }
+        assertEquals(1, queued.size());
+        queued.remove(0).run();
+        verify(accountRepository).findById(1L);
+
+        // A change after the refresh started needs a refresh of its own
+        accountSummaryService.onAccountChanged(new AccountChangedEvent(List.of(1L)));
+        assertEquals(1, queued.size());
+    }
+
+    @Test
+    void testRefresh_buildsSummaryFromSourceTables() {
+        Account account = new Account();
+        account.setId(1L);
+        account.setCustId(5L);
+        account.setAccountType("CHECKING");
+        account.setBalance(new BigDecimal("250.00"));
+
+        Customer customer = new Customer("Jane", "jane@example.com", "123");
+        customer.setCustomerLevel("SILVER");
+
+        Transaction deposit = new Transaction();
+        deposit.setId(9L);
+        deposit.setType("DEPOSIT");
+        deposit.setValue(new BigDecimal("300.00"));
+
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        when(accountSummaryRepository.findById(1L)).thenReturn(Optional.empty());
+        when(customerRepository.findById(5L)).thenReturn(Optional.of(customer));
+        when(transactionRepository.sumCreditsSince(eq(1L), any())).thenReturn(new BigDecimal("300.00"));
+        when(transactionRepository.sumDebitsSince(eq(1L), any())).thenReturn(new BigDecimal("50.00"));
+        when(transactionRepository.findRecentByAccountId(eq(1L), any())).thenReturn(List.of(deposit));
+
+        accountSummaryService.refresh(1L);
+
+        ArgumentCaptor<AccountSummary> captor = ArgumentCaptor.forClass(AccountSummary.class);
+        verify(accountSummaryRepository).save(captor.capture());
+        AccountSummary summary = captor.getValue();
+        assertEquals(5L, summary.getCustomerId());
+        assertEquals("SILVER", summary.getCustomerLevel());
+        assertEquals(new BigDecimal("250.00"), summary.getBalance());
+        assertEquals(new BigDecimal("300.00"), summary.getMonthToDateCredits());
+        assertEquals(new BigDecimal("50.00"), summary.getMonthToDateDebits());
+        assertEquals(1, summary.getRecentTransactions().size());
+        assertEquals(9L, summary.getRecentTransactions().get(0).getId());
+    }
+
+    @Test
+    void testRefresh_deletedAccountDropsSummary() {
+        AccountSummary stale = new AccountSummary();
+        stale.setAccountId(1L);
+        when(accountRepository.findById(1L)).thenReturn(Optional.empty());
+        when(accountSummaryRepository.findById(1L)).thenReturn(Optional.of(stale));
+
+        accountSummaryService.refresh(1L);
+
+        verify(accountSummaryRepository).delete(stale);
+        verify(accountSummaryRepository, never()).save(any());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void testGetCustomerOverview_singleReadModelQuery() {
+        AccountSummary checking = summary(1L, "100.00", YearMonth.now().toString());
+        AccountSummary savings = summary(2L, "900.00", YearMonth.now().minusMonths(1).toString());
+        savings.setMonthToDateCredits(new BigDecimal("40.00"));
+        when(accountSummaryRepository.findByCustomerIdOrderByAccountId(5L)).thenReturn(List.of(checking, savings));
+
+        CustomerOverview overview = accountSummaryService.getCustomerOverview(5L);
+
+        assertEquals("Jane", overview.getCustomerName());
+        assertEquals(0, new BigDecimal("1000.00").compareTo(overview.getTotalBalance()));
+        assertEquals(2, overview.getAccounts().size());
+        // Totals from a previous month are not reported as month-to-date, and the stored summary is left alone
+        assertEquals(BigDecimal.ZERO, overview.getAccounts().get(1).getMonthToDateCredits());
+        assertEquals(YearMonth.now().toString(), overview.getAccounts().get(1).getMonthToDateMonth());
+        assertEquals(new BigDecimal("40.00"), savings.getMonthToDateCredits());
+        verify(customerRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testGetCustomerOverview_unknownCustomer() {
+        when(accountSummaryRepository.findByCustomerIdOrderByAccountId(4L)).thenReturn(List.of());
+        when(customerRepository.findById(4L)).thenReturn(Optional.empty());
+
+        NoSuchElementException e = assertThrows(NoSuchElementException.class, () -> accountSummaryService.getCustomerOverview(4L));
+        assertEquals("Customer 4 not found", e.getMessage());
+    }
+
+    @Test
+    void testRefreshSeededSummaries_queuesEverySummaryAMigrationSeeded() {
+        List<Runnable> queued = new ArrayList<>();
+        ReflectionTestUtils.setField(accountSummaryService, "projectionExecutor", (Executor) queued::add);
+        when(accountSummaryRepository.findAccountIdsNeverRefreshed()).thenReturn(List.of(1L, 2L));
+
+        accountSummaryService.refreshSeededSummaries();
+
+        assertEquals(2, queued.size());
+    }
+
+    @Test
+    void testGetCustomerOverview_customerWithoutAccounts() {
+        Customer customer = new Customer("Sam");
+        when(accountSummaryRepository.findByCustomerIdOrderByAccountId(3L)).thenReturn(List.of());
+        when(customerRepository.findById(3L)).thenReturn(Optional.of(customer));
+
+        CustomerOverview overview = accountSummaryService.getCustomerOverview(3L);
+
+        assertEquals("Sam", overview.getCustomerName());
+        assertEquals("BRONZE", overview.getCustomerLevel());
+        assertTrue(overview.getAccounts().isEmpty());
+    }
+
+    private AccountSummary summary(Long accountId, String balance, String month) {
+        AccountSummary summary = new AccountSummary();
+        summary.setAccountId(accountId);
+        summary.setCustomerId(5L);
+        summary.setCustomerName("Jane");
+        summary.setCustomerLevel("SILVER");
+        summary.setBalance(new BigDecimal(balance));
+        summary.setMonthToDateMonth(month);
+        summary.setMonthToDateCredits(BigDecimal.ONE);
+        summary.setMonthToDateDebits(BigDecimal.ONE);
+        return summary;
+    }
+}
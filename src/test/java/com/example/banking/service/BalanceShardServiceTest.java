@@ -0,0 +1,186 @@
+package com.example.banking.service;
+
+import com.example.banking.exception.BalanceShardsChangingException;
+import com.example.banking.model.Account;
+import com.example.banking.model.AccountBalanceShard;
+import com.example.banking.repository.AccountBalanceShardRepository;
+import com.example.banking.repository.AccountRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BalanceShardServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountBalanceShardRepository shardRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private AccountLockStrategy accountLockStrategy;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private BalanceShardService balanceShardService;
+
+    @Test
+    void testCredit_addsToOneOfTheAccountsShards() {
+        Account account = shardedAccount("100", 4);
+        when(shardRepository.addToShard(eq(1L), anyInt(), eq(new BigDecimal("25")))).thenReturn(1);
+
+        balanceShardService.credit(account, new BigDecimal("25"));
+
+        ArgumentCaptor<Integer> shardNo = ArgumentCaptor.forClass(Integer.class);
+        verify(shardRepository).addToShard(eq(1L), shardNo.capture(), eq(new BigDecimal("25")));
+        assertTrue(shardNo.getValue() >= 0 && shardNo.getValue() < 4);
+        assertEquals(new BigDecimal("100"), account.getBalance());
+    }
+
+    @Test
+    void testCredit_retriesOverTheCommittedShardCountWhenShardsWereDropped() {
+        // Read with 4 shards, but a concurrent configure left only 2
+        Account account = shardedAccount("100", 4);
+        when(shardRepository.addToShard(eq(1L), anyInt(), eq(new BigDecimal("25")))).thenAnswer(invocation ->
+                invocation.<Integer>getArgument(1) < 2 ? 1 : 0);
+        when(accountRepository.findBalanceShardsById(1L)).thenReturn(Optional.of(2));
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(balanceShardService.credit(account, new BigDecimal("25")));
+        }
+        verifyNoInteractions(accountLockStrategy);
+    }
+
+    @Test
+    void testCredit_creditsTheAccountWhenShardingWasTurnedOff() {
+        Account account = shardedAccount("100", 4);
+        when(shardRepository.addToShard(eq(1L), anyInt(), eq(new BigDecimal("25")))).thenReturn(0);
+        when(accountRepository.findBalanceShardsById(1L)).thenReturn(Optional.of(0));
+
+        assertFalse(balanceShardService.credit(account, new BigDecimal("25")));
+
+        verify(accountLockStrategy).lock(List.of(account));
+        verify(entityManager).refresh(account);
+    }
+
+    @Test
+    void testCredit_givesUpWhenTheShardsKeepChanging() {
+        Account account = shardedAccount("100", 4);
+        when(shardRepository.addToShard(eq(1L), anyInt(), eq(new BigDecimal("25")))).thenReturn(0);
+        when(accountRepository.findBalanceShardsById(1L)).thenReturn(Optional.of(4));
+
+        assertThrows(BalanceShardsChangingException.class, () -> balanceShardService.credit(account, new BigDecimal("25")));
+    }
+
+    @Test
+    void testConsolidate_foldsShardsWhenTheBalanceFallsShort() {
+        Account account = shardedAccount("10", 2);
+        List<AccountBalanceShard> shards = List.of(shard(0, "30"), shard(1, "60"));
+        when(shardRepository.findByAccountIdForUpdate(1L)).thenReturn(shards);
+
+        balanceShardService.consolidate(account, new BigDecimal("50"));
+
+        verify(entityManager).refresh(account);
+        assertEquals(new BigDecimal("100"), account.getBalance());
+        assertEquals(0, shards.get(0).getBalance().signum());
+        assertEquals(0, shards.get(1).getBalance().signum());
+    }
+
+    @Test
+    void testConsolidate_leavesShardsAloneWhenTheBalanceCovers() {
+        Account account = shardedAccount("80", 2);
+        List<AccountBalanceShard> shards = List.of(shard(0, "30"), shard(1, "60"));
+        when(shardRepository.findByAccountIdForUpdate(1L)).thenReturn(shards);
+
+        balanceShardService.consolidate(account, new BigDecimal("50"));
+
+        assertEquals(new BigDecimal("80"), account.getBalance());
+        assertEquals(new BigDecimal("30"), shards.get(0).getBalance());
+    }
+
+    @Test
+    void testWithTotalBalance_returnsACopyCarryingTheShards() {
+        Account account = shardedAccount("10", 2);
+        when(shardRepository.totalBalance(1L)).thenReturn(new BigDecimal("100"));
+
+        Account view = balanceShardService.withTotalBalance(account);
+
+        assertNotSame(account, view);
+        assertEquals(new BigDecimal("100"), view.getBalance());
+        assertEquals(new BigDecimal("10"), account.getBalance());
+    }
+
+    @Test
+    void testWithTotalBalance_unshardedAccountIsReturnedAsIs() {
+        Account account = shardedAccount("10", 0);
+
+        assertSame(account, balanceShardService.withTotalBalance(account));
+        verifyNoInteractions(shardRepository);
+    }
+
+    @Test
+    void testConfigure_foldsExistingShardsAndCreatesTheMissingOnes() {
+        Account account = shardedAccount("10", 1);
+        List<AccountBalanceShard> shards = List.of(shard(0, "40"));
+        when(shardRepository.findByAccountIdForUpdate(1L)).thenReturn(shards);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.save(account)).thenReturn(account);
+
+        balanceShardService.configure(1L, 3);
+
+        verify(accountLockStrategy).lock(List.of(account));
+        assertEquals(new BigDecimal("50"), account.getBalance());
+        assertEquals(3, account.getBalanceShards());
+        verify(entityManager, times(2)).persist(any(AccountBalanceShard.class));
+        verify(eventPublisher).publishEvent(new AccountChangedEvent(List.of(1L)));
+    }
+
+    @Test
+    void testConfigure_rejectsAnOutOfRangeCount() {
+        assertThrows(IllegalArgumentException.class, () -> balanceShardService.configure(1L, 65));
+        assertThrows(IllegalArgumentException.class, () -> balanceShardService.configure(1L, -1));
+    }
+
+    private Account shardedAccount(String balance, int shards) {
+        Account account = new Account();
+        account.setId(1L);
+        account.setBalance(new BigDecimal(balance));
+        account.setBalanceShards(shards);
+        return account;
+    }
+
+    private AccountBalanceShard shard(int shardNo, String balance) {
+        AccountBalanceShard shard = AccountBalanceShard.empty(1L, shardNo);
+        shard.setBalance(new BigDecimal(balance));
+        return shard;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.banking.service;
+
+import com.example.banking.model.Account;
+import com.example.banking.model.Customer;
+import com.example.banking.model.CustomerOverview;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.AccountBalanceShardRepository;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.CustomerRepository;
+import com.example.banking.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CustomerOverviewServiceTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountBalanceShardRepository accountBalanceShardRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CustomerOverviewService customerOverviewService;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        ReflectionTestUtils.setField(customerOverviewService, "overviewExecutor", executor);
+        ReflectionTestUtils.setField(customerOverviewService, "timeoutMs", 300L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testGetLiveOverview_allSubQueriesComplete() {
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer()));
+        when(accountRepository.findAccountsByCustomerId(1L)).thenReturn(List.of(account(10L, "100"), account(11L, "50")));
+        when(transactionRepository.findRecentByAccountId(eq(10L), any())).thenReturn(List.of(transaction(1L)));
+        when(transactionRepository.findRecentByAccountId(eq(11L), any())).thenReturn(List.of());
+
+        CustomerOverview overview = customerOverviewService.getLiveOverview(1L);
+
+        assertFalse(overview.isPartial());
+        assertEquals("Jane", overview.getCustomerName());
+        assertEquals(2, overview.getAccounts().size());
+        assertEquals(1, overview.getAccounts().get(0).getRecentTransactions().size());
+        assertEquals(0, new BigDecimal("150").compareTo(overview.getTotalBalance()));
+    }
+
+    @Test
+    void testGetLiveOverview_slowSubQueryReturnsPartialResult() {
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer()));
+        when(accountRepository.findAccountsByCustomerId(1L)).thenReturn(List.of(account(10L, "100"), account(11L, "50")));
+        when(transactionRepository.findRecentByAccountId(eq(10L), any())).thenReturn(List.of(transaction(1L)));
+        when(transactionRepository.findRecentByAccountId(eq(11L), any())).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return List.of();
+        });
+
+        long start = System.nanoTime();
+        CustomerOverview overview = customerOverviewService.getLiveOverview(1L);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 1_500, "Overview should return at the deadline, took " + elapsedMs + "ms");
+        assertTrue(overview.isPartial());
+        assertEquals(List.of("transactions:11"), overview.getTimedOut());
+        assertEquals(2, overview.getAccounts().size());
+        assertEquals(1, overview.getAccounts().get(0).getRecentTransactions().size());
+    }
+
+    @Test
+    void testGetLiveOverview_shardedBalancesComeFromOneGroupedQuery() {
+        Account hot = account(10L, "100");
+        hot.setBalanceShards(4);
+        Account other = account(11L, "50");
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer()));
+        when(accountRepository.findAccountsByCustomerId(1L)).thenReturn(List.of(hot, other));
+        when(transactionRepository.findRecentByAccountId(any(Long.class), any())).thenReturn(List.of());
+        when(accountBalanceShardRepository.totalBalances(List.of(10L))).thenReturn(List.of(total(10L, "130")));
+
+        CustomerOverview overview = customerOverviewService.getLiveOverview(1L);
+
+        assertFalse(overview.isPartial());
+        assertEquals(0, new BigDecimal("130").compareTo(overview.getAccounts().get(0).getBalance()));
+        assertEquals(0, new BigDecimal("180").compareTo(overview.getTotalBalance()));
+        verify(accountBalanceShardRepository, never()).totalBalance(any(Long.class));
+    }
+
+    @Test
+    void testGetLiveOverview_lateShardTotalsLeaveTheBalanceOut() {
+        Account hot = account(10L, "100");
+        hot.setBalanceShards(4);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer()));
+        when(accountRepository.findAccountsByCustomerId(1L)).thenReturn(List.of(hot));
+        when(transactionRepository.findRecentByAccountId(eq(10L), any())).thenReturn(List.of());
+        when(accountBalanceShardRepository.totalBalances(List.of(10L))).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return List.of(total(10L, "130"));
+        });
+
+        CustomerOverview overview = customerOverviewService.getLiveOverview(1L);
+
+        assertTrue(overview.isPartial());
+        assertEquals(List.of("balances"), overview.getTimedOut());
+        assertNull(overview.getAccounts().get(0).getBalance());
+    }
+
+    @Test
+    void testGetLiveOverview_failedSubQueryIsListedSeparately() {
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer()));
+        when(accountRepository.findAccountsByCustomerId(1L)).thenReturn(List.of(account(10L, "100"), account(11L, "50")));
+        when(transactionRepository.findRecentByAccountId(eq(10L), any())).thenReturn(List.of(transaction(1L)));
+        when(transactionRepository.findRecentByAccountId(eq(11L), any())).thenThrow(new IllegalStateException("connection reset"));
+
+        CustomerOverview overview = customerOverviewService.getLiveOverview(1L);
+
+        assertTrue(overview.isPartial());
+        assertEquals(List.of("transactions:11"), overview.getFailed());
+        assertEquals(List.of(), overview.getTimedOut());
+        assertEquals(1, overview.getAccounts().get(0).getRecentTransactions().size());
+    }
+
+    @Test
+    void testGetLiveOverview_rejectedSubQueryIsLeftOut() {
+        // A full pool takes the customer, the accounts and the first account's transactions, then rejects
+        AtomicInteger submitted = new AtomicInteger();
+        Executor saturated = task -> {
+            if (submitted.incrementAndGet() > 3) {
+                throw new RejectedExecutionException("queue full");
+            }
+            executor.execute(task);
+        };
+        ReflectionTestUtils.setField(customerOverviewService, "overviewExecutor", saturated);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer()));
+        when(accountRepository.findAccountsByCustomerId(1L)).thenReturn(List.of(account(10L, "100"), account(11L, "50")));
+        when(transactionRepository.findRecentByAccountId(eq(10L), any())).thenReturn(List.of(transaction(1L)));
+
+        CustomerOverview overview = customerOverviewService.getLiveOverview(1L);
+
+        assertTrue(overview.isPartial());
+        assertEquals(List.of("transactions:11"), overview.getFailed());
+        assertEquals(1, overview.getAccounts().get(0).getRecentTransactions().size());
+        assertEquals(0, new BigDecimal("150").compareTo(overview.getTotalBalance()));
+    }
+
+    @Test
+    void testGetLiveOverview_unknownCustomer() {
+        when(customerRepository.findById(9L)).thenReturn(Optional.empty());
+        // The account query runs concurrently and may or may not start before the customer lookup fails
+        lenient().when(accountRepository.findAccountsByCustomerId(9L)).thenReturn(List.of());
+
+        assertThrows(NoSuchElementException.class, () -> customerOverviewService.getLiveOverview(9L));
+    }
+
+    private Customer customer() {
+        Customer customer = new Customer("Jane");
+        customer.setId(1L);
+        return customer;
+    }
+
+    private Account account(Long id, String balance) {
+        Account account = new Account();
+        account.setId(id);
+        account.setCustId(1L);
+        account.setBalance(new BigDecimal(balance));
+        return account;
+    }
+
+    private AccountBalanceShardRepository.AccountTotal total(Long accountId, String total) {
+        return new AccountBalanceShardRepository.AccountTotal() {
+            @Override
+            public Long getAccountId() {
+                return accountId;
+            }
+
+            @Override
+            public BigDecimal getTotal() {
+                return new BigDecimal(total);
+            }
+        };
+    }
+
+    private Transaction transaction(Long id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setType("DEPOSIT");
+        transaction.setValue(BigDecimal.TEN);
+        return transaction;
+    }
+}
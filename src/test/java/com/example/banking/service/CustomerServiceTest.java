@@ -1,18 +1,30 @@
 package com.example.banking.service;
 
+import com.example.banking.cache.LocalCache;
 import com.example.banking.model.Customer;
 import com.example.banking.model.CustomerCreationRequest;
+import com.example.banking.model.CustomerInsertResult;
 import com.example.banking.repository.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,9 +33,21 @@ public class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    // Disabled by default, so reads run inline
+    @Spy
+    private HedgedReadExecutor hedgedReadExecutor = new HedgedReadExecutor();
+
     @InjectMocks
     private CustomerService customerService;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(customerService, "customerCache", new LocalCache<Customer>("customer", 100, Duration.ofMinutes(5)));
+    }
+
     @Test
     void testCreateCustomer_success() {
         CustomerCreationRequest request = new CustomerCreationRequest();
@@ -33,7 +57,7 @@ public class CustomerServiceTest {
         customer.setName("John Doe");
         customer.setCustomerLevel("BRONZE");
 
-        when(customerRepository.save(any(Customer.class))).thenReturn(customer);
+        when(customerRepository.insertIfAbsent(any(Customer.class))).thenReturn(new CustomerInsertResult(customer, true));
 
         Customer createdCustomer = customerService.createCustomer(request);
 
@@ -44,17 +68,50 @@ public class CustomerServiceTest {
     @Test
     void testCreateCustomer_noName() {
         CustomerCreationRequest request = new CustomerCreationRequest();
+        when(customerRepository.insertIfAbsent(any(Customer.class))).thenReturn(new CustomerInsertResult(null, true));
         Customer createdCustomer = customerService.createCustomer(request);
         assertNull(createdCustomer);
     }
 
+    @Test
+    void testCreateCustomer_nameConflict() {
+        CustomerCreationRequest request = new CustomerCreationRequest();
+        request.setName("  john DOE ");
+
+        Customer existing = new Customer("John Doe");
+        existing.setId(1L);
+        when(customerRepository.insertIfAbsent(any(Customer.class))).thenReturn(new CustomerInsertResult(existing, false));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> customerService.createCustomer(request));
+        assertTrue(e.getMessage().contains("already exists"));
+    }
+
+    @Test
+    void testNormalizeName() {
+        assertEquals("john doe", Customer.normalizeName("  John DOE "));
+        assertNull(Customer.normalizeName(null));
+    }
+
     @Test
     void testGetCustomer_found() {
         Customer customer = new Customer();
         customer.setId(1L);
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
         Customer foundCustomer = customerService.getCustomer(1L);
-        assertEquals(customer, foundCustomer);
+        assertEquals(customer.getId(), foundCustomer.getId());
+    }
+
+    @Test
+    void testGetCustomer_secondReadIsServedFromCache() {
+        Customer customer = new Customer("John Doe");
+        customer.setId(1L);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+
+        customerService.getCustomer(1L).setName("Changed by the caller");
+        Customer cached = customerService.getCustomer(1L);
+
+        assertEquals("John Doe", cached.getName());
+        verify(customerRepository, times(1)).findById(1L);
     }
 
     @Test
@@ -67,13 +124,41 @@ public class CustomerServiceTest {
     }
 
     @Test
-    void testGetAllCustomers() {
+    void testGetCustomers_firstPage() {
         Customer customer1 = new Customer();
         customer1.setId(1L);
         Customer customer2 = new Customer();
         customer2.setId(2L);
-        when(customerRepository.findAll()).thenReturn(java.util.List.of(customer1, customer2));
-        java.util.List<Customer> customers = customerService.getAllCustomers();
+        when(customerRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 100)))
+                .thenReturn(java.util.List.of(customer1, customer2));
+        java.util.List<Customer> customers = customerService.getCustomers(null, 100, null);
         assertEquals(2, customers.size());
     }
+
+    @Test
+    void testGetCustomers_levelFilterAtTheMaximumPageSize() {
+        when(customerRepository.findByCustomerLevelAndIdGreaterThanOrderByIdAsc("GOLD", 40L, PageRequest.of(0, CustomerService.MAX_PAGE_SIZE)))
+                .thenReturn(java.util.List.of());
+        assertTrue(customerService.getCustomers(40L, CustomerService.MAX_PAGE_SIZE, "GOLD").isEmpty());
+    }
+
+    @Test
+    void testGetCustomers_pageSizeOutOfRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> customerService.getCustomers(null, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> customerService.getCustomers(null, CustomerService.MAX_PAGE_SIZE + 1, null));
+    }
+
+    @Test
+    void testStreamCustomers_detachesEachRow() {
+        Customer customer1 = new Customer("A");
+        Customer customer2 = new Customer("B");
+        when(customerRepository.streamAll()).thenReturn(Stream.of(customer1, customer2));
+
+        java.util.List<String> names = new java.util.ArrayList<>();
+        customerService.streamCustomers(null, customer -> names.add(customer.getName()));
+
+        assertEquals(java.util.List.of("A", "B"), names);
+        verify(entityManager).detach(customer1);
+        verify(entityManager).detach(customer2);
+    }
 } 
\ No newline at end of file
@@ -1,12 +1,16 @@
 package com.example.banking.service;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
-import java.io.PrintStream;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -14,20 +18,25 @@ import static org.junit.jupiter.api.Assertions.*;
 class EmailNotificationServiceTest {
 
     private EmailNotificationService emailNotificationService;
-    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-    private final PrintStream originalOut = System.out;
+    private final ListAppender<ILoggingEvent> logEvents = new ListAppender<>();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(EmailNotificationService.class);
 
     @BeforeEach
     void setUp() {
         emailNotificationService = new EmailNotificationService();
         
-        // Capture System.out for testing console output
-        System.setOut(new PrintStream(outputStream));
+        // Capture the log events the class writes
+        logEvents.start();
+        logger.addAppender(logEvents);
     }
 
     @org.junit.jupiter.api.AfterEach
     void tearDown() {
-        System.setOut(originalOut);
+        logger.detachAppender(logEvents);
+    }
+
+    private String output() {
+        return logEvents.list.stream().map(ILoggingEvent::getFormattedMessage).collect(Collectors.joining("\n"));
     }
 
     @Test
@@ -40,10 +49,8 @@ class EmailNotificationServiceTest {
         emailNotificationService.sendNotification(customerId, message);
 
         // ASSERT
-        String output = outputStream.toString();
-        assertTrue(output.contains("Sending EMAIL to 12345"));
-        assertTrue(output.contains("Message: Your account balance is low"));
-        assertTrue(output.contains("---"));
+        String output = output();
+        assertTrue(output.contains("Sending EMAIL to 12345: Your account balance is low"));
     }
 
     @Test
@@ -56,10 +63,8 @@ class EmailNotificationServiceTest {
         emailNotificationService.sendNotification(customerId, message);
 
         // ASSERT
-        String output = outputStream.toString();
-        assertTrue(output.contains("Sending EMAIL to 67890"));
-        assertTrue(output.contains("Message: "));
-        assertTrue(output.contains("---"));
+        String output = output();
+        assertEquals("Sending EMAIL to 67890: ", output);
     }
 
     @Test
@@ -72,10 +77,8 @@ class EmailNotificationServiceTest {
         emailNotificationService.sendNotification(customerId, message);
 
         // ASSERT
-        String output = outputStream.toString();
-        assertTrue(output.contains("Sending EMAIL to null"));
-        assertTrue(output.contains("Message: Test message"));
-        assertTrue(output.contains("---"));
+        String output = output();
+        assertTrue(output.contains("Sending EMAIL to null: Test message"));
     }
 
     @Test
@@ -88,10 +91,8 @@ class EmailNotificationServiceTest {
         emailNotificationService.sendNotification(customerId, message);
 
         // ASSERT
-        String output = outputStream.toString();
-        assertTrue(output.contains("Sending EMAIL to 11111"));
-        assertTrue(output.contains("Message: null"));
-        assertTrue(output.contains("---"));
+        String output = output();
+        assertTrue(output.contains("Sending EMAIL to 11111: null"));
     }
 
     @Test
@@ -104,10 +105,8 @@ class EmailNotificationServiceTest {
         emailNotificationService.sendNotification(customerId, message);
 
         // ASSERT
-        String output = outputStream.toString();
-        assertTrue(output.contains("Sending EMAIL to 99999"));
-        assertTrue(output.contains("Message: " + message));
-        assertTrue(output.contains("---"));
+        String output = output();
+        assertTrue(output.contains("Sending EMAIL to 99999: " + message));
     }
 
     @Test
@@ -120,10 +119,8 @@ class EmailNotificationServiceTest {
         emailNotificationService.sendNotification(customerId, message);
 
         // ASSERT
-        String output = outputStream.toString();
-        assertTrue(output.contains("Sending EMAIL to CUST-123_ABC@domain.com"));
-        assertTrue(output.contains("Message: Account update notification"));
-        assertTrue(output.contains("---"));
+        String output = output();
+        assertTrue(output.contains("Sending EMAIL to CUST-123_ABC@domain.com: Account update notification"));
     }
 
     @Test
@@ -139,15 +136,12 @@ class EmailNotificationServiceTest {
         emailNotificationService.sendNotification(customerId2, message2);
 
         // ASSERT
-        String output = outputStream.toString();
-        assertTrue(output.contains("Sending EMAIL to 11111"));
-        assertTrue(output.contains("Message: First notification"));
-        assertTrue(output.contains("Sending EMAIL to 22222"));
-        assertTrue(output.contains("Message: Second notification"));
+        String output = output();
+        assertTrue(output.contains("Sending EMAIL to 11111: First notification"));
+        assertTrue(output.contains("Sending EMAIL to 22222: Second notification"));
         
-        // Count occurrences of separator lines
-        long separatorCount = output.chars().filter(ch -> ch == '-').count();
-        assertEquals(12, separatorCount); // 6 separators per call (---\n---), 2 calls = 12 total
+        // One event per notification
+        assertEquals(2, logEvents.list.size());
     }
 
     @Test
@@ -160,10 +154,8 @@ class EmailNotificationServiceTest {
         emailNotificationService.sendNotification(customerId, message);
 
         // ASSERT
-        String output = outputStream.toString();
-        assertTrue(output.contains("Sending EMAIL to   12345  "));
-        assertTrue(output.contains("Message:   Message with leading and trailing spaces  "));
-        assertTrue(output.contains("---"));
+        String output = output();
+        assertTrue(output.contains("Sending EMAIL to   12345  :   Message with leading and trailing spaces  "));
     }
 
     @Test
@@ -176,10 +168,8 @@ class EmailNotificationServiceTest {
         emailNotificationService.sendNotification(customerId, message);
 
         // ASSERT
-        String output = outputStream.toString();
-        assertTrue(output.contains("Sending EMAIL to 客户123"));
-        assertTrue(output.contains("Message: 您的账户余额不足。请及时充值。"));
-        assertTrue(output.contains("---"));
+        String output = output();
+        assertTrue(output.contains("Sending EMAIL to 客户123: 您的账户余额不足。请及时充值。"));
     }
 
     @Test
@@ -197,14 +187,11 @@ class EmailNotificationServiceTest {
         // ACT
         emailNotificationService.sendNotification(customerId, message);
 
-        // ASSERT
-        String output = outputStream.toString();
-        String[] lines = output.split("\n");
-        
-        // Verify the exact format
-        assertEquals("---", lines[0].trim());
-        assertEquals("Sending EMAIL to TEST123", lines[1].trim());
-        assertEquals("Message: Test message", lines[2].trim());
-        assertEquals("---", lines[3].trim());
+        // ASSERT - a single INFO event carrying customer and message as arguments
+        assertEquals(1, logEvents.list.size());
+        ILoggingEvent event = logEvents.list.get(0);
+        assertEquals(Level.INFO, event.getLevel());
+        assertEquals("Sending EMAIL to {}: {}", event.getMessage());
+        assertArrayEquals(new Object[]{"TEST123", "Test message"}, event.getArgumentArray());
     }
-}
\ No newline at end of file
+}
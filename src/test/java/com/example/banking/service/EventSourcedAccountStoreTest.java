@@ -0,0 +1,168 @@
+package com.example.banking.service;
+
+import com.example.banking.exception.AccountNotFoundException;
+import com.example.banking.exception.AccountVersionConflictException;
+import com.example.banking.exception.InsufficientBalanceException;
+import com.example.banking.model.Account;
+import com.example.banking.model.AccountAggregate;
+import com.example.banking.model.AccountEvent;
+import com.example.banking.model.AccountEventType;
+import com.example.banking.model.AccountSnapshot;
+import com.example.banking.repository.AccountEventRepository;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.AccountSnapshotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EventSourcedAccountStoreTest {
+
+    @Mock
+    private AccountEventRepository accountEventRepository;
+
+    @Mock
+    private AccountSnapshotRepository accountSnapshotRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @InjectMocks
+    private EventSourcedAccountStore store;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(store, "snapshotInterval", 3);
+    }
+
+    @Test
+    void testLoad_replaysTailOnTopOfLatestSnapshot() {
+        AccountSnapshot snapshot = new AccountSnapshot();
+        snapshot.setAccountId(1L);
+        snapshot.setVersion(3L);
+        snapshot.setCustId(7L);
+        snapshot.setAccountType("CHECKING");
+        snapshot.setBalance(new BigDecimal("100"));
+
+        when(accountSnapshotRepository.findFirstByAccountIdOrderByVersionDesc(1L)).thenReturn(Optional.of(snapshot));
+        when(accountEventRepository.findByAccountIdAndVersionGreaterThanOrderByVersionAsc(1L, 3L))
+                .thenReturn(List.of(event(4L, AccountEventType.DEPOSITED, "50"), event(5L, AccountEventType.FEE_CHARGED, "10")));
+
+        AccountAggregate aggregate = store.load(1L);
+
+        assertEquals(5L, aggregate.getVersion());
+        assertEquals(0, new BigDecimal("140").compareTo(aggregate.getBalance()));
+        assertEquals("CHECKING", aggregate.getAccountType());
+    }
+
+    @Test
+    void testLoad_unknownAccount() {
+        when(accountSnapshotRepository.findFirstByAccountIdOrderByVersionDesc(9L)).thenReturn(Optional.empty());
+        when(accountEventRepository.findByAccountIdAndVersionGreaterThanOrderByVersionAsc(9L, 0L)).thenReturn(List.of());
+        when(accountRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertThrows(AccountNotFoundException.class, () -> store.load(9L));
+    }
+
+    @Test
+    void testLoad_accountWithoutStreamIsBootstrappedFromItsRow() {
+        Account account = new Account();
+        account.setId(2L);
+        account.setCustId(7L);
+        account.setAccountType("CHECKING");
+        account.setBalance(new BigDecimal("250"));
+        when(accountSnapshotRepository.findFirstByAccountIdOrderByVersionDesc(2L)).thenReturn(Optional.empty());
+        when(accountEventRepository.findByAccountIdAndVersionGreaterThanOrderByVersionAsc(2L, 0L)).thenReturn(List.of());
+        when(accountRepository.findById(2L)).thenReturn(Optional.of(account));
+
+        AccountAggregate aggregate = store.load(2L);
+        aggregate.withdraw(new BigDecimal("50"));
+
+        assertEquals(0L, aggregate.getExpectedVersion());
+        assertEquals(0, new BigDecimal("200").compareTo(aggregate.getBalance()));
+        assertEquals(AccountEventType.OPENED, aggregate.getUncommittedEvents().get(0).getEventType());
+        assertEquals(0, new BigDecimal("250").compareTo(aggregate.getUncommittedEvents().get(0).getAmount()));
+    }
+
+    @Test
+    void testSave_appendsEventsAndSnapshotsWhenCrossingInterval() {
+        AccountAggregate aggregate = AccountAggregate.open(1L, 7L, "SAVINGS");
+        aggregate.deposit(new BigDecimal("100"));
+        aggregate.withdraw(new BigDecimal("40"));
+
+        store.save(aggregate);
+
+        verify(accountEventRepository).saveAllAndFlush(anyList());
+        verify(accountSnapshotRepository).save(any(AccountSnapshot.class));
+        assertTrue(aggregate.getUncommittedEvents().isEmpty());
+        assertEquals(3L, aggregate.getExpectedVersion());
+    }
+
+    @Test
+    void testSave_versionConflict() {
+        AccountAggregate aggregate = AccountAggregate.open(1L, 7L, "SAVINGS");
+        when(accountEventRepository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        AccountVersionConflictException e = assertThrows(AccountVersionConflictException.class, () -> store.save(aggregate));
+        assertEquals(0L, e.getExpectedVersion());
+        verify(accountSnapshotRepository, never()).save(any());
+    }
+
+    @Test
+    void testWithdraw_insufficientFundsRecordsNothing() {
+        AccountAggregate aggregate = AccountAggregate.open(1L, 7L, "CHECKING");
+        assertThrows(InsufficientBalanceException.class, () -> aggregate.withdraw(new BigDecimal("1")));
+        assertEquals(1, aggregate.getUncommittedEvents().size());
+    }
+
+    @Test
+    void testCommands_rejectAmountsThatAreNotPositive() {
+        AccountAggregate aggregate = AccountAggregate.open(1L, 7L, "CHECKING");
+        assertThrows(IllegalArgumentException.class, () -> aggregate.deposit(BigDecimal.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> aggregate.deposit(new BigDecimal("-5")));
+        assertThrows(IllegalArgumentException.class, () -> aggregate.transferIn(2L, null));
+        assertThrows(IllegalArgumentException.class, () -> aggregate.chargeFee(new BigDecimal("-1")));
+        assertThrows(IllegalArgumentException.class, () -> aggregate.applyInterest(BigDecimal.ZERO));
+        assertEquals(1, aggregate.getUncommittedEvents().size());
+    }
+
+    @Test
+    void testValidate_snapshotIntervalMustBePositive() {
+        ReflectionTestUtils.setField(store, "snapshotInterval", 0);
+        assertThrows(IllegalStateException.class, () -> store.validate());
+    }
+
+    @Test
+    void testRequireNotEventSourced_refusesAccountsWithAStream() {
+        when(accountEventRepository.existsByAccountIdIn(List.of(1L, 2L))).thenReturn(true);
+        when(accountEventRepository.existsByAccountIdIn(List.of(3L))).thenReturn(false);
+
+        assertThrows(IllegalStateException.class, () -> store.requireNotEventSourced(List.of(1L, 2L)));
+        store.requireNotEventSourced(List.of(3L));
+    }
+
+    private AccountEvent event(long version, AccountEventType type, String amount) {
+        AccountEvent event = new AccountEvent();
+        event.setAccountId(1L);
+        event.setVersion(version);
+        event.setEventType(type);
+        event.setAmount(new BigDecimal(amount));
+        return event;
+    }
+}
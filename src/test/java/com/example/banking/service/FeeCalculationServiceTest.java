@@ -32,6 +32,9 @@ public class FeeCalculationServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private LedgerService ledgerService;
+
     @InjectMocks
     private FeeCalculationService feeCalculationService;
 
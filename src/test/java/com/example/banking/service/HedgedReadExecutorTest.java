@@ -0,0 +1,140 @@
+package com.example.banking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+public class HedgedReadExecutorTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private HedgedReadExecutor hedgedReadExecutor;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        ReflectionTestUtils.setField(hedgedReadExecutor, "executor", executor);
+        ReflectionTestUtils.setField(hedgedReadExecutor, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(hedgedReadExecutor, "enabled", true);
+        ReflectionTestUtils.setField(hedgedReadExecutor, "minSamples", 5);
+        ReflectionTestUtils.setField(hedgedReadExecutor, "minDelay", Duration.ofMillis(20));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testRead_disabledRunsOnTheCallersThread() {
+        ReflectionTestUtils.setField(hedgedReadExecutor, "enabled", false);
+        Thread caller = Thread.currentThread();
+
+        assertSame(caller, hedgedReadExecutor.read("account", Thread::currentThread));
+    }
+
+    @Test
+    void testRead_slowReadIsHedgedAndTheFasterAttemptWins() {
+        ReflectionTestUtils.setField(hedgedReadExecutor, "budgetPercent", 100);
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedgedReadExecutor.read("account", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                await(release);
+                return "first";
+            }
+            return "hedge";
+        });
+
+        assertEquals("hedge", result);
+        assertEquals(2, attempts.get());
+        assertEquals(1, meterRegistry.counter(HedgedReadExecutor.HEDGES_METRIC, "operation", "account", "outcome", "hedge-won").count());
+    }
+
+    @Test
+    void testRead_noHedgeOnceTheBudgetIsSpent() {
+        ReflectionTestUtils.setField(hedgedReadExecutor, "budgetPercent", 0);
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedgedReadExecutor.read("account", () -> {
+            attempts.incrementAndGet();
+            sleep(60);
+            return "first";
+        });
+
+        assertEquals("first", result);
+        assertEquals(1, attempts.get());
+        assertEquals(1, meterRegistry.counter(HedgedReadExecutor.HEDGES_METRIC, "operation", "account", "outcome", "skipped").count());
+    }
+
+    @Test
+    void testRead_failedFirstAttemptIsCoveredByTheHedge() {
+        ReflectionTestUtils.setField(hedgedReadExecutor, "budgetPercent", 100);
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedgedReadExecutor.read("account", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                sleep(60);
+                throw new IllegalStateException("replica went away");
+            }
+            sleep(100);
+            return "hedge";
+        });
+
+        assertEquals("hedge", result);
+    }
+
+    // Fast reads, so the observed p95 falls below the minimum delay
+    private void warmUp() {
+        for (int i = 0; i < 5; i++) {
+            hedgedReadExecutor.read("account", () -> "warm-up");
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
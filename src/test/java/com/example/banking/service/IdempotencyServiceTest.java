@@ -0,0 +1,269 @@
+package com.example.banking.service;
+
+import com.example.banking.exception.IdempotencyKeyConflictException;
+import com.example.banking.exception.IdempotencyKeyReuseException;
+import com.example.banking.model.IdempotencyKey;
+import com.example.banking.model.IdempotentResponse;
+import com.example.banking.model.ProcessTransactionRequest;
+import com.example.banking.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private SimpleTransactionStatus transactionStatus;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(idempotencyService, "objectMapper", objectMapper);
+        transactionStatus = new SimpleTransactionStatus();
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> transactionStatus);
+    }
+
+    @Test
+    void testExecute_retryIsServedFromMemoryWithoutRunningAgain() {
+        when(idempotencyKeyRepository.findById("key-1")).thenReturn(Optional.empty());
+        AtomicInteger executions = new AtomicInteger();
+
+        IdempotentResponse first = idempotencyService.execute("key-1", deposit(100), () -> {
+            executions.incrementAndGet();
+            return new IdempotentResponse(200, Map.of("success", true));
+        });
+        IdempotentResponse retry = idempotencyService.execute("key-1", deposit(100), () -> {
+            executions.incrementAndGet();
+            return new IdempotentResponse(200, Map.of("success", true));
+        });
+
+        assertEquals(1, executions.get());
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(first.body(), retry.body());
+        verify(idempotencyKeyRepository, times(1)).findById("key-1");
+
+        ArgumentCaptor<IdempotencyKey> saved = ArgumentCaptor.forClass(IdempotencyKey.class);
+        verify(idempotencyKeyRepository).saveAndFlush(saved.capture());
+        assertEquals("key-1", saved.getValue().getKey());
+        assertEquals(200, saved.getValue().getStatusCode());
+        assertEquals("{\"success\":true}", saved.getValue().getResponseBody());
+    }
+
+    @Test
+    void testExecute_storedKeyIsReplayedFromDatabase() throws Exception {
+        IdempotencyKey row = new IdempotencyKey();
+        row.setKey("key-2");
+        row.setRequestHash(hashOf(deposit(100)));
+        row.setStatusCode(400);
+        row.setResponseBody("{\"success\":false,\"error\":\"TRANSACTION_FAILED\"}");
+        when(idempotencyKeyRepository.findById("key-2")).thenReturn(Optional.of(row));
+
+        IdempotentResponse response = idempotencyService.execute("key-2", deposit(100), () -> {
+            throw new AssertionError("a recorded key must not run again");
+        });
+
+        assertTrue(response.replayed());
+        assertEquals(400, response.status());
+        assertEquals("TRANSACTION_FAILED", response.body().get("error"));
+    }
+
+    @Test
+    void testExecute_keyReusedForDifferentRequestIsRejected() {
+        when(idempotencyKeyRepository.findById("key-3")).thenReturn(Optional.empty());
+        idempotencyService.execute("key-3", deposit(100), () -> new IdempotentResponse(200, Map.of("success", true)));
+
+        assertThrows(IdempotencyKeyReuseException.class, () -> idempotencyService.execute("key-3", deposit(999),
+                () -> new IdempotentResponse(200, Map.of("success", true))));
+    }
+
+    @Test
+    void testExecute_concurrentDuplicateWaitsForFirstExecution() throws Exception {
+        when(idempotencyKeyRepository.findById("key-4")).thenReturn(Optional.empty());
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<IdempotentResponse> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("key-4", deposit(100), () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return new IdempotentResponse(200, Map.of("success", true));
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<IdempotentResponse> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("key-4", deposit(100), () -> {
+                    executions.incrementAndGet();
+                    return new IdempotentResponse(200, Map.of("success", true));
+                }));
+        Thread.sleep(100);
+        assertFalse(duplicate.isDone());
+
+        release.countDown();
+        assertFalse(first.get(5, TimeUnit.SECONDS).replayed());
+        assertTrue(duplicate.get(5, TimeUnit.SECONDS).replayed());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testCompletedResponse_waitsForTheRunningExecutionAndReplaysIt() throws Exception {
+        when(idempotencyKeyRepository.findById("key-9")).thenReturn(Optional.empty());
+        assertTrue(idempotencyService.completedResponse("key-9", deposit(100)).isEmpty());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<IdempotentResponse> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("key-9", deposit(100), () -> {
+                    started.countDown();
+                    await(release);
+                    return new IdempotentResponse(200, Map.of("success", true));
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Optional<IdempotentResponse>> duplicate =
+                CompletableFuture.supplyAsync(() -> idempotencyService.completedResponse("key-9", deposit(100)));
+        Thread.sleep(100);
+        assertFalse(duplicate.isDone());
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertTrue(duplicate.get(5, TimeUnit.SECONDS).orElseThrow().replayed());
+        assertThrows(IdempotencyKeyReuseException.class, () -> idempotencyService.completedResponse("key-9", deposit(200)));
+    }
+
+    @Test
+    void testExecute_rolledBackExecutionRecordsNothing() {
+        when(idempotencyKeyRepository.findById("key-5")).thenReturn(Optional.empty());
+
+        IdempotentResponse failed = idempotencyService.execute("key-5", deposit(100), () -> {
+            // What a participating @Transactional method does when it throws
+            transactionStatus.setRollbackOnly();
+            return new IdempotentResponse(400, Map.of("success", false));
+        });
+        SimpleTransactionStatus failedTransaction = transactionStatus;
+        transactionStatus = new SimpleTransactionStatus();
+        IdempotentResponse retried = idempotencyService.execute("key-5", deposit(100),
+                () -> new IdempotentResponse(200, Map.of("success", true)));
+
+        assertEquals(400, failed.status());
+        assertEquals(200, retried.status());
+        assertFalse(retried.replayed());
+        // The transaction manager rolls back a commit of a rollback-only status
+        assertTrue(failedTransaction.isRollbackOnly());
+        verify(idempotencyKeyRepository, times(1)).saveAndFlush(any());
+    }
+
+    @Test
+    void testExecute_keyRecordedByAnotherNodeIsReplayed() throws Exception {
+        IdempotencyKey winner = new IdempotencyKey();
+        winner.setKey("key-6");
+        winner.setRequestHash(hashOf(deposit(100)));
+        winner.setStatusCode(200);
+        winner.setResponseBody("{\"success\":true}");
+        when(idempotencyKeyRepository.findById("key-6")).thenReturn(Optional.empty(), Optional.of(winner));
+        when(idempotencyKeyRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        IdempotentResponse response = idempotencyService.execute("key-6", deposit(100),
+                () -> new IdempotentResponse(200, Map.of("success", true)));
+
+        assertTrue(response.replayed());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void testExecute_keyLostInsideSharedTransactionIsLeftToTheCaller() {
+        // A group commit: the service's transaction joins one that is already running
+        transactionStatus = new SimpleTransactionStatus(false);
+        when(idempotencyKeyRepository.findById("key-7")).thenReturn(Optional.empty());
+        when(idempotencyKeyRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(IdempotencyKeyConflictException.class, () -> idempotencyService.execute("key-7", deposit(100),
+                    () -> new IdempotentResponse(200, Map.of("success", true))));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        // The aborted shared transaction must not be used to look up the winner
+        verify(idempotencyKeyRepository, times(1)).findById("key-7");
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void testPurgeExpired_deletesRowsOlderThanTheTtl() {
+        ReflectionTestUtils.setField(idempotencyService, "ttl", Duration.ofHours(24));
+        when(idempotencyKeyRepository.deleteCreatedBefore(any())).thenReturn(3);
+
+        idempotencyService.purgeExpired();
+
+        ArgumentCaptor<Date> cutoff = ArgumentCaptor.forClass(Date.class);
+        verify(idempotencyKeyRepository).deleteCreatedBefore(cutoff.capture());
+        long age = System.currentTimeMillis() - cutoff.getValue().getTime();
+        assertTrue(Math.abs(age - Duration.ofHours(24).toMillis()) < 60_000);
+        verify(transactionManager).commit(any());
+    }
+
+    private ProcessTransactionRequest deposit(int amount) {
+        ProcessTransactionRequest request = new ProcessTransactionRequest();
+        request.setTo(1L);
+        request.setAmount(BigDecimal.valueOf(amount));
+        request.setType("DEPOSIT");
+        return request;
+    }
+
+    private String hashOf(Object request) throws Exception {
+        byte[] digest = java.security.MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        return java.util.HexFormat.of().formatHex(digest);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
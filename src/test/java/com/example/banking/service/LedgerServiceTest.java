@@ -0,0 +1,134 @@
+package com.example.banking.service;
+
+import com.example.banking.exception.UnbalancedJournalEntryException;
+import com.example.banking.model.Account;
+import com.example.banking.model.JournalEntry;
+import com.example.banking.model.LedgerAccount;
+import com.example.banking.model.Posting;
+import com.example.banking.repository.AccountBalanceShardRepository;
+import com.example.banking.repository.JournalEntryRepository;
+import com.example.banking.repository.PostingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class LedgerServiceTest {
+
+    @Mock
+    private JournalEntryRepository journalEntryRepository;
+
+    @Mock
+    private PostingRepository postingRepository;
+
+    @Mock
+    private AccountBalanceShardRepository shardRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EventSourcedAccountStore eventSourcedAccountStore;
+
+    @InjectMocks
+    private LedgerService ledgerService;
+
+    @Test
+    void testTransferEntry_movesCachedBalancesAndRecordsRunningBalance() {
+        Account from = account(1L, "100");
+        Account to = account(2L, "50");
+
+        JournalEntry entry = JournalEntry.of("INTERNATIONAL_TRANSFER", null)
+                .debit(from, new BigDecimal("20"))
+                .credit(to, new BigDecimal("20"))
+                .debit(from, new BigDecimal("50.00"))
+                .credit(LedgerAccount.BANK_FEE_INCOME, new BigDecimal("50.00"));
+
+        assertTrue(entry.isBalanced());
+        assertEquals(0, new BigDecimal("30.00").compareTo(from.getBalance()));
+        assertEquals(0, new BigDecimal("70").compareTo(to.getBalance()));
+
+        List<Posting> postings = entry.getPostings();
+        assertEquals(4, postings.size());
+        assertEquals(0, new BigDecimal("80").compareTo(postings.get(0).getBalanceAfter()));
+        assertEquals(0, new BigDecimal("30.00").compareTo(postings.get(2).getBalanceAfter()));
+        assertNull(postings.get(3).getAccountId());
+        assertNull(postings.get(3).getBalanceAfter());
+    }
+
+    @Test
+    void testAppend_balancedEntryIsSavedWithTimestamp() {
+        JournalEntry entry = JournalEntry.of("DEPOSIT", "cash")
+                .debit(LedgerAccount.BANK_CASH, new BigDecimal("25"))
+                .credit(account(1L, "0"), new BigDecimal("25"));
+        when(journalEntryRepository.save(any(JournalEntry.class))).thenReturn(entry);
+
+        ledgerService.append(entry);
+
+        assertNotNull(entry.getCreatedAt());
+        verify(journalEntryRepository).save(entry);
+    }
+
+    @Test
+    void testAppend_unbalancedEntryIsRejected() {
+        JournalEntry entry = JournalEntry.of("DEPOSIT", null)
+                .credit(account(1L, "0"), new BigDecimal("25"));
+
+        assertThrows(UnbalancedJournalEntryException.class, () -> ledgerService.append(entry));
+        verify(journalEntryRepository, never()).save(any());
+    }
+
+    @Test
+    void testAppend_eventSourcedAccountIsRefused() {
+        JournalEntry entry = JournalEntry.of("DEPOSIT", "cash")
+                .debit(LedgerAccount.BANK_CASH, new BigDecimal("25"))
+                .credit(account(1L, "0"), new BigDecimal("25"));
+        doThrow(new IllegalStateException("event-sourced"))
+                .when(eventSourcedAccountStore).requireNotEventSourced(Set.of(1L));
+
+        assertThrows(IllegalStateException.class, () -> ledgerService.append(entry));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testIsReconciled_comparesStoredBalanceWithPostingSum() {
+        Account account = account(1L, "70.00");
+        when(postingRepository.sumByAccountId(1L)).thenReturn(new BigDecimal("70"));
+        when(shardRepository.totalBalance(1L)).thenReturn(new BigDecimal("70.00"), new BigDecimal("71.00"));
+
+        assertTrue(ledgerService.isReconciled(account));
+        assertFalse(ledgerService.isReconciled(account));
+    }
+
+    @Test
+    void testIsReconciled_countsUnfoldedShardCredits() {
+        // 30 was credited to a shard and posted, but not folded into accounts.balance yet
+        Account account = account(2L, "50.00");
+        account.setBalanceShards(4);
+        when(postingRepository.sumByAccountId(2L)).thenReturn(new BigDecimal("80.00"));
+        when(shardRepository.totalBalance(2L)).thenReturn(new BigDecimal("80.00"));
+
+        assertTrue(ledgerService.isReconciled(account));
+    }
+
+    private Account account(Long id, String balance) {
+        Account account = new Account();
+        account.setId(id);
+        account.setBalance(new BigDecimal(balance));
+        return account;
+    }
+}
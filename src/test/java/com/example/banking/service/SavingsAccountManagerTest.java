@@ -1,14 +1,17 @@
 package com.example.banking.service;
 
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
 import com.example.banking.model.Account;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
-import java.io.PrintStream;
 import java.math.BigDecimal;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -17,8 +20,8 @@ class SavingsAccountManagerTest {
 
     private SavingsAccountManager savingsAccountManager;
     private Account testAccount;
-    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-    private final PrintStream originalOut = System.out;
+    private final ListAppender<ILoggingEvent> logEvents = new ListAppender<>();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SavingsAccountManager.class);
 
     @BeforeEach
     void setUp() {
@@ -29,13 +32,18 @@ class SavingsAccountManagerTest {
         testAccount.setBalance(new BigDecimal("1000"));
         testAccount.setAccountType("SAVINGS");
         
-        // Capture System.out for testing console output
-        System.setOut(new PrintStream(outputStream));
+        // Capture the log events the class writes
+        logEvents.start();
+        logger.addAppender(logEvents);
     }
 
     @org.junit.jupiter.api.AfterEach
     void tearDown() {
-        System.setOut(originalOut);
+        logger.detachAppender(logEvents);
+    }
+
+    private String output() {
+        return logEvents.list.stream().map(ILoggingEvent::getFormattedMessage).collect(Collectors.joining("\n"));
     }
 
     @Test
@@ -49,7 +57,7 @@ class SavingsAccountManagerTest {
 
         // ASSERT
         assertEquals(expectedBalance, testAccount.getBalance());
-        assertTrue(outputStream.toString().contains("Deposited 500 into Savings Account 1"));
+        assertTrue(output().contains("Deposited 500 into Savings Account 1"));
     }
 
     @Test
@@ -63,7 +71,7 @@ class SavingsAccountManagerTest {
 
         // ASSERT
         assertEquals(expectedBalance, testAccount.getBalance());
-        assertTrue(outputStream.toString().contains("Deposited 0 into Savings Account 1"));
+        assertTrue(output().contains("Deposited 0 into Savings Account 1"));
     }
 
     @Test
@@ -77,7 +85,7 @@ class SavingsAccountManagerTest {
 
         // ASSERT
         assertEquals(expectedBalance, testAccount.getBalance());
-        assertTrue(outputStream.toString().contains("Withdrew 300 from Savings Account 1"));
+        assertTrue(output().contains("Withdrew 300 from Savings Account 1"));
     }
 
     @Test
@@ -91,7 +99,7 @@ class SavingsAccountManagerTest {
 
         // ASSERT
         assertEquals(expectedBalance, testAccount.getBalance());
-        assertTrue(outputStream.toString().contains("Insufficient funds for withdrawal from Savings Account 1"));
+        assertTrue(output().contains("Insufficient funds for withdrawal from Savings Account 1"));
     }
 
     @Test
@@ -105,7 +113,7 @@ class SavingsAccountManagerTest {
 
         // ASSERT
         assertEquals(expectedBalance, testAccount.getBalance());
-        assertTrue(outputStream.toString().contains("Withdrew 1000 from Savings Account 1"));
+        assertTrue(output().contains("Withdrew 1000 from Savings Account 1"));
     }
 
     @Test
@@ -119,7 +127,7 @@ class SavingsAccountManagerTest {
 
         // ASSERT
         assertEquals(expectedBalance, testAccount.getBalance());
-        assertTrue(outputStream.toString().contains("Applied interest of 20.00 to Savings Account 1"));
+        assertTrue(output().contains("Applied interest of 20.00 to Savings Account 1"));
     }
 
     @Test
@@ -133,7 +141,7 @@ class SavingsAccountManagerTest {
 
         // ASSERT
         assertEquals(0, expectedBalance.compareTo(testAccount.getBalance()));
-        assertTrue(outputStream.toString().contains("Applied interest of 0"));
+        assertTrue(output().contains("Applied interest of 0"));
     }
 
     @Test
@@ -148,7 +156,7 @@ class SavingsAccountManagerTest {
 
         // ASSERT
         assertEquals(expectedBalance, testAccount.getBalance());
-        assertTrue(outputStream.toString().contains("Applied interest of 200.00 to Savings Account 1"));
+        assertTrue(output().contains("Applied interest of 200.00 to Savings Account 1"));
     }
 
     @Test
@@ -183,7 +191,7 @@ class SavingsAccountManagerTest {
         assertEquals(expectedFinalBalance, testAccount.getBalance());
 
         // ASSERT - Verify all console outputs
-        String output = outputStream.toString();
+        String output = output();
         assertTrue(output.contains("Deposited 500 into Savings Account 1"));
         assertTrue(output.contains("Withdrew 200 from Savings Account 1"));
         assertTrue(output.contains("Applied interest of 26.00 to Savings Account 1"));
@@ -216,7 +224,7 @@ class SavingsAccountManagerTest {
 
         // ASSERT
         assertEquals(expectedBalance, testAccount.getBalance());
-        assertTrue(outputStream.toString().contains("Deposited -100 into Savings Account 1"));
+        assertTrue(output().contains("Deposited -100 into Savings Account 1"));
     }
 
     @Test
@@ -230,6 +238,6 @@ class SavingsAccountManagerTest {
 
         // ASSERT
         assertEquals(expectedBalance, testAccount.getBalance());
-        assertTrue(outputStream.toString().contains("Withdrew -100 from Savings Account 1"));
+        assertTrue(output().contains("Withdrew -100 from Savings Account 1"));
     }
 }
\ No newline at end of file
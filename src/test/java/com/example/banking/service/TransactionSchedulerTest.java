@@ -0,0 +1,188 @@
+package com.example.banking.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransactionSchedulerTest {
+
+    private final List<Runnable> carrierQueue = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TransactionScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new TransactionScheduler();
+        // Granted async work is held here until the test runs it, one slot completion at a time
+        Executor carrier = carrierQueue::add;
+        ReflectionTestUtils.setField(scheduler, "carrierExecutor", carrier);
+        ReflectionTestUtils.setField(scheduler, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(scheduler, "concurrency", 1);
+        scheduler.registerGauges();
+    }
+
+    @Test
+    void testSubmit_freedSlotsAreSharedByLaneWeight() {
+        List<TransactionLane> order = new ArrayList<>();
+        scheduler.submit(TransactionLane.BULK, () -> { });
+        for (int i = 0; i < 12; i++) {
+            for (TransactionLane lane : TransactionLane.values()) {
+                scheduler.submit(lane, () -> order.add(lane));
+            }
+        }
+
+        runGrantedWork();
+
+        // Within every twelve completions the 8/3/1 weights hold while all lanes are backlogged
+        List<TransactionLane> firstRound = order.subList(0, 12);
+        assertEquals(8, firstRound.stream().filter(lane -> lane == TransactionLane.PRIORITY).count());
+        assertEquals(3, firstRound.stream().filter(lane -> lane == TransactionLane.STANDARD).count());
+        assertEquals(1, firstRound.stream().filter(lane -> lane == TransactionLane.BULK).count());
+        assertEquals(TransactionLane.PRIORITY, order.get(0));
+        assertEquals(36, order.size());
+    }
+
+    @Test
+    void testSubmit_fullLaneIsRejected() {
+        ReflectionTestUtils.setField(scheduler, "queueCapacity", 2);
+        scheduler.submit(TransactionLane.BULK, () -> { });
+        scheduler.submit(TransactionLane.BULK, () -> { });
+        scheduler.submit(TransactionLane.BULK, () -> { });
+
+        assertThrows(RejectedExecutionException.class, () -> scheduler.submit(TransactionLane.BULK, () -> { }));
+        // Other lanes have their own capacity
+        scheduler.submit(TransactionLane.PRIORITY, () -> { });
+        assertEquals(2.0, meterRegistry.get(TransactionScheduler.QUEUE_DEPTH_METRIC).tag("lane", "bulk").gauge().value());
+    }
+
+    @Test
+    void testExecute_priorityCallerOvertakesQueuedBulkWork() throws Exception {
+        List<String> order = new ArrayList<>();
+        scheduler.submit(TransactionLane.BULK, () -> order.add("bulk-running"));
+        scheduler.submit(TransactionLane.BULK, () -> order.add("bulk-queued"));
+
+        CountDownLatch waiting = new CountDownLatch(1);
+        CompletableFuture<String> priority = CompletableFuture.supplyAsync(() -> {
+            waiting.countDown();
+            return scheduler.execute(TransactionLane.PRIORITY, () -> {
+                synchronized (order) {
+                    order.add("priority");
+                }
+                return "done";
+            });
+        });
+        assertTrue(waiting.await(5, TimeUnit.SECONDS));
+        awaitQueued(TransactionLane.PRIORITY);
+        assertFalse(priority.isDone());
+
+        // Completing the running bulk task hands its slot to the priority caller, not the queued bulk task
+        Runnable running = carrierQueue.remove(0);
+        running.run();
+        assertEquals("done", priority.get(5, TimeUnit.SECONDS));
+        runGrantedWork();
+
+        assertEquals(List.of("bulk-running", "priority", "bulk-queued"), order);
+        Timer priorityWait = meterRegistry.get(TransactionScheduler.QUEUE_LATENCY_METRIC).tag("lane", "priority").timer();
+        assertNotNull(priorityWait);
+        assertEquals(1, priorityWait.count());
+    }
+
+    @Test
+    void testExecute_callerIsRejectedWhenNoSlotIsGrantedInTime() {
+        ReflectionTestUtils.setField(scheduler, "admissionTimeout", Duration.ofMillis(50));
+        scheduler.submit(TransactionLane.BULK, () -> { });
+
+        assertThrows(RejectedExecutionException.class, () -> scheduler.execute(TransactionLane.PRIORITY, () -> "late"));
+        // The abandoned ticket must not take the slot once it frees up
+        assertEquals(0.0, meterRegistry.get(TransactionScheduler.QUEUE_DEPTH_METRIC).tag("lane", "priority").gauge().value());
+        runGrantedWork();
+        assertEquals("ok", scheduler.execute(TransactionLane.PRIORITY, () -> "ok"));
+    }
+
+    @Test
+    void testExecute_fullLaneIsRejectedWithoutWaiting() {
+        ReflectionTestUtils.setField(scheduler, "queueCapacity", 1);
+        ReflectionTestUtils.setField(scheduler, "admissionTimeout", Duration.ofMinutes(1));
+        scheduler.submit(TransactionLane.STANDARD, () -> { });
+        scheduler.submit(TransactionLane.STANDARD, () -> { });
+
+        assertThrows(RejectedExecutionException.class, () -> scheduler.execute(TransactionLane.STANDARD, () -> "never"));
+    }
+
+    @Test
+    void testExecute_runsImmediatelyWhenASlotIsFree() {
+        assertEquals("ok", scheduler.execute(TransactionLane.STANDARD, () -> "ok"));
+        assertEquals(1, meterRegistry.get(TransactionScheduler.QUEUE_LATENCY_METRIC).tag("lane", "standard").timer().count());
+    }
+
+    @Test
+    void testStop_refusesNewWorkAndFinishesQueuedWork() throws Exception {
+        scheduler.start();
+        List<Integer> done = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int n = i;
+            scheduler.submit(TransactionLane.STANDARD, () -> done.add(n));
+        }
+
+        CompletableFuture<Void> stopping = CompletableFuture.runAsync(scheduler::stop);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!(Boolean) ReflectionTestUtils.getField(scheduler, "draining")) {
+            assertTrue(System.nanoTime() < deadline, "scheduler never started draining");
+            Thread.sleep(5);
+        }
+
+        assertThrows(RejectedExecutionException.class, () -> scheduler.submit(TransactionLane.PRIORITY, () -> { }));
+        assertThrows(RejectedExecutionException.class, () -> scheduler.execute(TransactionLane.PRIORITY, () -> "late"));
+        assertFalse(stopping.isDone());
+
+        runGrantedWork();
+
+        stopping.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(0, 1, 2), done);
+        assertFalse(scheduler.isRunning());
+    }
+
+    @Test
+    void testStop_givesUpAfterTheDrainTimeout() {
+        ReflectionTestUtils.setField(scheduler, "drainTimeout", Duration.ofMillis(50));
+        scheduler.start();
+        scheduler.submit(TransactionLane.BULK, () -> { });
+
+        scheduler.stop();
+
+        assertFalse(scheduler.isRunning());
+        assertEquals(1, carrierQueue.size());
+    }
+
+    private void runGrantedWork() {
+        while (!carrierQueue.isEmpty()) {
+            carrierQueue.remove(0).run();
+        }
+    }
+
+    private void awaitQueued(TransactionLane lane) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get(TransactionScheduler.QUEUE_DEPTH_METRIC).tag("lane", lane.name().toLowerCase()).gauge().value() < 1) {
+            assertTrue(System.nanoTime() < deadline, "caller never queued");
+            Thread.sleep(5);
+        }
+    }
+}
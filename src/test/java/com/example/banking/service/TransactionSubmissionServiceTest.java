@@ -0,0 +1,98 @@
+package com.example.banking.service;
+
+import com.example.banking.model.IdempotentResponse;
+import com.example.banking.model.SubmissionState;
+import com.example.banking.model.TransactionSubmission;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransactionSubmissionServiceTest {
+
+    private final List<Runnable> queued = new ArrayList<>();
+
+    private TransactionSubmissionService submissionService;
+
+    @BeforeEach
+    void setUp() {
+        // Tasks are held until the test runs them, so each state can be observed
+        Executor carrier = queued::add;
+        TransactionScheduler scheduler = new TransactionScheduler();
+        ReflectionTestUtils.setField(scheduler, "carrierExecutor", carrier);
+        submissionService = new TransactionSubmissionService();
+        ReflectionTestUtils.setField(submissionService, "transactionScheduler", scheduler);
+    }
+
+    @Test
+    void testSubmit_reportsQueuedThenCompleted() {
+        TransactionSubmission submission = submissionService.submit(TransactionLane.BULK,
+                () -> new IdempotentResponse(200, Map.of("success", true)));
+
+        assertEquals(SubmissionState.QUEUED, submissionService.getStatus(submission.handle()).orElseThrow().state());
+
+        queued.forEach(Runnable::run);
+
+        TransactionSubmission status = submissionService.getStatus(submission.handle()).orElseThrow();
+        assertEquals(SubmissionState.COMPLETED, status.state());
+        assertEquals(200, status.resultStatus());
+        assertEquals(true, status.result().get("success"));
+        assertTrue(status.startedAt() != null && status.completedAt() != null);
+    }
+
+    @Test
+    void testSubmit_exceptionIsReportedAsFailed() {
+        TransactionSubmission submission = submissionService.submit(TransactionLane.BULK, () -> {
+            throw new IllegalStateException("database unavailable");
+        });
+
+        queued.forEach(Runnable::run);
+
+        TransactionSubmission status = submissionService.getStatus(submission.handle()).orElseThrow();
+        assertEquals(SubmissionState.FAILED, status.state());
+        assertEquals("database unavailable", status.result().get("message"));
+    }
+
+    @Test
+    void testSubmit_rejectedSubmissionIsNotTracked() {
+        TransactionScheduler full = new TransactionScheduler() {
+            @Override
+            public void submit(TransactionLane lane, Runnable work) {
+                throw new RejectedExecutionException("queue full");
+            }
+        };
+        ReflectionTestUtils.setField(submissionService, "transactionScheduler", full);
+
+        assertThrows(RejectedExecutionException.class,
+                () -> submissionService.submit(TransactionLane.BULK, () -> new IdempotentResponse(200, Map.of())));
+        assertEquals(0, ((Map<?, ?>) ReflectionTestUtils.getField(submissionService, "submissions")).size());
+    }
+
+    @Test
+    void testSubmit_oldestFinishedEntriesMakeRoomButPendingOnesStay() {
+        ReflectionTestUtils.setField(submissionService, "maxTracked", 2);
+        ReflectionTestUtils.setField(submissionService, "retention", Duration.ofHours(1));
+
+        TransactionSubmission pending = submissionService.submit(TransactionLane.BULK, () -> new IdempotentResponse(200, Map.of()));
+        Runnable pendingTask = queued.remove(0);
+        TransactionSubmission finished = submissionService.submit(TransactionLane.BULK, () -> new IdempotentResponse(200, Map.of()));
+        queued.remove(0).run();
+
+        TransactionSubmission latest = submissionService.submit(TransactionLane.BULK, () -> new IdempotentResponse(200, Map.of()));
+
+        assertTrue(submissionService.getStatus(pending.handle()).isPresent());
+        assertTrue(submissionService.getStatus(finished.handle()).isEmpty());
+        assertTrue(submissionService.getStatus(latest.handle()).isPresent());
+        pendingTask.run();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.banking.testconfig;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds a {@link SqlStatementCounter} recording to every request thread. Import into end-to-end tests
+ * that assert per-endpoint statement counts.
+ */
+@TestConfiguration
+public class QueryCountTestConfig {
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> sqlStatementCountingFilter() {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                SqlStatementCounter.begin(request.getMethod() + " " + request.getRequestURI());
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    SqlStatementCounter.end();
+                }
+            }
+        });
+        // Outermost, so open-in-view lazy loads during serialization are counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.banking.testconfig;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts the SQL statements Hibernate prepares on behalf of one HTTP request. Registered as the
+ * session-factory statement inspector in the test profile; statements are only recorded on a thread
+ * that {@link QueryCountTestConfig}'s filter has bound, so async projection work and test setup
+ * never show up in a request's numbers. Sequence fetches are tracked separately because pooled ids
+ * make them depend on what ran before.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+    private static final Map<String, Counts> BY_REQUEST = new ConcurrentHashMap<>();
+
+    @Override
+    public String inspect(String sql) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.record(sql);
+        }
+        return sql;
+    }
+
+    static void begin(String requestKey) {
+        Counts counts = new Counts();
+        BY_REQUEST.put(requestKey, counts);
+        CURRENT.set(counts);
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    public static void reset() {
+        BY_REQUEST.clear();
+    }
+
+    /**
+     * Statements of the most recent request for the given method and path, e.g. ("POST", "/api/v1/accounts/process").
+     */
+    public static Counts forRequest(String method, String path) {
+        Counts counts = BY_REQUEST.get(method + " " + path);
+        if (counts == null) {
+            throw new AssertionError("No request recorded for " + method + " " + path + "; recorded: " + BY_REQUEST.keySet());
+        }
+        return counts;
+    }
+
+    public static final class Counts {
+        private final List<String> statements = new ArrayList<>();
+        private int selects;
+        private int inserts;
+        private int updates;
+        private int deletes;
+        private int sequenceFetches;
+
+        private synchronized void record(String sql) {
+            statements.add(sql);
+            String normalized = sql.trim().toLowerCase(Locale.ROOT);
+            if (normalized.contains("next value for") || normalized.contains("nextval(")) {
+                sequenceFetches++;
+            } else if (normalized.startsWith("select") || normalized.startsWith("with")) {
+                selects++;
+            } else if (normalized.startsWith("insert")) {
+                inserts++;
+            } else if (normalized.startsWith("update")) {
+                updates++;
+            } else if (normalized.startsWith("delete")) {
+                deletes++;
+            }
+        }
+
+        public synchronized int selects() {
+            return selects;
+        }
+
+        public synchronized int inserts() {
+            return inserts;
+        }
+
+        public synchronized int updates() {
+            return updates;
+        }
+
+        public synchronized int deletes() {
+            return deletes;
+        }
+
+        public synchronized int sequenceFetches() {
+            return sequenceFetches;
+        }
+
+        public synchronized List<String> statements() {
+            return new ArrayList<>(statements);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return "selects=" + selects + ", inserts=" + inserts + ", updates=" + updates + ", deletes=" + deletes
+                    + "\n  " + String.join("\n  ", statements);
+        }
+    }
+}